@@ -0,0 +1,35 @@
+package com.example.tilingservice.binary;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+
+import java.util.List;
+
+/**
+ * Geometry type codes, which WKB, TWKB and FlatGeobuf all take from the OGC simple
+ * features numbering.
+ */
+final class BinaryGeometry {
+    static final int POLYGON = 3;
+    static final int MULTI_POLYGON = 6;
+    static final int GEOMETRY_COLLECTION = 7;
+
+    private static final String[] NAMES = {"Unknown", "Point", "LineString", "Polygon", "MultiPoint",
+            "MultiLineString", "MultiPolygon", "GeometryCollection"};
+
+    private BinaryGeometry() {
+    }
+
+    static String typeName(int type) {
+        return type >= 0 && type < NAMES.length ? NAMES[type] : "type " + type;
+    }
+
+    static IllegalArgumentException unsupported(int type) {
+        return new IllegalArgumentException("Unsupported geometry type: " + typeName(type));
+    }
+
+    static List<Feature> intersecting(List<Feature> features, BoundingBox bbox) {
+        return bbox == null ? features
+                : features.stream().filter(feature -> feature.getShape().getBoundingBox().intersects(bbox)).toList();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.tilingservice.binary;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.Shape;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Counterpart of {@link com.example.tilingservice.geojson.Parser} for binary geometry
+ * encodings, read from a request body of the parser's media type. Malformed input
+ * throws an {@link IllegalArgumentException} naming the byte offset it was found at.
+ */
+public interface BinaryParser {
+    MediaType getMediaType();
+
+    Shape parse(InputStream in) throws IOException;
+
+    /**
+     * Features in input order, ids being their positions unless the encoding carries
+     * ids. With a {@code bbox}, only the features whose bounding box intersects it.
+     */
+    List<Feature> parseFeatures(InputStream in, BoundingBox bbox) throws IOException;
+}
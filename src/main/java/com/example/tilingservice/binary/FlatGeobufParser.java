@@ -0,0 +1,415 @@
+package com.example.tilingservice.binary;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * FlatGeobuf (version 3): a header, an optional packed Hilbert R-tree of feature bounding
+ * boxes, then the features, each a size-prefixed FlatBuffer. Features are read from the
+ * stream in order and never held as a whole file. Given a bbox, the R-tree is searched
+ * first and only the matching features are decoded; the bytes in between are skipped.
+ * Feature ids are positions in the file. Properties are ignored.
+ */
+@Component
+public class FlatGeobufParser implements BinaryParser {
+    public static final String MEDIA_TYPE_VALUE = "application/flatgeobuf";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final byte[] MAGIC = {'f', 'g', 'b', 3, 'f', 'g', 'b'};
+    private static final int MAGIC_BYTES = 8;
+    // Four bounds and an offset per R-tree node
+    private static final int NODE_BYTES = 40;
+    private static final int DEFAULT_NODE_SIZE = 16;
+
+    // Field ids of the Header, Feature and Geometry tables
+    private static final int HEADER_GEOMETRY_TYPE = 2;
+    private static final int HEADER_FEATURES_COUNT = 8;
+    private static final int HEADER_INDEX_NODE_SIZE = 9;
+    private static final int FEATURE_GEOMETRY = 0;
+    private static final int GEOMETRY_ENDS = 0;
+    private static final int GEOMETRY_XY = 1;
+    private static final int GEOMETRY_TYPE = 6;
+    private static final int GEOMETRY_PARTS = 7;
+
+    @Override
+    public MediaType getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public Shape parse(InputStream in) throws IOException {
+        return read(in, null, true).get(0).getShape();
+    }
+
+    @Override
+    public List<Feature> parseFeatures(InputStream in, BoundingBox bbox) throws IOException {
+        return read(in, bbox, false);
+    }
+
+    private List<Feature> read(InputStream in, BoundingBox bbox, boolean single) throws IOException {
+        Input input = new Input(in);
+        try {
+            byte[] magic = input.read(MAGIC_BYTES).array();
+            if (!Arrays.equals(magic, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+                throw new IllegalArgumentException("not a FlatGeobuf version 3 file");
+            }
+            Table header = Table.root(input.read(input.readSize()));
+            int geometryType = header.getUnsignedByte(HEADER_GEOMETRY_TYPE, 0);
+            long featureCount = header.getLong(HEADER_FEATURES_COUNT, 0);
+            int nodeSize = header.getUnsignedShort(HEADER_INDEX_NODE_SIZE, DEFAULT_NODE_SIZE);
+            if (single && featureCount > 1) {
+                throw new IllegalArgumentException("expected one feature, found " + featureCount);
+            }
+
+            List<Feature> features = new ArrayList<>();
+            PackedRTree index = nodeSize > 0 && featureCount > 0 ? new PackedRTree(featureCount, nodeSize) : null;
+            long featuresStart = input.position() + (index != null ? index.getBytes() : 0);
+            if (index != null && bbox != null) {
+                for (long[] hit : index.search(input, bbox)) {
+                    input.skipTo(featuresStart + hit[0]);
+                    features.add(readFeature(input, geometryType, hit[1]));
+                }
+                return features;
+            }
+            input.skipTo(featuresStart);
+            for (long position = 0; input.hasMore(); position++) {
+                if (single && position == 1) {
+                    throw new IllegalArgumentException("expected one feature, found more");
+                }
+                Feature feature = readFeature(input, geometryType, position);
+                if (bbox == null || feature.getShape().getBoundingBox().intersects(bbox)) {
+                    features.add(feature);
+                }
+            }
+            if (features.isEmpty() && bbox == null) {
+                throw new IllegalArgumentException("no features");
+            }
+            return features;
+        } catch (EOFException | BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid FlatGeobuf at byte " + input.position()
+                    + ": unexpected end of input", e);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid FlatGeobuf at byte " + input.position()
+                    + ": offset outside its table", e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid FlatGeobuf at byte " + input.position()
+                    + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Feature readFeature(Input input, int geometryType, long position) throws IOException {
+        Table feature = Table.root(input.read(input.readSize()));
+        try {
+            return new Feature(String.valueOf(position), toShape(feature.getTable(FEATURE_GEOMETRY), geometryType));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("feature " + position + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param type the header's geometry type, or 0 when each geometry carries its own
+     */
+    private static Shape toShape(Table geometry, int type) {
+        if (geometry == null) {
+            throw new IllegalArgumentException("Feature has no geometry");
+        }
+        if (type == 0) {
+            type = geometry.getUnsignedByte(GEOMETRY_TYPE, 0);
+        }
+        if (type == BinaryGeometry.POLYGON) {
+            return toPolygon(geometry);
+        }
+        if (type != BinaryGeometry.MULTI_POLYGON) {
+            throw BinaryGeometry.unsupported(type);
+        }
+        List<PolygonShape> polygons = new ArrayList<>();
+        for (Table part : geometry.getTables(GEOMETRY_PARTS)) {
+            polygons.add(toPolygon(part));
+        }
+        if (polygons.isEmpty()) {
+            throw new IllegalArgumentException("MultiPolygon is empty");
+        }
+        return new MultiPolygonShape(polygons);
+    }
+
+    /**
+     * Rings are slices of one coordinate array, {@code ends} holding the point index each
+     * ring ends at; without it the whole array is one ring.
+     */
+    private static PolygonShape toPolygon(Table geometry) {
+        double[] xy = geometry.getDoubles(GEOMETRY_XY);
+        int points = xy.length / 2;
+        if (points == 0) {
+            throw new IllegalArgumentException("Polygon is empty");
+        }
+        int[] ends = geometry.getInts(GEOMETRY_ENDS);
+        if (ends.length <= 1) {
+            return new PolygonShape(PackedRing.wrap(xy, points), List.<PackedRing>of());
+        }
+        List<PackedRing> rings = new ArrayList<>(ends.length);
+        int start = 0;
+        for (int end : ends) {
+            if (end <= start || end > points) {
+                throw new IllegalArgumentException("ring end " + end + " out of order");
+            }
+            rings.add(PackedRing.wrap(Arrays.copyOfRange(xy, 2 * start, 2 * end), end - start));
+            start = end;
+        }
+        return new PolygonShape(rings.get(0), rings.subList(1, rings.size()));
+    }
+
+    /**
+     * Layout of the static R-tree: nodes are stored root first, level by level, each
+     * holding a bounding box and the index of its first child, or for leaves the byte
+     * offset of its feature. Every node but the last of a level has {@code nodeSize}
+     * children.
+     */
+    private static final class PackedRTree {
+        private final int nodeSize;
+        // Node ranges per level, leaves first
+        private final long[] levelStarts;
+        private final long[] levelEnds;
+        private final long nodeCount;
+
+        PackedRTree(long featureCount, int nodeSize) {
+            if (nodeSize < 2) {
+                throw new IllegalArgumentException("index node size " + nodeSize);
+            }
+            this.nodeSize = nodeSize;
+            List<Long> levelCounts = new ArrayList<>();
+            long n = featureCount;
+            long total = n;
+            levelCounts.add(n);
+            do {
+                n = (n + nodeSize - 1) / nodeSize;
+                total += n;
+                levelCounts.add(n);
+            } while (n != 1);
+            this.nodeCount = total;
+            this.levelStarts = new long[levelCounts.size()];
+            this.levelEnds = new long[levelCounts.size()];
+            long end = total;
+            for (int level = 0; level < levelCounts.size(); level++) {
+                levelEnds[level] = end;
+                levelStarts[level] = end - levelCounts.get(level);
+                end = levelStarts[level];
+            }
+        }
+
+        long getBytes() {
+            return nodeCount * NODE_BYTES;
+        }
+
+        /**
+         * Visits the nodes intersecting the box breadth-first, which reads the index front
+         * to back, skipping the nodes under boxes that don't intersect.
+         *
+         * @return byte offset and position of each intersecting feature, in file order
+         */
+        List<long[]> search(Input input, BoundingBox bbox) throws IOException {
+            double minX = bbox.getSouthWest().getLongitude();
+            double minY = bbox.getSouthWest().getLatitude();
+            double maxX = bbox.getNorthEast().getLongitude();
+            double maxY = bbox.getNorthEast().getLatitude();
+            long indexStart = input.position();
+            ArrayDeque<long[]> queue = new ArrayDeque<>();
+            queue.add(new long[]{0, levelStarts.length - 1});
+            List<long[]> hits = new ArrayList<>();
+            while (!queue.isEmpty()) {
+                long[] next = queue.poll();
+                long first = next[0];
+                int level = (int) next[1];
+                if (first < levelStarts[level] || first >= levelEnds[level]) {
+                    throw new IllegalArgumentException("index node " + first + " outside level " + level);
+                }
+                long end = Math.min(first + nodeSize, levelEnds[level]);
+                input.skipTo(indexStart + first * NODE_BYTES);
+                ByteBuffer nodes = input.read((int) (end - first) * NODE_BYTES);
+                for (long node = first; node < end; node++) {
+                    double nodeMinX = nodes.getDouble();
+                    double nodeMinY = nodes.getDouble();
+                    double nodeMaxX = nodes.getDouble();
+                    double nodeMaxY = nodes.getDouble();
+                    long offset = nodes.getLong();
+                    if (nodeMinX > maxX || nodeMinY > maxY || nodeMaxX < minX || nodeMaxY < minY) {
+                        continue;
+                    }
+                    if (level == 0) {
+                        hits.add(new long[]{offset, node - levelStarts[0]});
+                    } else {
+                        queue.add(new long[]{offset, level - 1});
+                    }
+                }
+            }
+            hits.sort(Comparator.comparingLong(hit -> hit[0]));
+            return hits;
+        }
+    }
+
+    /**
+     * The input stream with the count of bytes consumed, read forward only.
+     */
+    private static final class Input {
+        private final InputStream in;
+        private long position;
+
+        Input(InputStream in) {
+            this.in = in.markSupported() ? in : new BufferedInputStream(in);
+        }
+
+        long position() {
+            return position;
+        }
+
+        ByteBuffer read(int length) throws IOException {
+            // Reads in chunks, so a corrupt length fails at the end of input, not at allocation
+            byte[] bytes = in.readNBytes(length);
+            position += bytes.length;
+            if (bytes.length < length) {
+                throw new EOFException();
+            }
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Size prefix of the FlatBuffer that follows.
+         */
+        int readSize() throws IOException {
+            long size = Integer.toUnsignedLong(read(4).getInt());
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("table size " + size);
+            }
+            return (int) size;
+        }
+
+        boolean hasMore() throws IOException {
+            in.mark(1);
+            boolean more = in.read() >= 0;
+            in.reset();
+            return more;
+        }
+
+        void skipTo(long target) throws IOException {
+            if (target < position) {
+                throw new IllegalArgumentException("offset " + target + " points back");
+            }
+            in.skipNBytes(target - position);
+            position = target;
+        }
+    }
+
+    /**
+     * A FlatBuffers table: a signed offset to a vtable of field offsets, then the fields.
+     * Offsets to vectors and nested tables are relative to where they are stored.
+     */
+    private static final class Table {
+        private final ByteBuffer buffer;
+        private final int position;
+
+        private Table(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        static Table root(ByteBuffer buffer) {
+            return new Table(buffer, buffer.getInt(0));
+        }
+
+        /**
+         * Absolute position of a field, or 0 when it is absent and has its default value.
+         */
+        private int field(int id) {
+            int vtable = position - buffer.getInt(position);
+            int entry = 4 + 2 * id;
+            if (entry >= Short.toUnsignedInt(buffer.getShort(vtable))) {
+                return 0;
+            }
+            int offset = Short.toUnsignedInt(buffer.getShort(vtable + entry));
+            return offset == 0 ? 0 : position + offset;
+        }
+
+        int getUnsignedByte(int id, int defaultValue) {
+            int field = field(id);
+            return field == 0 ? defaultValue : Byte.toUnsignedInt(buffer.get(field));
+        }
+
+        int getUnsignedShort(int id, int defaultValue) {
+            int field = field(id);
+            return field == 0 ? defaultValue : Short.toUnsignedInt(buffer.getShort(field));
+        }
+
+        long getLong(int id, long defaultValue) {
+            int field = field(id);
+            return field == 0 ? defaultValue : buffer.getLong(field);
+        }
+
+        Table getTable(int id) {
+            int field = field(id);
+            return field == 0 ? null : new Table(buffer, field + buffer.getInt(field));
+        }
+
+        List<Table> getTables(int id) {
+            int start = vector(id);
+            int length = start < 0 ? 0 : vectorLength(start, 4);
+            List<Table> tables = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                int element = start + 4 * i;
+                tables.add(new Table(buffer, element + buffer.getInt(element)));
+            }
+            return tables;
+        }
+
+        double[] getDoubles(int id) {
+            int start = vector(id);
+            double[] values = new double[start < 0 ? 0 : vectorLength(start, 8)];
+            if (values.length > 0) {
+                buffer.slice(start, 8 * values.length).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+            }
+            return values;
+        }
+
+        int[] getInts(int id) {
+            int start = vector(id);
+            int[] values = new int[start < 0 ? 0 : vectorLength(start, 4)];
+            if (values.length > 0) {
+                buffer.slice(start, 4 * values.length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values);
+            }
+            return values;
+        }
+
+        /**
+         * Position of the first element of a vector field, or -1 when it is absent.
+         */
+        private int vector(int id) {
+            int field = field(id);
+            return field == 0 ? -1 : field + buffer.getInt(field) + 4;
+        }
+
+        private int vectorLength(int start, int elementBytes) {
+            int length = buffer.getInt(start - 4);
+            if (length < 0 || length > (buffer.limit() - start) / elementBytes) {
+                throw new IndexOutOfBoundsException("vector of " + Integer.toUnsignedString(length));
+            }
+            return length;
+        }
+    }
+}
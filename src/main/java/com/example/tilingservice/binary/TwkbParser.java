@@ -0,0 +1,234 @@
+package com.example.tilingservice.binary;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Tiny well-known binary: coordinates as varint deltas of integers scaled by a decimal
+ * precision, read straight into packed rings. Z and M values are skipped. A
+ * GeometryCollection of polygons yields one feature per member, with the ids of its id
+ * list when it has one.
+ */
+@Component
+public class TwkbParser implements BinaryParser {
+    public static final String MEDIA_TYPE_VALUE = "application/twkb";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    // Metadata header flags
+    private static final int HAS_BBOX = 0x01;
+    private static final int HAS_SIZE = 0x02;
+    private static final int HAS_ID_LIST = 0x04;
+    private static final int HAS_EXTENDED_DIMENSIONS = 0x08;
+    private static final int IS_EMPTY = 0x10;
+
+    @Override
+    public MediaType getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public Shape parse(InputStream in) throws IOException {
+        return read(in, Reader::readShape);
+    }
+
+    @Override
+    public List<Feature> parseFeatures(InputStream in, BoundingBox bbox) throws IOException {
+        return BinaryGeometry.intersecting(read(in, Reader::readFeatures), bbox);
+    }
+
+    private static <T> T read(InputStream in, Function<Reader, T> body) throws IOException {
+        Reader reader = new Reader(ByteBuffer.wrap(in.readAllBytes()));
+        try {
+            T result = body.apply(reader);
+            if (reader.buffer.hasRemaining()) {
+                throw new IllegalArgumentException(reader.buffer.remaining() + " bytes after the geometry");
+            }
+            return result;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid TWKB at byte " + reader.buffer.position()
+                    + ": unexpected end of input", e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid TWKB at byte " + reader.buffer.position()
+                    + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        // Header of the geometry being read
+        private int type;
+        private int dimensions;
+        private int precision;
+        private double scale;
+        private boolean hasIds;
+        private boolean empty;
+        // Deltas run on through every ring and part of a geometry
+        private long x;
+        private long y;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        List<Feature> readFeatures() {
+            int start = buffer.position();
+            readHeader();
+            if (type != BinaryGeometry.GEOMETRY_COLLECTION) {
+                buffer.position(start);
+                return List.of(new Feature("0", readShape()));
+            }
+            int count = empty ? 0 : readCount(2);
+            if (count == 0) {
+                throw new IllegalArgumentException("GeometryCollection has no members");
+            }
+            long[] ids = hasIds ? readIds(count) : null;
+            List<Feature> features = new ArrayList<>(count);
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                String id = String.valueOf(ids != null ? ids[i] : i);
+                if (!seen.add(id)) {
+                    throw new IllegalArgumentException("Duplicate feature id: " + id);
+                }
+                features.add(new Feature(id, readShape()));
+            }
+            return features;
+        }
+
+        Shape readShape() {
+            readHeader();
+            if (type != BinaryGeometry.POLYGON && type != BinaryGeometry.MULTI_POLYGON) {
+                throw BinaryGeometry.unsupported(type);
+            }
+            if (empty) {
+                throw new IllegalArgumentException(BinaryGeometry.typeName(type) + " is empty");
+            }
+            if (type == BinaryGeometry.POLYGON) {
+                return readPolygon();
+            }
+            int count = readCount(1);
+            if (hasIds) {
+                readIds(count);
+            }
+            List<PolygonShape> polygons = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                polygons.add(readPolygon());
+            }
+            if (polygons.isEmpty()) {
+                throw new IllegalArgumentException("MultiPolygon is empty");
+            }
+            return new MultiPolygonShape(polygons);
+        }
+
+        private void readHeader() {
+            int typeAndPrecision = Byte.toUnsignedInt(buffer.get());
+            type = typeAndPrecision & 0x0F;
+            precision = (int) zigzag(typeAndPrecision >>> 4);
+            scale = Math.pow(10, Math.abs(precision));
+            int flags = Byte.toUnsignedInt(buffer.get());
+            dimensions = 2;
+            if ((flags & HAS_EXTENDED_DIMENSIONS) != 0) {
+                int extended = buffer.get();
+                dimensions += (extended & 0x01) + ((extended >> 1) & 0x01);
+            }
+            if ((flags & HAS_SIZE) != 0) {
+                readVarint();
+            }
+            if ((flags & HAS_BBOX) != 0) {
+                for (int i = 0; i < 2 * dimensions; i++) {
+                    readVarint();
+                }
+            }
+            hasIds = (flags & HAS_ID_LIST) != 0;
+            empty = (flags & IS_EMPTY) != 0;
+            x = 0;
+            y = 0;
+        }
+
+        private PolygonShape readPolygon() {
+            int count = readCount(1);
+            if (count == 0) {
+                throw new IllegalArgumentException("Polygon is empty");
+            }
+            PackedRing outer = readRing();
+            List<PackedRing> holes = new ArrayList<>(count - 1);
+            for (int i = 1; i < count; i++) {
+                holes.add(readRing());
+            }
+            return new PolygonShape(outer, holes);
+        }
+
+        private PackedRing readRing() {
+            int count = readCount(dimensions);
+            double[] coordinates = new double[2 * count];
+            for (int i = 0; i < count; i++) {
+                x += zigzag(readVarint());
+                y += zigzag(readVarint());
+                coordinates[2 * i] = coordinate(x);
+                coordinates[2 * i + 1] = coordinate(y);
+                for (int d = 2; d < dimensions; d++) {
+                    readVarint();
+                }
+            }
+            return PackedRing.wrap(coordinates, count);
+        }
+
+        /**
+         * Dividing by a power of ten rounds like parsing the decimal would.
+         */
+        private double coordinate(long value) {
+            return precision >= 0 ? value / scale : value * scale;
+        }
+
+        private long[] readIds(int count) {
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = zigzag(readVarint());
+            }
+            return ids;
+        }
+
+        /**
+         * A count, checked against the bytes left before anything is allocated for it.
+         */
+        private int readCount(int minElementBytes) {
+            long count = readVarint();
+            if (count < 0 || count > buffer.remaining() / minElementBytes) {
+                throw new IllegalArgumentException("count " + Long.toUnsignedString(count)
+                        + " exceeds the " + buffer.remaining() + " bytes left");
+            }
+            return (int) count;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("varint longer than 10 bytes");
+        }
+
+        private static long zigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.tilingservice.binary;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Well-known binary, ISO or PostGIS extended (EWKB), read straight into packed rings
+ * without building JTS geometries. Z and M values are skipped. A GeometryCollection of
+ * polygons yields one feature per member.
+ */
+@Component
+public class WkbParser implements BinaryParser {
+    public static final String MEDIA_TYPE_VALUE = "application/wkb";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    // EWKB flags in the high bits of the type
+    private static final int EWKB_Z = 0x80000000;
+    private static final int EWKB_M = 0x40000000;
+    private static final int EWKB_SRID = 0x20000000;
+    private static final int EWKB_TYPE_MASK = 0x1FFFFFFF;
+
+    @Override
+    public MediaType getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public Shape parse(InputStream in) throws IOException {
+        return read(in, Reader::readShape);
+    }
+
+    @Override
+    public List<Feature> parseFeatures(InputStream in, BoundingBox bbox) throws IOException {
+        return BinaryGeometry.intersecting(read(in, Reader::readFeatures), bbox);
+    }
+
+    private static <T> T read(InputStream in, Function<Reader, T> body) throws IOException {
+        Reader reader = new Reader(ByteBuffer.wrap(in.readAllBytes()));
+        try {
+            T result = body.apply(reader);
+            if (reader.buffer.hasRemaining()) {
+                throw new IllegalArgumentException(reader.buffer.remaining() + " bytes after the geometry");
+            }
+            return result;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid WKB at byte " + reader.buffer.position()
+                    + ": unexpected end of input", e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid WKB at byte " + reader.buffer.position()
+                    + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private int dimensions;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        List<Feature> readFeatures() {
+            int start = buffer.position();
+            if (readType() != BinaryGeometry.GEOMETRY_COLLECTION) {
+                buffer.position(start);
+                return List.of(new Feature("0", readShape()));
+            }
+            int count = readCount(9);
+            List<Feature> features = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                features.add(new Feature(String.valueOf(i), readShape()));
+            }
+            if (features.isEmpty()) {
+                throw new IllegalArgumentException("GeometryCollection has no members");
+            }
+            return features;
+        }
+
+        Shape readShape() {
+            int type = readType();
+            if (type == BinaryGeometry.POLYGON) {
+                return readPolygon();
+            }
+            if (type != BinaryGeometry.MULTI_POLYGON) {
+                throw BinaryGeometry.unsupported(type);
+            }
+            int count = readCount(9);
+            List<PolygonShape> polygons = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (readType() != BinaryGeometry.POLYGON) {
+                    throw new IllegalArgumentException("MultiPolygon member isn't a Polygon");
+                }
+                polygons.add(readPolygon());
+            }
+            if (polygons.isEmpty()) {
+                throw new IllegalArgumentException("MultiPolygon is empty");
+            }
+            return new MultiPolygonShape(polygons);
+        }
+
+        /**
+         * Reads a byte order and a type, leaving the coordinate dimensions of the geometry
+         * in {@link #dimensions}.
+         */
+        private int readType() {
+            byte order = buffer.get();
+            if (order != 0 && order != 1) {
+                throw new IllegalArgumentException("byte order must be 0 or 1, not " + order);
+            }
+            buffer.order(order == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+            int type = buffer.getInt();
+            dimensions = 2 + ((type & EWKB_Z) != 0 ? 1 : 0) + ((type & EWKB_M) != 0 ? 1 : 0);
+            if ((type & EWKB_SRID) != 0) {
+                buffer.getInt();
+            }
+            // ISO codes add 1000 for Z, 2000 for M and 3000 for both
+            type &= EWKB_TYPE_MASK;
+            int extra = type / 1000;
+            if (extra > 3) {
+                throw BinaryGeometry.unsupported(type);
+            }
+            dimensions += extra == 3 ? 2 : extra;
+            return type % 1000;
+        }
+
+        private PolygonShape readPolygon() {
+            int count = readCount(4);
+            if (count == 0) {
+                throw new IllegalArgumentException("Polygon is empty");
+            }
+            PackedRing outer = readRing();
+            List<PackedRing> holes = new ArrayList<>(count - 1);
+            for (int i = 1; i < count; i++) {
+                holes.add(readRing());
+            }
+            return new PolygonShape(outer, holes);
+        }
+
+        private PackedRing readRing() {
+            int count = readCount(8 * dimensions);
+            double[] coordinates = new double[2 * count];
+            int skip = 8 * (dimensions - 2);
+            for (int i = 0; i < count; i++) {
+                coordinates[2 * i] = buffer.getDouble();
+                coordinates[2 * i + 1] = buffer.getDouble();
+                buffer.position(buffer.position() + skip);
+            }
+            return PackedRing.wrap(coordinates, count);
+        }
+
+        /**
+         * A count, checked against the bytes left before anything is allocated for it.
+         */
+        private int readCount(int minElementBytes) {
+            int count = buffer.getInt();
+            if (count < 0 || (long) count * minElementBytes > buffer.remaining()) {
+                throw new IllegalArgumentException("count " + Integer.toUnsignedString(count)
+                        + " exceeds the " + buffer.remaining() + " bytes left");
+            }
+            return count;
+        }
+    }
+}
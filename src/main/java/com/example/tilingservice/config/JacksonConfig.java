@@ -2,6 +2,7 @@ package com.example.tilingservice.config;
 
 import com.example.tilingservice.tile.RectangleTile;
 import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.tile.WebMercatorTile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
 import org.springframework.context.annotation.Bean;
@@ -14,6 +15,7 @@ public class JacksonConfig {
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerSubtypes(new NamedType(RectangleTile.class, "rectangle"));
+        mapper.registerSubtypes(new NamedType(WebMercatorTile.class, "web-mercator"));
         return mapper;
     }
 }
@@ -2,6 +2,7 @@ package com.example.tilingservice.config;
 
 import com.example.tilingservice.rtree.RTree;
 import com.example.tilingservice.tile.RectangleTile;
+import com.example.tilingservice.tile.WebMercatorTile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,7 +13,7 @@ public class RTreeConfig {
     @Bean
     public ObjectMapper rTreeObjectMapper() {
         ObjectMapper mapper = new ObjectMapper();
-        mapper.registerSubtypes(RectangleTile.class);
+        mapper.registerSubtypes(RectangleTile.class, WebMercatorTile.class);
         return mapper;
     }
     
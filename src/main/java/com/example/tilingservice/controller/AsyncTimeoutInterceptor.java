@@ -0,0 +1,38 @@
+package com.example.tilingservice.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Gives a streamed response body its own async timeout. A StreamingResponseBody is
+ * written under the container's async timeout, 30 seconds on Tomcat unless
+ * {@code spring.mvc.async.request-timeout} is set, and a body cut off by it still has
+ * the 200 sent ahead of it. Endpoints whose bodies run longer register their timeout on
+ * the request before returning, and it's applied when concurrent handling starts.
+ */
+@RequiredArgsConstructor
+class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+    private static final Object KEY = AsyncTimeoutInterceptor.class;
+
+    private final long timeoutMillis;
+
+    /**
+     * @param timeoutMillis timeout of the response body, zero or less for none
+     */
+    static void register(HttpServletRequest request, long timeoutMillis) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(KEY, new AsyncTimeoutInterceptor(timeoutMillis));
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        if (request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(timeoutMillis);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.tilingservice.controller;
 
 import com.example.tilingservice.service.AsyncTileRenderer;
+import com.example.tilingservice.service.CoverageMode;
+import com.example.tilingservice.service.TileGrid;
 import com.example.tilingservice.service.TileService;
-import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.service.TilingAlgorithm;
+import com.example.tilingservice.service.TilingJob;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -10,7 +13,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.stereotype.Controller;
-import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
@@ -35,18 +37,56 @@ public class TileWebSocketController {
         
         @JsonProperty("includeBoundingBox")
         private boolean includeBoundingBox = true;
+
+        @JsonProperty("parallel")
+        private boolean parallel = false;
+
+        @JsonProperty("algorithm")
+        private TilingAlgorithm algorithm = TilingAlgorithm.QUADTREE;
+
+        @JsonProperty("coverageMode")
+        private CoverageMode coverageMode = CoverageMode.CLIP;
+
+        @JsonProperty("grid")
+        private TileGrid grid = TileGrid.BOUNDING_BOX;
+
+        @JsonProperty("compact")
+        private boolean compact = false;
+
+        @JsonProperty("simplify")
+        private boolean simplify = false;
+
+        @JsonProperty("previousResultId")
+        private String previousResultId;
+
+        @JsonProperty("deadlineMillis")
+        private long deadlineMillis = 0;
+
+        @JsonProperty("maxTiles")
+        private int maxTiles = 0;
+
+        public TilingJob toTilingJob() {
+            return TilingJob.builder()
+                .maxTileArea(maxTileArea)
+                .minTileArea(minTileArea)
+                .coverageThreshold(coverageThreshold)
+                .includeBoundingBox(includeBoundingBox)
+                .parallel(parallel)
+                .algorithm(algorithm)
+                .coverageMode(coverageMode)
+                .grid(grid)
+                .compact(compact)
+                .simplify(simplify)
+                .previousResultId(previousResultId)
+                .deadlineMillis(deadlineMillis)
+                .maxTiles(maxTiles)
+                .build();
+        }
     }
 
     @MessageMapping("/tiles")
     @SendTo("/topic/tiles")
     public void streamTiles(WebSocketTilingRequest request) {
-        List<Tile> tiles = tileService.generateTiles(
-            request.getGeoJson(),
-            request.getMaxTileArea(),
-            request.getMinTileArea(),
-            request.getCoverageThreshold(),
-            request.isIncludeBoundingBox()
-        );
-        tileRenderer.streamTiles(tiles);
+        tileRenderer.streamTiles(tileService.streamTiling(request.getGeoJson(), request.toTilingJob()));
     }
 }
\ No newline at end of file
@@ -1,23 +1,45 @@
 package com.example.tilingservice.controller;
 
+import com.example.tilingservice.binary.FlatGeobufParser;
+import com.example.tilingservice.binary.TwkbParser;
+import com.example.tilingservice.binary.WkbParser;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.Shape;
 import com.example.tilingservice.service.AsyncTileRenderer;
+import com.example.tilingservice.service.BatchTilingResult;
+import com.example.tilingservice.service.CoverageMode;
+import com.example.tilingservice.service.FeatureIngestionService;
+import com.example.tilingservice.service.TileGrid;
+import com.example.tilingservice.service.TileResultCache;
 import com.example.tilingservice.service.TileService;
-import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.service.TilingAlgorithm;
+import com.example.tilingservice.service.TilingJob;
+import com.example.tilingservice.service.TilingStream;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -29,10 +51,22 @@ public class TilingController {
 
     private final TileService tileService;
     private final AsyncTileRenderer asyncTileRenderer;
+    private final TileResultCache resultCache;
+    private final TilingRequestReader requestReader;
+    private final FeatureIngestionService ingestionService;
     private final ObjectMapper objectMapper;
 
+    // Zero or less for none: tiles are computed while the response is written
+    @Value("${tiling.tiles.request-timeout-millis:-1}")
+    private long tilesTimeoutMillis = -1;
+
+    // Zero or less for none: a FeatureCollection may take hours to tile
+    @Value("${tiling.features.request-timeout-millis:-1}")
+    private long featuresTimeoutMillis = -1;
+
     @Data
     public static class TilingRequest {
+        // Documents the body only; TilingRequestReader parses geoJson itself and leaves this null
         @JsonProperty("geoJson")
         private JsonNode geoJson;
         
@@ -47,6 +81,58 @@ public class TilingController {
         
         @JsonProperty("includeBoundingBox")
         private boolean includeBoundingBox = true;
+
+        @JsonProperty("parallel")
+        private boolean parallel = false;
+
+        @JsonProperty("algorithm")
+        private TilingAlgorithm algorithm = TilingAlgorithm.QUADTREE;
+
+        @JsonProperty("coverageMode")
+        private CoverageMode coverageMode = CoverageMode.CLIP;
+
+        @JsonProperty("grid")
+        private TileGrid grid = TileGrid.BOUNDING_BOX;
+
+        @JsonProperty("compact")
+        private boolean compact = false;
+
+        @JsonProperty("simplify")
+        private boolean simplify = false;
+
+        @JsonProperty("previousResultId")
+        private String previousResultId;
+
+        @JsonProperty("deadlineMillis")
+        private long deadlineMillis = 0;
+
+        @JsonProperty("maxTiles")
+        private int maxTiles = 0;
+
+        public TilingJob toTilingJob() {
+            return TilingJob.builder()
+                .maxTileArea(maxTileArea)
+                .minTileArea(minTileArea)
+                .coverageThreshold(coverageThreshold)
+                .includeBoundingBox(includeBoundingBox)
+                .parallel(parallel)
+                .algorithm(algorithm)
+                .coverageMode(coverageMode)
+                .grid(grid)
+                .compact(compact)
+                .simplify(simplify)
+                .previousResultId(previousResultId)
+                .deadlineMillis(deadlineMillis)
+                .maxTiles(maxTiles)
+                .build();
+        }
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class BatchTilingRequest extends TilingRequest {
+        @JsonProperty("deduplicate")
+        private boolean deduplicate = false;
     }
 
     @PostMapping("/tiles")
@@ -55,28 +141,152 @@ public class TilingController {
         description = "Takes a GeoJSON polygon and tiling parameters, returns a list of tile footprints",
         security = @SecurityRequirement(name = "bearer-key")
     )
-    public ResponseEntity<String> generateTiles(
-            @RequestBody TilingRequest request,
+    public ResponseEntity<StreamingResponseBody> generateTiles(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                content = @Content(schema = @Schema(implementation = TilingRequest.class)))
+            InputStream body,
+            HttpServletRequest servletRequest,
             @AuthenticationPrincipal Jwt jwt) {
         try {
-            String geoJsonString = objectMapper.writeValueAsString(request.getGeoJson());
-            
-            List<Tile> tiles = tileService.generateTiles(
-                geoJsonString,
-                request.getMaxTileArea(),
-                request.getMinTileArea(),
-                request.getCoverageThreshold(),
-                request.isIncludeBoundingBox()
-            );
-            
-            String response = asyncTileRenderer.renderTilesAsync(tiles);
-            return ResponseEntity.ok(response);
+            // The body is read once, geometry and parameters together
+            TilingRequestReader.Parsed<TilingRequest, Shape> request = requestReader.readTiling(body);
+
+            return streamTiles(request, servletRequest);
         } catch (Exception e) {
             log.error("Error processing request: ", e);
-            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+            return badRequest(e);
         }
     }
 
+    @PostMapping(value = "/tiles", consumes = {WkbParser.MEDIA_TYPE_VALUE, TwkbParser.MEDIA_TYPE_VALUE,
+        FlatGeobufParser.MEDIA_TYPE_VALUE})
+    @Operation(
+        summary = "Generate tiles for a binary geometry",
+        description = "Takes a WKB, TWKB or single-feature FlatGeobuf body, by Content-Type, and the tiling "
+            + "parameters as query parameters",
+        security = @SecurityRequirement(name = "bearer-key")
+    )
+    public ResponseEntity<StreamingResponseBody> generateTilesFromBinary(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam Map<String, String> parameters,
+            HttpServletRequest request,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            return streamTiles(requestReader.readTiling(body, MediaType.parseMediaType(contentType), parameters),
+                request);
+        } catch (Exception e) {
+            log.error("Error processing binary request: ", e);
+            return badRequest(e);
+        }
+    }
+
+    @PostMapping("/tiles/batch")
+    @Operation(
+        summary = "Generate tiles for every feature of a FeatureCollection",
+        description = "Tiles the features in parallel and returns the tiles keyed by feature id, optionally "
+            + "holding tiles shared by overlapping features once",
+        security = @SecurityRequirement(name = "bearer-key")
+    )
+    public ResponseEntity<StreamingResponseBody> generateBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                content = @Content(schema = @Schema(implementation = BatchTilingRequest.class)))
+            InputStream body,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            return writeBatch(requestReader.readBatch(body));
+        } catch (Exception e) {
+            log.error("Error processing batch request: ", e);
+            return badRequest(e);
+        }
+    }
+
+    @PostMapping(value = "/tiles/batch", consumes = {WkbParser.MEDIA_TYPE_VALUE, TwkbParser.MEDIA_TYPE_VALUE,
+        FlatGeobufParser.MEDIA_TYPE_VALUE})
+    @Operation(
+        summary = "Generate tiles for every feature of a binary input",
+        description = "Takes a FlatGeobuf, or a WKB or TWKB GeometryCollection, by Content-Type, and the tiling "
+            + "parameters as query parameters. With bbox=minLon,minLat,maxLon,maxLat only the features "
+            + "intersecting it are tiled; FlatGeobuf reads just those through its spatial index",
+        security = @SecurityRequirement(name = "bearer-key")
+    )
+    public ResponseEntity<StreamingResponseBody> generateBatchFromBinary(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam Map<String, String> parameters,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            return writeBatch(requestReader.readBatch(body, MediaType.parseMediaType(contentType), parameters));
+        } catch (Exception e) {
+            log.error("Error processing binary batch request: ", e);
+            return badRequest(e);
+        }
+    }
+
+    @PostMapping(value = "/tiles/features", produces = "application/x-ndjson")
+    @Operation(
+        summary = "Tile a large FeatureCollection one feature at a time",
+        description = "Takes the FeatureCollection itself as the body and the tiling parameters as query "
+            + "parameters, and returns one line of newline-delimited JSON per feature as it is tiled",
+        security = @SecurityRequirement(name = "bearer-key")
+    )
+    public ResponseEntity<StreamingResponseBody> tileFeatures(
+            InputStream body,
+            @RequestParam Map<String, String> parameters,
+            HttpServletRequest request,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            TilingJob job = requestReader.readParameters(parameters, TilingRequest.class).toTilingJob();
+            AsyncTimeoutInterceptor.register(request, featuresTimeoutMillis);
+
+            // Parse errors after the first feature end up in the last line, not in the status
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(out -> ingestionService.ingest(body, job, out));
+        } catch (Exception e) {
+            log.error("Error processing feature request: ", e);
+            return badRequest(e);
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamTiles(TilingRequestReader.Parsed<TilingRequest, Shape> request,
+            HttpServletRequest servletRequest) {
+        // Parsing happens before this, so bad input still gets a 400; tiling runs while the body is written
+        TilingStream stream = tileService.streamTiling(request.getGeometry(), request.getRequest().toTilingJob());
+        AsyncTimeoutInterceptor.register(servletRequest, tilesTimeoutMillis);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> asyncTileRenderer.writeTiles(stream, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> writeBatch(
+            TilingRequestReader.Parsed<BatchTilingRequest, List<Feature>> request) {
+        BatchTilingResult batch = tileService.generateBatch(request.getGeometry(),
+            request.getRequest().toTilingJob(), request.getRequest().isDeduplicate());
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> asyncTileRenderer.writeBatch(batch, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> badRequest(Exception e) {
+        Map<String, String> error = Map.of("error", e.getMessage() != null ? e.getMessage() : "Invalid request");
+        return ResponseEntity.badRequest()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> out.write(objectMapper.writeValueAsBytes(error)));
+    }
+
+    @GetMapping("/cache/stats")
+    @Operation(
+        summary = "Tiling result cache statistics",
+        description = "Hits, misses, evictions and size of the memory and disk tiers",
+        security = @SecurityRequirement(name = "bearer-key")
+    )
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(resultCache.getStats());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("{\"status\": \"UP\"}");
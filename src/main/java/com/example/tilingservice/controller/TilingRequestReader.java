@@ -0,0 +1,184 @@
+package com.example.tilingservice.controller;
+
+import com.example.tilingservice.binary.BinaryParser;
+import com.example.tilingservice.geojson.StreamingGeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.Shape;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.PropertyBindingException;
+import com.fasterxml.jackson.databind.exc.ValueInstantiationException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a tiling request body in one pass: the {@code geoJson} member goes straight to
+ * the {@link StreamingGeoJsonParser} while it is read, and the other members are bound to
+ * the request type as usual. The geometry is never held as a JSON tree or re-serialized.
+ * <p>
+ * Bodies in a binary geometry format are read by the {@link BinaryParser} for their
+ * content type, with the other fields taken from the query parameters.
+ */
+@Component
+@RequiredArgsConstructor
+public class TilingRequestReader {
+    static final String GEOMETRY_FIELD = "geoJson";
+    static final String BBOX_PARAMETER = "bbox";
+
+    private final ObjectMapper objectMapper;
+    private final StreamingGeoJsonParser geoJsonParser;
+    private final List<BinaryParser> binaryParsers;
+
+    /**
+     * A request with its geometry parsed.
+     */
+    @Value
+    public static class Parsed<R, G> {
+        R request;
+        G geometry;
+    }
+
+    @FunctionalInterface
+    private interface GeometryReader<G> {
+        G read(JsonParser parser) throws IOException;
+    }
+
+    public Parsed<TilingController.TilingRequest, Shape> readTiling(InputStream body) throws IOException {
+        return read(body, TilingController.TilingRequest.class, geoJsonParser::readShape);
+    }
+
+    public Parsed<TilingController.BatchTilingRequest, List<Feature>> readBatch(InputStream body) throws IOException {
+        return read(body, TilingController.BatchTilingRequest.class, geoJsonParser::readFeatures);
+    }
+
+    public Parsed<TilingController.TilingRequest, Shape> readTiling(InputStream body, MediaType contentType,
+            Map<String, String> parameters) throws IOException {
+        BinaryParser parser = binaryParser(contentType);
+        TilingController.TilingRequest request = readParameters(parameters, TilingController.TilingRequest.class);
+        return new Parsed<>(request, parser.parse(body));
+    }
+
+    /**
+     * Takes a {@code bbox=minLon,minLat,maxLon,maxLat} parameter to read only the features
+     * that intersect it.
+     */
+    public Parsed<TilingController.BatchTilingRequest, List<Feature>> readBatch(InputStream body,
+            MediaType contentType, Map<String, String> parameters) throws IOException {
+        BinaryParser parser = binaryParser(contentType);
+        Map<String, String> fields = new HashMap<>(parameters);
+        BoundingBox bbox = readBbox(fields.remove(BBOX_PARAMETER));
+        TilingController.BatchTilingRequest request = readParameters(fields, TilingController.BatchTilingRequest.class);
+        return new Parsed<>(request, parser.parseFeatures(body, bbox));
+    }
+
+    /**
+     * Request fields given as query parameters, converted as their JSON values would be.
+     */
+    public <R> R readParameters(Map<String, String> parameters, Class<R> type) {
+        try {
+            return objectMapper.convertValue(parameters, type);
+        } catch (IllegalArgumentException e) {
+            if (e.getCause() instanceof JsonMappingException cause && !cause.getPath().isEmpty()) {
+                throw new IllegalArgumentException("Invalid request: " + describeField(cause), e);
+            }
+            throw new IllegalArgumentException("Invalid request: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Names the field whose value couldn't be bound, without the location Jackson adds to
+     * its message. Enum and unknown fields get messages of their own, since Jackson's
+     * name the request classes.
+     */
+    private static String describeField(JsonMappingException e) {
+        String field = e.getPath().stream()
+            .map(JsonMappingException.Reference::getFieldName)
+            .filter(Objects::nonNull)
+            .collect(Collectors.joining("."));
+        if (e instanceof PropertyBindingException) {
+            return "unknown field " + field;
+        }
+        Class<?> type = e instanceof ValueInstantiationException instantiation ? instantiation.getType().getRawClass()
+            : e instanceof MismatchedInputException mismatch ? mismatch.getTargetType() : null;
+        if (type != null && type.isEnum()) {
+            return field + " must be one of " + Arrays.stream(type.getEnumConstants())
+                .map(constant -> ((Enum<?>) constant).name().toLowerCase().replace('_', '-'))
+                .collect(Collectors.joining(", "));
+        }
+        return field + ": " + e.getOriginalMessage();
+    }
+
+    private BinaryParser binaryParser(MediaType contentType) {
+        return binaryParsers.stream()
+            .filter(parser -> parser.getMediaType().equalsTypeAndSubtype(contentType))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported content type: " + contentType));
+    }
+
+    private static BoundingBox readBbox(String bbox) {
+        if (bbox == null) {
+            return null;
+        }
+        double[] bounds;
+        try {
+            bounds = Arrays.stream(bbox.split(",")).mapToDouble(value -> Double.parseDouble(value.trim())).toArray();
+        } catch (NumberFormatException e) {
+            bounds = new double[0];
+        }
+        if (bounds.length == 4 && bounds[0] <= bounds[2] && bounds[1] <= bounds[3]) {
+            return new BoundingBox(new Point(bounds[1], bounds[0]), new Point(bounds[3], bounds[2]));
+        }
+        throw new IllegalArgumentException("Invalid request: bbox must be minLon,minLat,maxLon,maxLat, not " + bbox);
+    }
+
+    /**
+     * @throws IllegalArgumentException for a malformed body, naming the line and column
+     */
+    private <R, G> Parsed<R, G> read(InputStream body, Class<R> type, GeometryReader<G> geometryReader)
+            throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "request body must be a JSON object");
+            }
+            ObjectNode parameters = objectMapper.createObjectNode();
+            G geometry = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (GEOMETRY_FIELD.equals(name)) {
+                    geometry = geometryReader.read(parser);
+                } else {
+                    parameters.set(name, parser.readValueAsTree());
+                }
+            }
+            if (geometry == null) {
+                throw new IllegalArgumentException("Request has no " + GEOMETRY_FIELD);
+            }
+            return new Parsed<>(objectMapper.treeToValue(parameters, type), geometry);
+        } catch (JsonMappingException e) {
+            throw new IllegalArgumentException("Invalid request: "
+                + (e.getPath().isEmpty() ? StreamingGeoJsonParser.describe(e) : describeField(e)), e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid request: " + StreamingGeoJsonParser.describe(e), e);
+        }
+    }
+}
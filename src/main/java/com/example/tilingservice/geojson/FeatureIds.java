@@ -0,0 +1,42 @@
+package com.example.tilingservice.geojson;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keys of the features of a collection. A feature without an id is keyed by its
+ * position, with a {@code #} in front for as long as that is another feature's id, so
+ * the keys never clash with real ids. Only real ids are checked for duplicates.
+ */
+final class FeatureIds {
+
+    private FeatureIds() {
+    }
+
+    /**
+     * @param ids id of each feature, {@code null} for features without one
+     * @throws IllegalArgumentException when two features have the same id
+     */
+    static List<String> assign(List<String> ids) {
+        Set<String> taken = new HashSet<>();
+        for (String id : ids) {
+            if (id != null && !taken.add(id)) {
+                throw new IllegalArgumentException("Duplicate feature id: " + id);
+            }
+        }
+        List<String> keys = new ArrayList<>(ids.size());
+        for (int index = 0; index < ids.size(); index++) {
+            String key = ids.get(index);
+            if (key == null) {
+                key = String.valueOf(index);
+                while (taken.contains(key)) {
+                    key = "#" + key;
+                }
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+}
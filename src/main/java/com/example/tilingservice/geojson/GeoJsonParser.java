@@ -18,53 +18,89 @@ public class GeoJsonParser implements Parser {
     @Override
     public Shape parse(String geoJson) {
         try {
-            JsonNode root = objectMapper.readTree(geoJson);
-            
-            // Handle Feature type
-            if (root.has("type") && "Feature".equals(root.get("type").asText())) {
-                root = root.get("geometry");
-            }
-            
-            String type = root.get("type").asText();
+            return parseShape(objectMapper.readTree(geoJson));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid GeoJSON format: " + e.getMessage(), e);
+        }
+    }
 
-            switch (type) {
-                case "Polygon":
-                    return parsePolygon(root.get("coordinates"));
-                case "MultiPolygon":
-                    return parseMultiPolygon(root.get("coordinates"));
-                default:
-                    throw new IllegalArgumentException("Unsupported geometry type: " + type);
-            }
+    @Override
+    public List<Feature> parseFeatures(String geoJson) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(geoJson);
         } catch (Exception e) {
             throw new IllegalArgumentException("Invalid GeoJSON format: " + e.getMessage(), e);
         }
+        if (root == null) {
+            throw new IllegalArgumentException("Invalid GeoJSON format: empty document");
+        }
+        boolean collection = "FeatureCollection".equals(root.path("type").asText());
+        List<JsonNode> members = new ArrayList<>();
+        (collection ? root.path("features") : List.of(root)).forEach(members::add);
+        List<String> ids = FeatureIds.assign(members.stream().map(GeoJsonParser::featureId).toList());
+        List<Feature> features = new ArrayList<>();
+        for (int index = 0; index < members.size(); index++) {
+            String id = ids.get(index);
+            try {
+                features.add(new Feature(id, parseShape(members.get(index))));
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid GeoJSON in feature " + id + ": " + e.getMessage(), e);
+            }
+        }
+        if (features.isEmpty()) {
+            throw new IllegalArgumentException("FeatureCollection has no features");
+        }
+        return features;
+    }
+
+    private static String featureId(JsonNode feature) {
+        JsonNode id = feature != null ? feature.get("id") : null;
+        return id != null && !id.isNull() ? id.asText() : null;
+    }
+
+    private Shape parseShape(JsonNode root) {
+        // Handle Feature type
+        if (root.has("type") && "Feature".equals(root.get("type").asText())) {
+            root = root.get("geometry");
+        }
+
+        String type = root.get("type").asText();
+
+        switch (type) {
+            case "Polygon":
+                return parsePolygon(root.get("coordinates"));
+            case "MultiPolygon":
+                return parseMultiPolygon(root.get("coordinates"));
+            default:
+                throw new IllegalArgumentException("Unsupported geometry type: " + type);
+        }
     }
 
     private PolygonShape parsePolygon(JsonNode coordinates) {
-        List<List<Point>> rings = parseCoordinateRings(coordinates);
+        List<PackedRing> rings = parseCoordinateRings(coordinates);
         return new PolygonShape(rings.get(0), rings.subList(1, rings.size()));
     }
 
     private MultiPolygonShape parseMultiPolygon(JsonNode coordinates) {
         List<PolygonShape> polygons = new ArrayList<>();
         for (JsonNode polygonCoords : coordinates) {
-            List<List<Point>> rings = parseCoordinateRings(polygonCoords);
+            List<PackedRing> rings = parseCoordinateRings(polygonCoords);
             polygons.add(new PolygonShape(rings.get(0), rings.subList(1, rings.size())));
         }
         return new MultiPolygonShape(polygons);
     }
 
-    private List<List<Point>> parseCoordinateRings(JsonNode rings) {
-        List<List<Point>> result = new ArrayList<>();
+    private List<PackedRing> parseCoordinateRings(JsonNode rings) {
+        List<PackedRing> result = new ArrayList<>();
         for (JsonNode ring : rings) {
-            List<Point> points = new ArrayList<>();
+            double[] coordinates = new double[2 * ring.size()];
+            int i = 0;
             for (JsonNode coord : ring) {
-                points.add(new Point(
-                    coord.get(1).asDouble(), // latitude
-                    coord.get(0).asDouble()  // longitude
-                ));
+                coordinates[i++] = coord.get(0).asDouble(); // longitude
+                coordinates[i++] = coord.get(1).asDouble(); // latitude
             }
-            result.add(points);
+            result.add(PackedRing.wrap(coordinates, ring.size()));
         }
         return result;
     }
@@ -1,7 +1,16 @@
 package com.example.tilingservice.geojson;
 
+import com.example.tilingservice.model.Feature;
 import com.example.tilingservice.model.Shape;
 
+import java.util.List;
+
 public interface Parser {
     Shape parse(String geoJson);
+
+    /**
+     * Features of a FeatureCollection in document order. A single Feature or geometry
+     * yields one feature.
+     */
+    List<Feature> parseFeatures(String geoJson);
 }
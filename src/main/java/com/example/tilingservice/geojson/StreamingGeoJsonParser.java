@@ -0,0 +1,499 @@
+package com.example.tilingservice.geojson;
+
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * GeoJSON parser that reads Jackson's token stream and writes coordinates straight into
+ * the arrays of {@link PackedRing}s, instead of building a {@link com.fasterxml.jackson.databind.JsonNode}
+ * per number first as {@link GeoJsonParser} does.
+ * <p>
+ * Accepts the same Polygon, MultiPolygon, Feature and FeatureCollection documents, with
+ * members in any order. Errors name the line and column where reading stopped.
+ */
+@Primary
+@Component
+public class StreamingGeoJsonParser implements Parser {
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+            .build();
+
+    @Override
+    public Shape parse(String geoJson) {
+        try (JsonParser parser = jsonFactory.createParser(geoJson)) {
+            if (parser.nextToken() == null) {
+                throw new JsonParseException(parser, "empty document");
+            }
+            return readShape(parser);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid GeoJSON format: " + describe(e), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid GeoJSON format: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Feature> parseFeatures(String geoJson) {
+        try (JsonParser parser = jsonFactory.createParser(geoJson)) {
+            if (parser.nextToken() == null) {
+                throw new JsonParseException(parser, "empty document");
+            }
+            return readFeatures(parser);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid GeoJSON format: " + describe(e), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid GeoJSON format: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Shape of the GeoJSON object the parser is at, for callers reading it out of a larger
+     * document. The parser is left at the object's closing token.
+     *
+     * @throws JsonProcessingException for malformed JSON, with the parser's location
+     * @throws IllegalArgumentException for JSON that isn't a supported GeoJSON shape
+     */
+    public Shape readShape(JsonParser parser) throws IOException {
+        return readRoot(parser).toShape();
+    }
+
+    /**
+     * Like {@link #readShape}, for the features of {@link #parseFeatures}.
+     */
+    public List<Feature> readFeatures(JsonParser parser) throws IOException {
+        GeoJsonObject root = readRoot(parser);
+        boolean collection = "FeatureCollection".equals(root.type);
+        List<GeoJsonObject> members = collection
+                ? (root.features != null ? root.features : List.of())
+                : List.of(root);
+        List<String> ids = FeatureIds.assign(members.stream()
+                .map(member -> member != null ? member.id : null)
+                .toList());
+        List<Feature> features = new ArrayList<>();
+        for (int index = 0; index < members.size(); index++) {
+            features.add(toFeature(members.get(index), ids.get(index)));
+        }
+        if (features.isEmpty()) {
+            throw new IllegalArgumentException("FeatureCollection has no features");
+        }
+        return features;
+    }
+
+    /**
+     * Features of a FeatureCollection read one at a time from the stream, so only the
+     * feature being returned is held in memory. A single Feature or geometry yields one
+     * feature. Unlike {@link #parseFeatures}, ids aren't checked for duplicates, since
+     * that would mean keeping every id, and features without one are keyed by their
+     * position as is. The stream closes {@code in} when closed.
+     */
+    public FeatureStream streamFeatures(InputStream in) throws IOException {
+        return new FeatureStream(jsonFactory.createParser(in));
+    }
+
+    private static Feature toFeature(GeoJsonObject feature, long index) {
+        return toFeature(feature, feature != null && feature.id != null ? feature.id : String.valueOf(index));
+    }
+
+    private static Feature toFeature(GeoJsonObject feature, String id) {
+        try {
+            if (feature == null) {
+                throw new IllegalArgumentException("Feature is null");
+            }
+            return new Feature(id, feature.toShape());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid GeoJSON in feature " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Message of a JSON error with the line and column it was found at.
+     */
+    public static String describe(JsonProcessingException e) {
+        return e.getLocation() != null && e.getLocation().getLineNr() > 0
+                ? e.getOriginalMessage() + " " + at(e.getLocation())
+                : e.getOriginalMessage();
+    }
+
+    private GeoJsonObject readRoot(JsonParser parser) throws IOException {
+        // Callers may have built the parser from another factory
+        parser.enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER.mappedFeature());
+        GeoJsonObject root = readObject(parser);
+        if (root == null) {
+            throw new JsonParseException(parser, "GeoJSON is null");
+        }
+        return root;
+    }
+
+    /**
+     * Reads the object the parser is at, keeping only the members tiling needs and
+     * skipping the rest. Returns {@code null} for a JSON null.
+     */
+    private GeoJsonObject readObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, JsonToken.START_OBJECT, "an object");
+        GeoJsonObject object = new GeoJsonObject(parser.currentLocation());
+        readMembers(parser, object, false);
+        return object;
+    }
+
+    /**
+     * Reads members into {@code object} up to the end of the object, or with
+     * {@code stopAtFeatures} up to the start of a features array, where the parser is
+     * left. Returns whether it stopped there.
+     */
+    private boolean readMembers(JsonParser parser, GeoJsonObject object, boolean stopAtFeatures) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "type" -> {
+                    object.type = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    parser.skipChildren();
+                }
+                case "id" -> {
+                    object.id = value.isScalarValue() && value != JsonToken.VALUE_NULL ? parser.getText() : null;
+                    parser.skipChildren();
+                }
+                case "geometry" -> object.geometry = readObject(parser);
+                case "coordinates" -> object.coordinates = readCoordinates(parser);
+                case "features" -> {
+                    if (stopAtFeatures) {
+                        expect(parser, JsonToken.START_ARRAY, "an array of features");
+                        return true;
+                    }
+                    object.features = readFeatureArray(parser);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    private List<GeoJsonObject> readFeatureArray(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_ARRAY, "an array of features");
+        List<GeoJsonObject> features = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            features.add(readObject(parser));
+        }
+        return features;
+    }
+
+    /**
+     * Reads a coordinates array of any nesting. Polygons ({@code depth} 3) and
+     * MultiPolygons (4) are kept; other geometries are skipped and only their depth is
+     * recorded, so the type can be rejected once it is known.
+     */
+    private Coordinates readCoordinates(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_ARRAY, "a coordinates array");
+        JsonLocation location = parser.currentLocation();
+        int depth = 1;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_ARRAY) {
+            depth++;
+        }
+        Coordinates coordinates = new Coordinates(depth, location);
+        if (token == JsonToken.END_ARRAY) {
+            // An empty array at some level; close the ones still open
+            closeArrays(parser, depth - 1);
+            return coordinates;
+        }
+        expectNumber(parser);
+        RingReader rings = new RingReader();
+        if (depth == 3) {
+            coordinates.polygons.add(readPolygon(parser, rings, true));
+        } else if (depth == 4) {
+            coordinates.polygons.add(readPolygon(parser, rings, true));
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                expect(parser, JsonToken.START_ARRAY, "a polygon array");
+                coordinates.polygons.add(readPolygon(parser, rings, false));
+            }
+        } else {
+            closeArrays(parser, depth);
+        }
+        return coordinates;
+    }
+
+    /**
+     * Rings of a polygon. When {@code started}, the parser is already at the first
+     * number of the first position; otherwise at the array of the polygon.
+     */
+    private List<PackedRing> readPolygon(JsonParser parser, RingReader rings, boolean started) throws IOException {
+        List<PackedRing> polygon = new ArrayList<>();
+        if (started) {
+            polygon.add(rings.read(parser, true));
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(parser, JsonToken.START_ARRAY, "a ring array");
+            polygon.add(rings.read(parser, false));
+        }
+        return polygon;
+    }
+
+    /**
+     * Collects positions into a scratch array that grows as needed and is reused
+     * for every ring of a geometry; each ring gets an exactly sized copy.
+     */
+    private static final class RingReader {
+        private double[] buffer = new double[64];
+
+        PackedRing read(JsonParser parser, boolean started) throws IOException {
+            int count = 0;
+            if (started) {
+                readPosition(parser, count++);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "expected a position array but found " + token);
+                }
+                parser.nextToken();
+                expectNumber(parser);
+                readPosition(parser, count++);
+            }
+            return PackedRing.wrap(Arrays.copyOf(buffer, 2 * count), count);
+        }
+
+        /**
+         * Reads the position whose first number the parser is at, ignoring any altitude.
+         */
+        private void readPosition(JsonParser parser, int index) throws IOException {
+            if (2 * index + 2 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            buffer[2 * index] = parser.getDoubleValue();
+            parser.nextToken();
+            expectNumber(parser);
+            buffer[2 * index + 1] = parser.getDoubleValue();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null || !token.isNumeric()) {
+                    throw new JsonParseException(parser, "expected a number in position but found " + token);
+                }
+            }
+        }
+    }
+
+    private static void closeArrays(JsonParser parser, int open) throws IOException {
+        while (open > 0) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new JsonParseException(parser, "unexpected end of coordinates");
+            } else if (token == JsonToken.START_ARRAY) {
+                open++;
+            } else if (token == JsonToken.END_ARRAY) {
+                open--;
+            } else if (token == JsonToken.START_OBJECT) {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken expected, String description) throws IOException {
+        if (parser.currentToken() != expected) {
+            throw new JsonParseException(parser, "expected " + description + " but found " + parser.currentToken());
+        }
+    }
+
+    private static void expectNumber(JsonParser parser) throws IOException {
+        if (parser.currentToken() == null || !parser.currentToken().isNumeric()) {
+            throw new JsonParseException(parser, "expected a coordinate number but found " + parser.currentToken());
+        }
+    }
+
+    private static String at(JsonLocation location) {
+        return "at line " + location.getLineNr() + ", column " + location.getColumnNr();
+    }
+
+    /**
+     * Iterator over the features of a stream; see {@link #streamFeatures}. Malformed
+     * input ends the iteration with an {@link IllegalArgumentException} naming where it
+     * was found, and read failures with an {@link UncheckedIOException}.
+     */
+    public final class FeatureStream implements Iterator<Feature>, Closeable {
+        private final JsonParser parser;
+        private final GeoJsonObject root;
+        private boolean inFeatures;
+        private boolean single;
+        private long featureCount;
+        private Feature next;
+
+        private FeatureStream(JsonParser parser) throws IOException {
+            this.parser = parser;
+            try {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "expected a GeoJSON object");
+                }
+                this.root = new GeoJsonObject(parser.currentLocation());
+                this.inFeatures = readMembers(parser, root, true);
+                this.single = !inFeatures && !"FeatureCollection".equals(root.type);
+                if (!inFeatures && !single) {
+                    throw new IllegalArgumentException("FeatureCollection has no features");
+                }
+            } catch (JsonProcessingException e) {
+                parser.close();
+                throw new IllegalArgumentException("Invalid GeoJSON format: " + describe(e), e);
+            } catch (RuntimeException e) {
+                parser.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Bytes of the input read up to the current feature.
+         */
+        public long getBytesRead() {
+            return Math.max(0, parser.currentLocation().getByteOffset());
+        }
+
+        /**
+         * Features returned so far.
+         */
+        public long getFeatureCount() {
+            return featureCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = advance();
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Invalid GeoJSON format: " + describe(e), e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Feature next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Feature feature = next;
+            next = null;
+            featureCount++;
+            return feature;
+        }
+
+        private Feature advance() throws IOException {
+            if (single) {
+                single = false;
+                return toFeature(root, 0);
+            }
+            if (!inFeatures) {
+                return null;
+            }
+            if (parser.nextToken() != JsonToken.END_ARRAY) {
+                return toFeature(readObject(parser), featureCount);
+            }
+            inFeatures = false;
+            if (featureCount == 0) {
+                throw new IllegalArgumentException("FeatureCollection has no features");
+            }
+            // Members after the features array are read for well-formedness only
+            readMembers(parser, root, false);
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    /**
+     * Parsed coordinates of one geometry: each polygon as its list of rings.
+     */
+    private static final class Coordinates {
+        final int depth;
+        final JsonLocation location;
+        final List<List<PackedRing>> polygons = new ArrayList<>();
+
+        Coordinates(int depth, JsonLocation location) {
+            this.depth = depth;
+            this.location = location;
+        }
+    }
+
+    /**
+     * The members of a GeoJSON object that tiling uses, whatever order they came in.
+     */
+    private static final class GeoJsonObject {
+        final JsonLocation location;
+        String type;
+        String id;
+        GeoJsonObject geometry;
+        Coordinates coordinates;
+        List<GeoJsonObject> features;
+
+        GeoJsonObject(JsonLocation location) {
+            this.location = location;
+        }
+
+        Shape toShape() {
+            if ("Feature".equals(type)) {
+                if (geometry == null) {
+                    throw new IllegalArgumentException("Feature has no geometry " + at(location));
+                }
+                return geometry.toShape();
+            }
+            if (type == null) {
+                throw new IllegalArgumentException("Object has no type " + at(location));
+            }
+            int expectedDepth = switch (type) {
+                case "Polygon" -> 3;
+                case "MultiPolygon" -> 4;
+                default -> throw new IllegalArgumentException("Unsupported geometry type: " + type);
+            };
+            if (coordinates == null) {
+                throw new IllegalArgumentException(type + " has no coordinates " + at(location));
+            }
+            if (coordinates.depth != expectedDepth || coordinates.polygons.isEmpty()) {
+                throw new IllegalArgumentException(type + " coordinates must be arrays nested " + expectedDepth
+                        + " deep with at least one ring " + at(coordinates.location));
+            }
+
+            if (expectedDepth == 3) {
+                return polygon(coordinates.polygons.get(0));
+            }
+            List<PolygonShape> polygons = new ArrayList<>();
+            for (List<PackedRing> rings : coordinates.polygons) {
+                polygons.add(polygon(rings));
+            }
+            return new MultiPolygonShape(polygons);
+        }
+
+        private PolygonShape polygon(List<PackedRing> rings) {
+            if (rings.isEmpty()) {
+                throw new IllegalArgumentException(type + " has a polygon without rings " + at(coordinates.location));
+            }
+            return new PolygonShape(rings.get(0), rings.subList(1, rings.size()));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.tilingservice.model;
+
+import lombok.Value;
+
+/**
+ * A shape from a FeatureCollection, with the feature's id, or its position in the
+ * collection when it has none.
+ */
+@Value
+public class Feature {
+    String id;
+    Shape shape;
+}
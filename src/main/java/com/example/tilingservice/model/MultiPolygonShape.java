@@ -1,20 +1,79 @@
 package com.example.tilingservice.model;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.index.strtree.STRtree;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 
+/**
+ * Members are indexed by their bounding boxes in an STR-packed R-tree when there are
+ * enough of them, so point and tile queries only look at the members nearby.
+ */
 @Data
 public class MultiPolygonShape implements Shape {
-    private List<PolygonShape> polygons;
-    private BoundingBox boundingBox;
+    // With fewer members a linear scan of their boxes is as fast as the tree
+    private static final int MIN_INDEXED_MEMBERS = 16;
+
+    private final List<PolygonShape> polygons;
+    private final BoundingBox boundingBox;
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final STRtree memberIndex;
 
     public MultiPolygonShape(List<PolygonShape> polygons) {
         this.polygons = polygons;
         this.boundingBox = calculateBoundingBox();
+        this.memberIndex = buildMemberIndex(polygons);
+    }
+
+    private static STRtree buildMemberIndex(List<PolygonShape> polygons) {
+        if (polygons.size() < MIN_INDEXED_MEMBERS) {
+            return null;
+        }
+        STRtree index = new STRtree();
+        for (int i = 0; i < polygons.size(); i++) {
+            BoundingBox box = polygons.get(i).getBoundingBox();
+            index.insert(new Envelope(box.getSouthWest().getLongitude(), box.getNorthEast().getLongitude(),
+                    box.getSouthWest().getLatitude(), box.getNorthEast().getLatitude()), i);
+        }
+        // Built up front; querying an unbuilt tree from several threads would race to build it
+        index.build();
+        return index;
+    }
+
+    /**
+     * Indexes of the members whose bounding boxes intersect the given box, in ascending order.
+     */
+    public int[] membersIntersecting(double minLongitude, double minLatitude, double maxLongitude, double maxLatitude) {
+        if (memberIndex == null) {
+            int[] members = new int[polygons.size()];
+            int count = 0;
+            for (int i = 0; i < polygons.size(); i++) {
+                BoundingBox box = polygons.get(i).getBoundingBox();
+                if (!(box.getNorthEast().getLongitude() < minLongitude || box.getSouthWest().getLongitude() > maxLongitude
+                        || box.getNorthEast().getLatitude() < minLatitude || box.getSouthWest().getLatitude() > maxLatitude)) {
+                    members[count++] = i;
+                }
+            }
+            return Arrays.copyOf(members, count);
+        }
+        List<?> items = memberIndex.query(new Envelope(minLongitude, maxLongitude, minLatitude, maxLatitude));
+        int[] members = new int[items.size()];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = (Integer) items.get(i);
+        }
+        Arrays.sort(members);
+        return members;
     }
 
     @Override
@@ -22,14 +81,32 @@ public class MultiPolygonShape implements Shape {
         if (!boundingBox.contains(point)) {
             return false;
         }
-        for (PolygonShape polygon : polygons) {
-            if (polygon.contains(point)) {
+        double longitude = point.getLongitude();
+        double latitude = point.getLatitude();
+        for (int member : membersIntersecting(longitude, latitude, longitude, latitude)) {
+            if (polygons.get(member).contains(longitude, latitude)) {
                 return true;
             }
         }
         return false;
     }
 
+    @Override
+    public boolean[] containsAll(double[] coordinates) {
+        boolean[] inside = new boolean[coordinates.length / 2];
+        for (int i = 0; i < inside.length; i++) {
+            double longitude = coordinates[2 * i];
+            double latitude = coordinates[2 * i + 1];
+            for (int member : membersIntersecting(longitude, latitude, longitude, latitude)) {
+                if (polygons.get(member).contains(longitude, latitude)) {
+                    inside[i] = true;
+                    break;
+                }
+            }
+        }
+        return inside;
+    }
+
     @Override
     public double getArea() {
         return polygons.stream()
@@ -0,0 +1,159 @@
+package com.example.tilingservice.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Bounding box held as four doubles and updated in place, for hot paths that would
+ * otherwise allocate a {@link BoundingBox} and two {@link Point}s per union.
+ * {@link BoundingBox} stays the type that is serialized and handed out.
+ * <p>
+ * A new box is empty: it intersects nothing and has no area until something is added.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class MutableBox {
+    private double minLatitude = Double.POSITIVE_INFINITY;
+    private double minLongitude = Double.POSITIVE_INFINITY;
+    private double maxLatitude = Double.NEGATIVE_INFINITY;
+    private double maxLongitude = Double.NEGATIVE_INFINITY;
+
+    public MutableBox() {
+    }
+
+    public MutableBox(BoundingBox box) {
+        setTo(box);
+    }
+
+    public boolean isEmpty() {
+        return minLatitude > maxLatitude;
+    }
+
+    public void setToEmpty() {
+        minLatitude = Double.POSITIVE_INFINITY;
+        minLongitude = Double.POSITIVE_INFINITY;
+        maxLatitude = Double.NEGATIVE_INFINITY;
+        maxLongitude = Double.NEGATIVE_INFINITY;
+    }
+
+    public void setTo(BoundingBox box) {
+        minLatitude = box.getSouthWest().getLatitude();
+        minLongitude = box.getSouthWest().getLongitude();
+        maxLatitude = box.getNorthEast().getLatitude();
+        maxLongitude = box.getNorthEast().getLongitude();
+    }
+
+    public void expandToInclude(BoundingBox box) {
+        minLatitude = Math.min(minLatitude, box.getSouthWest().getLatitude());
+        minLongitude = Math.min(minLongitude, box.getSouthWest().getLongitude());
+        maxLatitude = Math.max(maxLatitude, box.getNorthEast().getLatitude());
+        maxLongitude = Math.max(maxLongitude, box.getNorthEast().getLongitude());
+    }
+
+    public void expandToInclude(double latitude, double longitude) {
+        minLatitude = Math.min(minLatitude, latitude);
+        minLongitude = Math.min(minLongitude, longitude);
+        maxLatitude = Math.max(maxLatitude, latitude);
+        maxLongitude = Math.max(maxLongitude, longitude);
+    }
+
+    public void expandToInclude(MutableBox box) {
+        minLatitude = Math.min(minLatitude, box.minLatitude);
+        minLongitude = Math.min(minLongitude, box.minLongitude);
+        maxLatitude = Math.max(maxLatitude, box.maxLatitude);
+        maxLongitude = Math.max(maxLongitude, box.maxLongitude);
+    }
+
+    /**
+     * Same test as {@link BoundingBox#intersects}, touching edges included.
+     */
+    public boolean intersects(BoundingBox box) {
+        return intersects(box.getSouthWest().getLatitude(), box.getSouthWest().getLongitude(),
+                box.getNorthEast().getLatitude(), box.getNorthEast().getLongitude());
+    }
+
+    public boolean intersects(MutableBox box) {
+        return intersects(box.minLatitude, box.minLongitude, box.maxLatitude, box.maxLongitude);
+    }
+
+    private boolean intersects(double south, double west, double north, double east) {
+        return !isEmpty() && !(east < minLongitude || west > maxLongitude || north < minLatitude || south > maxLatitude);
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLatitude && latitude <= maxLatitude &&
+               longitude >= minLongitude && longitude <= maxLongitude;
+    }
+
+    public boolean contains(BoundingBox box) {
+        return minLatitude <= box.getSouthWest().getLatitude() &&
+               minLongitude <= box.getSouthWest().getLongitude() &&
+               maxLatitude >= box.getNorthEast().getLatitude() &&
+               maxLongitude >= box.getNorthEast().getLongitude();
+    }
+
+    /**
+     * Area in square degrees, 0 when empty.
+     */
+    public double area() {
+        return isEmpty() ? 0 : Math.abs((maxLatitude - minLatitude) * (maxLongitude - minLongitude));
+    }
+
+    /**
+     * Growth of {@link #area()} if {@code box} were added, without adding it.
+     */
+    public double enlargement(BoundingBox box) {
+        if (isEmpty()) {
+            return area(box.getSouthWest().getLatitude(), box.getSouthWest().getLongitude(),
+                    box.getNorthEast().getLatitude(), box.getNorthEast().getLongitude());
+        }
+        double enlarged = area(
+                Math.min(minLatitude, box.getSouthWest().getLatitude()),
+                Math.min(minLongitude, box.getSouthWest().getLongitude()),
+                Math.max(maxLatitude, box.getNorthEast().getLatitude()),
+                Math.max(maxLongitude, box.getNorthEast().getLongitude()));
+        return enlarged - area();
+    }
+
+    public double enlargement(MutableBox box) {
+        if (isEmpty()) {
+            return box.area();
+        }
+        double enlarged = area(
+                Math.min(minLatitude, box.minLatitude),
+                Math.min(minLongitude, box.minLongitude),
+                Math.max(maxLatitude, box.maxLatitude),
+                Math.max(maxLongitude, box.maxLongitude));
+        return enlarged - area();
+    }
+
+    /**
+     * Distance between the centers of two boxes, in degrees.
+     */
+    public static double centerDistance(BoundingBox a, BoundingBox b) {
+        double latDiff = (a.getSouthWest().getLatitude() + a.getNorthEast().getLatitude()) / 2
+                - (b.getSouthWest().getLatitude() + b.getNorthEast().getLatitude()) / 2;
+        double lonDiff = (a.getSouthWest().getLongitude() + a.getNorthEast().getLongitude()) / 2
+                - (b.getSouthWest().getLongitude() + b.getNorthEast().getLongitude()) / 2;
+        return Math.sqrt(latDiff * latDiff + lonDiff * lonDiff);
+    }
+
+    public double centerDistance(MutableBox other) {
+        double latDiff = (minLatitude + maxLatitude) / 2 - (other.minLatitude + other.maxLatitude) / 2;
+        double lonDiff = (minLongitude + maxLongitude) / 2 - (other.minLongitude + other.maxLongitude) / 2;
+        return Math.sqrt(latDiff * latDiff + lonDiff * lonDiff);
+    }
+
+    /**
+     * Copy as a {@link BoundingBox}, or {@code null} when empty.
+     */
+    public BoundingBox toBoundingBox() {
+        return isEmpty() ? null : new BoundingBox(new Point(minLatitude, minLongitude), new Point(maxLatitude, maxLongitude));
+    }
+
+    private static double area(double south, double west, double north, double east) {
+        return Math.abs((north - south) * (east - west));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.tilingservice.model;
+
+import com.example.tilingservice.utils.RingEdgeIndex;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Ring of a polygon stored as one array of interleaved longitude, latitude pairs,
+ * instead of a {@link Point} object per vertex.
+ * <p>
+ * As a list it holds the points it was built from, so the {@code List<Point>} API of the
+ * shapes keeps working; points are created on access. The array itself is always
+ * closed, the first point repeated at the end if the input wasn't, so JTS can use it
+ * directly as a {@link PackedCoordinateSequence}. The array is never modified and
+ * may be shared with geometries built from the ring.
+ */
+public final class PackedRing extends AbstractList<Point> implements RandomAccess {
+    private static final PackedRing EMPTY = new PackedRing(new double[0], 0);
+
+    private final double[] coordinates;
+    private final int size;
+    private volatile RingEdgeIndex edgeIndex;
+
+    private PackedRing(double[] coordinates, int size) {
+        this.coordinates = coordinates;
+        this.size = size;
+    }
+
+    public static PackedRing of(List<Point> points) {
+        if (points instanceof PackedRing) {
+            return (PackedRing) points;
+        }
+        double[] coordinates = new double[2 * points.size() + 2];
+        for (int i = 0; i < points.size(); i++) {
+            Point point = points.get(i);
+            coordinates[2 * i] = point.getLongitude();
+            coordinates[2 * i + 1] = point.getLatitude();
+        }
+        return wrap(coordinates, points.size());
+    }
+
+    /**
+     * Ring of the first {@code count} longitude, latitude pairs of the array. The array is
+     * kept as it is when it holds exactly a closed ring, otherwise the pairs are copied.
+     */
+    public static PackedRing wrap(double[] coordinates, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        int length = 2 * count;
+        boolean closed = coordinates[0] == coordinates[length - 2] && coordinates[1] == coordinates[length - 1];
+        if (closed) {
+            return new PackedRing(coordinates.length == length ? coordinates : Arrays.copyOf(coordinates, length), count);
+        }
+        double[] ring = Arrays.copyOf(coordinates, length + 2);
+        ring[length] = coordinates[0];
+        ring[length + 1] = coordinates[1];
+        return new PackedRing(ring, count);
+    }
+
+    public double getLongitude(int index) {
+        return coordinates[2 * index];
+    }
+
+    public double getLatitude(int index) {
+        return coordinates[2 * index + 1];
+    }
+
+    /**
+     * The closed coordinate array, shared and not to be modified.
+     */
+    public double[] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * Index for point-in-ring tests, built on first use. Concurrent first calls may each
+     * build one; they are identical.
+     */
+    public RingEdgeIndex getEdgeIndex() {
+        RingEdgeIndex index = edgeIndex;
+        if (index == null) {
+            index = new RingEdgeIndex(this);
+            edgeIndex = index;
+        }
+        return index;
+    }
+
+    public CoordinateSequence toCoordinateSequence() {
+        return new PackedCoordinateSequence.Double(coordinates, 2, 0);
+    }
+
+    @Override
+    public Point get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for ring of " + size + " points");
+        }
+        return new Point(coordinates[2 * index + 1], coordinates[2 * index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
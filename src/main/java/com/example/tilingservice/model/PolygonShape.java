@@ -1,41 +1,82 @@
 package com.example.tilingservice.model;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import com.example.tilingservice.utils.GeometryUtils;
-import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LinearRing;
+import java.util.Collections;
 import java.util.List;
 import java.util.ArrayList;
 
+/**
+ * Polygon with its rings held as {@link PackedRing}s. The point lists it returns are
+ * views of the packed coordinates.
+ */
 @Data
 public class PolygonShape implements Shape {
-    private List<Point> outerBoundary;
-    private List<List<Point>> holes;
-    private BoundingBox boundingBox;
+    private final PackedRing outerRing;
+    private final List<PackedRing> holeRings;
+    private final BoundingBox boundingBox;
+    // Most probes miss most holes, so each hole is tested against its bounds first
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final MutableBox[] holeBounds;
 
     public PolygonShape(List<Point> outerBoundary, List<List<Point>> holes) {
-        this.outerBoundary = outerBoundary;
-        this.holes = holes != null ? holes : new ArrayList<>();
+        this(PackedRing.of(outerBoundary), packAll(holes));
+    }
+
+    public PolygonShape(PackedRing outerRing, List<PackedRing> holeRings) {
+        this.outerRing = outerRing;
+        this.holeRings = holeRings != null ? holeRings : new ArrayList<>();
         this.boundingBox = calculateBoundingBox();
+        this.holeBounds = new MutableBox[this.holeRings.size()];
+        for (int i = 0; i < holeBounds.length; i++) {
+            holeBounds[i] = new MutableBox();
+            PackedRing hole = this.holeRings.get(i);
+            for (int j = 0; j < hole.size(); j++) {
+                holeBounds[i].expandToInclude(hole.getLatitude(j), hole.getLongitude(j));
+            }
+        }
+    }
+
+    private static List<PackedRing> packAll(List<List<Point>> rings) {
+        List<PackedRing> packed = new ArrayList<>();
+        if (rings != null) {
+            for (List<Point> ring : rings) {
+                packed.add(PackedRing.of(ring));
+            }
+        }
+        return packed;
     }
 
     @Override
     public boolean contains(Point point) {
-        if (!boundingBox.contains(point)) {
+        return contains(point.getLongitude(), point.getLatitude());
+    }
+
+    boolean contains(double longitude, double latitude) {
+        if (latitude < boundingBox.getSouthWest().getLatitude() || latitude > boundingBox.getNorthEast().getLatitude()
+                || longitude < boundingBox.getSouthWest().getLongitude() || longitude > boundingBox.getNorthEast().getLongitude()) {
             return false;
         }
 
-        boolean inPolygon = GeometryUtils.pointInPolygon(point, outerBoundary);
-        
+        boolean inPolygon = GeometryUtils.pointInPolygon(longitude, latitude, outerRing);
+
         if (!inPolygon) {
             return false;
         }
 
         // Check if point is in any hole
-        for (List<Point> hole : holes) {
-            if (GeometryUtils.pointInPolygon(point, hole)) {
+        for (int i = 0; i < holeRings.size(); i++) {
+            if (holeBounds[i].contains(latitude, longitude)
+                    && GeometryUtils.pointInPolygon(longitude, latitude, holeRings.get(i))) {
                 return false;
             }
         }
@@ -43,10 +84,35 @@ public class PolygonShape implements Shape {
         return true;
     }
 
+    /**
+     * Classifies all points against the outer ring first, then each hole against only the
+     * points inside its bounds that are still in.
+     */
+    @Override
+    public boolean[] containsAll(double[] coordinates) {
+        boolean[] inside = new boolean[coordinates.length / 2];
+        MutableBox bounds = new MutableBox(boundingBox);
+        for (int p = 0; p < inside.length; p++) {
+            double x = coordinates[2 * p];
+            double y = coordinates[2 * p + 1];
+            inside[p] = bounds.contains(y, x) && GeometryUtils.pointInPolygon(x, y, outerRing);
+        }
+        for (int i = 0; i < holeRings.size(); i++) {
+            for (int p = 0; p < inside.length; p++) {
+                double x = coordinates[2 * p];
+                double y = coordinates[2 * p + 1];
+                if (inside[p] && holeBounds[i].contains(y, x) && GeometryUtils.pointInPolygon(x, y, holeRings.get(i))) {
+                    inside[p] = false;
+                }
+            }
+        }
+        return inside;
+    }
+
     @Override
     public double getArea() {
-        double area = GeometryUtils.calculatePolygonArea(outerBoundary);
-        for (List<Point> hole : holes) {
+        double area = GeometryUtils.calculatePolygonArea(outerRing);
+        for (PackedRing hole : holeRings) {
             area -= GeometryUtils.calculatePolygonArea(hole);
         }
         return area;
@@ -56,11 +122,11 @@ public class PolygonShape implements Shape {
         double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
         double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
 
-        for (Point p : outerBoundary) {
-            minLat = Math.min(minLat, p.getLatitude());
-            maxLat = Math.max(maxLat, p.getLatitude());
-            minLon = Math.min(minLon, p.getLongitude());
-            maxLon = Math.max(maxLon, p.getLongitude());
+        for (int i = 0; i < outerRing.size(); i++) {
+            minLat = Math.min(minLat, outerRing.getLatitude(i));
+            maxLat = Math.max(maxLat, outerRing.getLatitude(i));
+            minLon = Math.min(minLon, outerRing.getLongitude(i));
+            maxLon = Math.max(maxLon, outerRing.getLongitude(i));
         }
 
         return new BoundingBox(
@@ -76,51 +142,34 @@ public class PolygonShape implements Shape {
 
 
     public boolean hasHoles() {
-        return holes != null && !holes.isEmpty();
+        return holeRings != null && !holeRings.isEmpty();
     }
 
     public List<List<Point>> getHoles() {
-        return holes;
+        return Collections.unmodifiableList(holeRings);
     }
 
 
     public List<Point> getOuterBoundary() {
-        return outerBoundary;
+        return outerRing;
     }
 
+    /**
+     * The rings share their coordinate arrays with the JTS polygon instead of copying them.
+     */
     @Override
     public Geometry toJtsGeometry(GeometryFactory geometryFactory) {
-        // Convert outer boundary to coordinates
-        Coordinate[] coordinates = new Coordinate[outerBoundary.size() + 1];
-        for (int i = 0; i < outerBoundary.size(); i++) {
-            Point point = outerBoundary.get(i);
-            coordinates[i] = new Coordinate(point.getLongitude(), point.getLatitude());
-        }
-        // Close the ring
-        coordinates[outerBoundary.size()] = coordinates[0];
-        
-        
-        LinearRing ring = geometryFactory.createLinearRing(coordinates);
-        
+        LinearRing ring = geometryFactory.createLinearRing(outerRing.toCoordinateSequence());
+
         // Handle holes
         LinearRing[] holes = null;
         if (hasHoles()) {
-            holes = new LinearRing[this.holes.size()];
-            
-            for (int i = 0; i < this.holes.size(); i++) {
-                List<Point> hole = this.holes.get(i);
-                Coordinate[] holeCoords = new Coordinate[hole.size() + 1];
-                
-                for (int j = 0; j < hole.size(); j++) {
-                    Point point = hole.get(j);
-                    holeCoords[j] = new Coordinate(point.getLongitude(), point.getLatitude());
-                }
-                holeCoords[hole.size()] = holeCoords[0]; // Close the hole ring
-                
-                holes[i] = geometryFactory.createLinearRing(holeCoords);
+            holes = new LinearRing[holeRings.size()];
+            for (int i = 0; i < holeRings.size(); i++) {
+                holes[i] = geometryFactory.createLinearRing(holeRings.get(i).toCoordinateSequence());
             }
         }
-        
+
         return geometryFactory.createPolygon(ring, holes);
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,17 @@ import org.locationtech.jts.geom.GeometryFactory;
 
 public interface Shape {
     boolean contains(Point point);
+
+    /**
+     * {@link #contains(Point)} for many points, given as longitude, latitude pairs.
+     */
+    default boolean[] containsAll(double[] coordinates) {
+        boolean[] inside = new boolean[coordinates.length / 2];
+        for (int i = 0; i < inside.length; i++) {
+            inside[i] = contains(new Point(coordinates[2 * i + 1], coordinates[2 * i]));
+        }
+        return inside;
+    }
     BoundingBox getBoundingBox();
     double getArea();
     Geometry toJtsGeometry(GeometryFactory geometryFactory);
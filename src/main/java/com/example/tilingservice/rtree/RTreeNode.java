@@ -1,9 +1,11 @@
 package com.example.tilingservice.rtree;
 
 import com.example.tilingservice.model.BoundingBox;
-import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.MutableBox;
 import com.example.tilingservice.tile.Tile;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +14,9 @@ import java.util.UUID;
 @Data
 public class RTreeNode {
     private String id = UUID.randomUUID().toString();
-    private BoundingBox boundingBox;
+    // Updated in place; getBoundingBox() copies it out for callers and serialization
+    @Getter(AccessLevel.NONE)
+    private final MutableBox bounds = new MutableBox();
     private List<RTreeNode> children; // For internal nodes
     private List<Tile> tiles;         // For leaf nodes
     private boolean isLeaf;
@@ -22,7 +26,21 @@ public class RTreeNode {
         this.children = new ArrayList<>();
         this.tiles = new ArrayList<>();
         this.isLeaf = true; // Initially, the node is a leaf
-        this.boundingBox = null; // Will be updated when entries are added
+    }
+
+    /**
+     * Bounds of everything below this node, or {@code null} while it is empty.
+     */
+    public BoundingBox getBoundingBox() {
+        return bounds.toBoundingBox();
+    }
+
+    public void setBoundingBox(BoundingBox boundingBox) {
+        if (boundingBox == null) {
+            bounds.setToEmpty();
+        } else {
+            bounds.setTo(boundingBox);
+        }
     }
 
 
@@ -30,7 +48,7 @@ public class RTreeNode {
         if (isLeaf) {
             if (tiles.size() < MAX_ENTRIES) {
                 tiles.add(tile);
-                updateBoundingBox();
+                bounds.expandToInclude(tile.getBoundingBox());
             } else {
                 
                 splitLeafNode();
@@ -43,7 +61,7 @@ public class RTreeNode {
             // Internal node
             RTreeNode bestChild = chooseBestChild(tile.getBoundingBox());
             bestChild.insert(tile);
-            updateBoundingBox();
+            bounds.expandToInclude(bestChild.bounds);
         }
     }
 
@@ -51,7 +69,7 @@ public class RTreeNode {
     public List<Tile> search(BoundingBox searchBox) {
         List<Tile> results = new ArrayList<>();
 
-        if (boundingBox == null || !boundingBox.intersects(searchBox)) {
+        if (!bounds.intersects(searchBox)) {
             return results; // No intersection; skip this node
         }
 
@@ -74,25 +92,16 @@ public class RTreeNode {
 
   
     private void updateBoundingBox() {
+        bounds.setToEmpty();
         if (isLeaf) {
             // Leaf node: calculate bounding box from tiles
-            if (tiles.isEmpty()) {
-                boundingBox = null;
-                return;
-            }
-            boundingBox = tiles.get(0).getBoundingBox();
             for (Tile tile : tiles) {
-                boundingBox = boundingBox.union(tile.getBoundingBox());
+                bounds.expandToInclude(tile.getBoundingBox());
             }
         } else {
             // Internal node: calculate bounding box from children
-            if (children.isEmpty()) {
-                boundingBox = null;
-                return;
-            }
-            boundingBox = children.get(0).getBoundingBox();
             for (RTreeNode child : children) {
-                boundingBox = boundingBox.union(child.getBoundingBox());
+                bounds.expandToInclude(child.bounds);
             }
         }
     }
@@ -103,7 +112,7 @@ public class RTreeNode {
         double minIncrease = Double.MAX_VALUE;
 
         for (RTreeNode child : children) {
-            double increase = calculateBoundingBoxIncrease(child.getBoundingBox(), box);
+            double increase = child.bounds.enlargement(box);
             if (increase < minIncrease) {
                 minIncrease = increase;
                 bestNode = child;
@@ -114,24 +123,6 @@ public class RTreeNode {
     }
 
 
-    private double calculateBoundingBoxIncrease(BoundingBox current, BoundingBox newBox) {
-        if (current == null) return calculateArea(newBox);
-
-        double currentArea = calculateArea(current);
-        BoundingBox combinedBox = current.union(newBox);
-        double enlargedArea = calculateArea(combinedBox);
-
-        return enlargedArea - currentArea;
-    }
-
-
-    private double calculateArea(BoundingBox box) {
-        if (box == null) return 0;
-        double latDiff = box.getNorthEast().getLatitude() - box.getSouthWest().getLatitude();
-        double lonDiff = box.getNorthEast().getLongitude() - box.getSouthWest().getLongitude();
-        return Math.abs(latDiff * lonDiff);
-    }
-
     private void splitLeafNode() {
         
         RTreeNode leaf1 = new RTreeNode();
@@ -145,7 +136,7 @@ public class RTreeNode {
 
         for (int i = 0; i < tiles.size(); i++) {
             for (int j = i + 1; j < tiles.size(); j++) {
-                double distance = calculateDistance(
+                double distance = MutableBox.centerDistance(
                         tiles.get(i).getBoundingBox(),
                         tiles.get(j).getBoundingBox()
                 );
@@ -167,8 +158,8 @@ public class RTreeNode {
 
         
         for (Tile tile : tiles) {
-            double increaseLeaf1 = calculateBoundingBoxIncrease(leaf1.getBoundingBox(), tile.getBoundingBox());
-            double increaseLeaf2 = calculateBoundingBoxIncrease(leaf2.getBoundingBox(), tile.getBoundingBox());
+            double increaseLeaf1 = leaf1.bounds.enlargement(tile.getBoundingBox());
+            double increaseLeaf2 = leaf2.bounds.enlargement(tile.getBoundingBox());
 
             if (increaseLeaf1 < increaseLeaf2) {
                 leaf1.getTiles().add(tile);
@@ -193,25 +184,6 @@ public class RTreeNode {
     }
 
   
-    private double calculateDistance(BoundingBox box1, BoundingBox box2) {
-        Point center1 = calculateCenter(box1);
-        Point center2 = calculateCenter(box2);
-
-        double latDiff = center1.getLatitude() - center2.getLatitude();
-        double lonDiff = center1.getLongitude() - center2.getLongitude();
-
-        return Math.sqrt(latDiff * latDiff + lonDiff * lonDiff);
-    }
-
-
-    private Point calculateCenter(BoundingBox box) {
-        return new Point(
-                (box.getSouthWest().getLatitude() + box.getNorthEast().getLatitude()) / 2,
-                (box.getSouthWest().getLongitude() + box.getNorthEast().getLongitude()) / 2
-        );
-    }
-
-  
     private void splitInternalNode() {
         
         RTreeNode node1 = new RTreeNode();
@@ -224,10 +196,7 @@ public class RTreeNode {
 
         for (int i = 0; i < children.size(); i++) {
             for (int j = i + 1; j < children.size(); j++) {
-                double distance = calculateDistance(
-                        children.get(i).getBoundingBox(),
-                        children.get(j).getBoundingBox()
-                );
+                double distance = children.get(i).bounds.centerDistance(children.get(j).bounds);
                 if (distance > maxDistance) {
                     maxDistance = distance;
                     seed1 = children.get(i);
@@ -246,8 +215,8 @@ public class RTreeNode {
 
         
         for (RTreeNode child : children) {
-            double increaseNode1 = calculateBoundingBoxIncrease(node1.getBoundingBox(), child.getBoundingBox());
-            double increaseNode2 = calculateBoundingBoxIncrease(node2.getBoundingBox(), child.getBoundingBox());
+            double increaseNode1 = node1.bounds.enlargement(child.bounds);
+            double increaseNode2 = node2.bounds.enlargement(child.bounds);
 
             if (increaseNode1 < increaseNode2) {
                 node1.getChildren().add(child);
@@ -1,6 +1,7 @@
 package com.example.tilingservice.service;
 
 import com.example.tilingservice.tile.Tile;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PreDestroy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,10 +9,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -19,10 +27,12 @@ public class AsyncTileRenderer {
     
     private final ExecutorService executorService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
     private static final int CHUNK_SIZE = 1000;
     
-    public AsyncTileRenderer(SimpMessagingTemplate messagingTemplate) {
+    public AsyncTileRenderer(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper) {
         this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
         this.executorService = Executors.newFixedThreadPool(
             Runtime.getRuntime().availableProcessors(),
             r -> {
@@ -34,50 +44,104 @@ public class AsyncTileRenderer {
         );
     }
 
-    public String renderTilesAsync(List<Tile> tiles) {
-        try {
-            List<List<Tile>> chunks = chunked(tiles, CHUNK_SIZE);
-            List<CompletableFuture<String>> futures = chunks.stream()
-                .map(chunk -> CompletableFuture.supplyAsync(
-                    () -> renderChunk(chunk),
-                    executorService
-                ))
-                .collect(Collectors.toList());
-
-            CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-                futures.toArray(new CompletableFuture[0])
-            );
+    /**
+     * Writes the tiles as a FeatureCollection while the stream produces them, flushing
+     * after every chunk. Metadata goes last, once the counts are known.
+     */
+    public void writeTiles(TilingStream stream, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("{\"type\":\"FeatureCollection\",\"features\":[");
+        Iterator<Tile> tiles = stream.iterator();
+        for (int i = 0; tiles.hasNext(); i++) {
+            if (i > 0) writer.write(",");
+            writer.write(tiles.next().toGeoJson());
+            if ((i + 1) % CHUNK_SIZE == 0) {
+                writer.flush();
+            }
+        }
+        writer.write("],\"metadata\":");
+        writer.write(objectMapper.writeValueAsString(stream.getMetadata()));
+        writer.write("}");
+        writer.flush();
+    }
 
-            return allFutures.thenApply(v -> {
-                List<String> results = futures.stream()
-                    .map(CompletableFuture::join)
-                    .collect(Collectors.toList());
-                return combineResults(results);
-            }).get(30, TimeUnit.SECONDS);
+    /**
+     * Writes a batch as {@code results} keyed by feature id, each a FeatureCollection with
+     * its metadata. A deduplicated batch instead starts with the shared {@code tiles}
+     * collection, and each result lists {@code tileIndexes} into it.
+     */
+    public void writeBatch(BatchTilingResult batch, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("{");
+        if (batch.isDeduplicated()) {
+            writer.write("\"tiles\":");
+            writeFeatures(batch.getSharedTiles(), writer);
+            writer.write("},");
+        }
+        writer.write("\"results\":{");
+        boolean first = true;
+        for (Map.Entry<String, TilingResult> entry : batch.getResults().entrySet()) {
+            if (!first) writer.write(",");
+            first = false;
+            writer.write(objectMapper.writeValueAsString(entry.getKey()));
+            writer.write(":");
+            if (batch.isDeduplicated()) {
+                writer.write("{\"tileIndexes\":");
+                writer.write(objectMapper.writeValueAsString(batch.getTileIndexes().get(entry.getKey())));
+            } else {
+                writeFeatures(entry.getValue().getTiles(), writer);
+            }
+            writer.write(",\"metadata\":");
+            writer.write(objectMapper.writeValueAsString(entry.getValue().getMetadata()));
+            writer.write("}");
+        }
+        writer.write("},\"metadata\":");
+        writer.write(objectMapper.writeValueAsString(batch.getMetadata()));
+        writer.write("}");
+        writer.flush();
+    }
 
-        } catch (Exception e) {
-            log.error("Error rendering tiles: ", e);
-            throw new RuntimeException("Failed to render tiles", e);
+    /**
+     * Writes an unterminated FeatureCollection, so the caller can add members to it.
+     */
+    private void writeFeatures(List<Tile> tiles, Writer writer) throws IOException {
+        writer.write("{\"type\":\"FeatureCollection\",\"features\":[");
+        for (int i = 0; i < tiles.size(); i++) {
+            if (i > 0) writer.write(",");
+            writer.write(tiles.get(i).toGeoJson());
+            if ((i + 1) % CHUNK_SIZE == 0) {
+                writer.flush();
+            }
         }
+        writer.write("]");
     }
 
-    public void streamTiles(List<Tile> tiles) {
-        List<List<Tile>> chunks = chunked(tiles, CHUNK_SIZE);
-        
+    /**
+     * Sends chunks as the stream fills them, so only one chunk is held at a time. The
+     * total isn't known until the end: earlier chunks report {@code totalChunks} as -1.
+     */
+    public void streamTiles(TilingStream stream) {
         CompletableFuture.runAsync(() -> {
-            for (int i = 0; i < chunks.size(); i++) {
-                List<Tile> chunk = chunks.get(i);
-                String chunkJson = renderChunk(chunk);
-                
-                TileChunkMessage message = new TileChunkMessage(
-                    i, 
-                    chunks.size(), 
-                    chunkJson,
-                    i == chunks.size() - 1
-                );
-                
-                messagingTemplate.convertAndSend("/topic/tiles/chunk", message);
-                
+            Iterator<Tile> tiles = stream.iterator();
+            List<Tile> chunk = new ArrayList<>(CHUNK_SIZE);
+            int index = 0;
+            while (tiles.hasNext()) {
+                chunk.add(tiles.next());
+                boolean last = !tiles.hasNext();
+                if (chunk.size() < CHUNK_SIZE && !last) {
+                    continue;
+                }
+
+                messagingTemplate.convertAndSend("/topic/tiles/chunk", new TileChunkMessage(
+                    index,
+                    last ? index + 1 : -1,
+                    renderChunk(chunk),
+                    last,
+                    last ? stream.getMetadata() : null
+                ));
+                chunk.clear();
+                index++;
+
                 try {
                     // Small delay to prevent overwhelming the client
                     Thread.sleep(100);
@@ -86,7 +150,10 @@ public class AsyncTileRenderer {
                     break;
                 }
             }
-        }, executorService);
+        }, executorService).exceptionally(e -> {
+            log.error("Error streaming tiles: ", e);
+            return null;
+        });
     }
 
     private String renderChunk(List<Tile> chunk) {
@@ -100,27 +167,6 @@ public class AsyncTileRenderer {
         return features.toString();
     }
 
-    private String combineResults(List<String> results) {
-        StringBuilder combined = new StringBuilder();
-        combined.append("{\"type\":\"FeatureCollection\",\"features\":[");
-        
-        for (int i = 0; i < results.size(); i++) {
-            if (i > 0) combined.append(",");
-            combined.append(results.get(i));
-        }
-        
-        combined.append("]}");
-        return combined.toString();
-    }
-
-    private <T> List<List<T>> chunked(List<T> list, int size) {
-        List<List<T>> chunks = new ArrayList<>();
-        for (int i = 0; i < list.size(); i += size) {
-            chunks.add(list.subList(i, Math.min(i + size, list.size())));
-        }
-        return chunks;
-    }
-
     @PreDestroy
     public void shutdown() {
         executorService.shutdown();
@@ -141,5 +187,6 @@ public class AsyncTileRenderer {
         private int totalChunks;
         private String features;
         private boolean isLast;
+        private Map<String, Object> metadata;
     }
 }
\ No newline at end of file
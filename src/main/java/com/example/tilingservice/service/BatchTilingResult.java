@@ -0,0 +1,38 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.tile.Tile;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tiles for every feature of a collection, keyed by feature id in document order.
+ * <p>
+ * When deduplicated, each distinct tile is held once in {@link #getSharedTiles()} and
+ * features refer to it by index, so tiles shared by overlapping features are only
+ * returned once.
+ */
+@Getter
+public class BatchTilingResult {
+    private final Map<String, TilingResult> results;
+    private final List<Tile> sharedTiles;
+    private final Map<String, int[]> tileIndexes;
+    private final Map<String, Object> metadata = new LinkedHashMap<>();
+
+    BatchTilingResult(Map<String, TilingResult> results, List<Tile> sharedTiles, Map<String, int[]> tileIndexes) {
+        this.results = results;
+        this.sharedTiles = sharedTiles;
+        this.tileIndexes = tileIndexes;
+    }
+
+    public boolean isDeduplicated() {
+        return sharedTiles != null;
+    }
+
+    public BatchTilingResult withMetadata(String key, Object value) {
+        metadata.put(key, value);
+        return this;
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.utils.GeometryUtils;
+import lombok.Getter;
+import lombok.Value;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tiler that only refines the tiles along the shape's boundary.
+ * <p>
+ * The bounding box is divided into a {@code 2^leafLevel} grid, where the leaf level is
+ * the first quadtree depth whose tiles are all at or below {@code minTileArea}. Every
+ * ring edge is walked across that grid (a supercover, so cells an edge only grazes
+ * are included) to collect the boundary cells, and one scanline pass records where
+ * each row's centre line crosses the rings. The quadtree is then descended: a block
+ * with no boundary cells in it is entirely inside or outside, which one lookup in the
+ * scanline crossings decides, and inside blocks are emitted as soon as they are at or
+ * below {@code maxTileArea}. Exact coverage is only computed for boundary leaves.
+ * <p>
+ * Both passes, and the number of blocks visited, grow with the perimeter of the shape
+ * in leaf cells rather than with its area. Inside/outside uses the even-odd rule, so
+ * overlapping MultiPolygon members cancel out.
+ */
+public class BoundaryWalker {
+    // Edges within this fraction of a cell of a cell border mark both neighbours
+    private static final double BORDER_SLACK = 1e-6;
+    private static final int MAX_LEVEL = 15;
+
+    private final TilingContext context;
+    private final GeometryFactory geometryFactory;
+    private final ShapeRings rings;
+
+    @Getter
+    private final int leafLevel;
+    private final int size;
+    private final double minX;
+    private final double minY;
+    private final double cellWidth;
+    private final double cellHeight;
+
+    // Morton codes of the boundary cells, sorted, so the cells of any block are a contiguous range
+    private long[] boundaryCells = new long[64];
+    private int boundaryCellCount;
+
+    // Scanline crossings of each row's centre line, sorted by x within a row
+    private final int[] rowStart;
+    private final double[] crossings;
+
+    public BoundaryWalker(TilingContext context, GeometryFactory geometryFactory) {
+        this.context = context;
+        this.geometryFactory = geometryFactory;
+        this.rings = context.getRings() != null ? context.getRings() : new ShapeRings(context.getShape());
+
+        BoundingBox bounds = context.getBoundingBox();
+        this.leafLevel = leafLevel(bounds, context.getJob().getMinTileArea());
+        this.size = 1 << leafLevel;
+        this.minX = bounds.getSouthWest().getLongitude();
+        this.minY = bounds.getSouthWest().getLatitude();
+        this.cellWidth = (bounds.getNorthEast().getLongitude() - minX) / size;
+        this.cellHeight = (bounds.getNorthEast().getLatitude() - minY) / size;
+
+        for (int i = 0; i < rings.getRingCount(); i++) {
+            walkRing(rings.getRing(i));
+        }
+        Arrays.sort(boundaryCells, 0, boundaryCellCount);
+        boundaryCellCount = dedupe(boundaryCells, boundaryCellCount);
+
+        this.rowStart = new int[size + 1];
+        this.crossings = scanRows();
+    }
+
+    public int getBoundaryCellCount() {
+        return boundaryCellCount;
+    }
+
+    /**
+     * Tiles the shape starting from {@code root}, which must be the tile of the shape's
+     * bounding box. Tiles are added in the same depth-first, subdivision order as the
+     * quadtree.
+     */
+    public void walk(Tile root, List<Tile> results) {
+        iterator(root).forEachRemaining(results::add);
+    }
+
+    /**
+     * Lazy version of {@link #walk}.
+     */
+    public Iterator<Tile> iterator(Tile root) {
+        DepthFirstTileIterator<Block> blocks = new DepthFirstTileIterator<>() {
+            @Override
+            protected Tile visit(Block block) {
+                return BoundaryWalker.this.visit(block, this::push);
+            }
+        };
+        if (cellWidth > 0 && cellHeight > 0) {
+            blocks.push(List.of(new Block(root, 0, 0, 0)));
+        }
+        return blocks;
+    }
+
+    private Tile visit(Block block, Consumer<List<Block>> push) {
+        Tile tile = block.tile;
+        int level = block.level;
+        int shift = leafLevel - level;
+        if (hasBoundaryCells(level, block.x, block.y)) {
+            if (shift == 0) {
+                return emitBoundaryLeaf(tile);
+            }
+        } else {
+            if (!isInside(block.x << shift, block.y << shift)) {
+                return null;
+            }
+            double area = context.areaInMeters(tile);
+            if (shift == 0 || area <= context.getJob().getMaxTileArea()) {
+                return tile;
+            }
+        }
+
+        // Children come back as SW, NW, NE, SE
+        List<? extends Tile> children = tile.subdivide();
+        int x = 2 * block.x;
+        int y = 2 * block.y;
+        push.accept(List.of(
+                new Block(children.get(0), level + 1, x, y),
+                new Block(children.get(1), level + 1, x, y + 1),
+                new Block(children.get(2), level + 1, x + 1, y + 1),
+                new Block(children.get(3), level + 1, x + 1, y)));
+        return null;
+    }
+
+    private Tile emitBoundaryLeaf(Tile tile) {
+        // Border slack can mark cells the shape only touches, so zero coverage never counts
+        double coverageRatio = context.coverageRatio(tile, tile.toJtsPolygon(geometryFactory));
+        return coverageRatio > 0 && coverageRatio >= context.getJob().getCoverageThreshold() ? tile : null;
+    }
+
+    private boolean hasBoundaryCells(int level, int x, int y) {
+        int shift = 2 * (leafLevel - level);
+        long first = morton(x, y) << shift;
+        long end = (morton(x, y) + 1) << shift;
+        int index = Arrays.binarySearch(boundaryCells, 0, boundaryCellCount, first);
+        if (index >= 0) {
+            return true;
+        }
+        int insertion = -index - 1;
+        return insertion < boundaryCellCount && boundaryCells[insertion] < end;
+    }
+
+    /**
+     * Even-odd test at the centre of a leaf cell that no edge passes through.
+     */
+    private boolean isInside(int column, int row) {
+        double x = minX + (column + 0.5) * cellWidth;
+        int from = rowStart[row];
+        int to = rowStart[row + 1];
+        int index = Arrays.binarySearch(crossings, from, to, x);
+        int left = (index >= 0 ? index : -index - 1) - from;
+        return (left & 1) == 1;
+    }
+
+    private void walkRing(double[] ring) {
+        int count = ring.length / 2;
+        for (int i = 0; i < count; i++) {
+            int j = (i + 1) % count;
+            walkEdge(ring[2 * i], ring[2 * i + 1], ring[2 * j], ring[2 * j + 1]);
+        }
+    }
+
+    /**
+     * Marks every cell the edge passes through or within {@link #BORDER_SLACK} of, one
+     * row at a time: the part of the edge inside a row's band spans a run of columns.
+     */
+    private void walkEdge(double ax, double ay, double bx, double by) {
+        double slackY = BORDER_SLACK * cellHeight;
+        double slackX = BORDER_SLACK * cellWidth;
+        double lowY = Math.min(ay, by);
+        double highY = Math.max(ay, by);
+        int row0 = clamp((int) Math.floor((lowY - slackY - minY) / cellHeight));
+        int row1 = clamp((int) Math.floor((highY + slackY - minY) / cellHeight));
+
+        for (int row = row0; row <= row1; row++) {
+            double bandLow = Math.max(lowY, minY + row * cellHeight - slackY);
+            double bandHigh = Math.min(highY, minY + (row + 1) * cellHeight + slackY);
+            double x0;
+            double x1;
+            if (ay == by) {
+                x0 = Math.min(ax, bx);
+                x1 = Math.max(ax, bx);
+            } else {
+                double slope = (bx - ax) / (by - ay);
+                double xa = ax + (bandLow - ay) * slope;
+                double xb = ax + (bandHigh - ay) * slope;
+                x0 = Math.min(xa, xb);
+                x1 = Math.max(xa, xb);
+            }
+            int column0 = clamp((int) Math.floor((x0 - slackX - minX) / cellWidth));
+            int column1 = clamp((int) Math.floor((x1 + slackX - minX) / cellWidth));
+            for (int column = column0; column <= column1; column++) {
+                addBoundaryCell(morton(column, row));
+            }
+        }
+    }
+
+    /**
+     * Crossings of every row's centre line with the ring edges, in compressed row
+     * storage. An edge crosses a centre line when its low end is at or below it and its
+     * high end is above it, so shared vertices are counted once.
+     */
+    private double[] scanRows() {
+        for (int i = 0; i < rings.getRingCount(); i++) {
+            scanRing(rings.getRing(i), null, null);
+        }
+        for (int row = 0; row < size; row++) {
+            rowStart[row + 1] += rowStart[row];
+        }
+
+        double[] out = new double[rowStart[size]];
+        int[] next = Arrays.copyOf(rowStart, size);
+        for (int i = 0; i < rings.getRingCount(); i++) {
+            scanRing(rings.getRing(i), out, next);
+        }
+        for (int row = 0; row < size; row++) {
+            Arrays.sort(out, rowStart[row], rowStart[row + 1]);
+        }
+        return out;
+    }
+
+    /**
+     * Counts the crossings per row into {@code rowStart[row + 1]} when {@code out} is
+     * null, and otherwise writes them at the positions in {@code next}.
+     */
+    private void scanRing(double[] ring, double[] out, int[] next) {
+        int count = ring.length / 2;
+        for (int i = 0; i < count; i++) {
+            int j = (i + 1) % count;
+            double ax = ring[2 * i], ay = ring[2 * i + 1];
+            double bx = ring[2 * j], by = ring[2 * j + 1];
+            if (ay == by) {
+                continue;
+            }
+            double highY = Math.max(ay, by);
+            for (int row = firstRowAtOrAbove(Math.min(ay, by)); row < size && rowCentre(row) < highY; row++) {
+                if (out == null) {
+                    rowStart[row + 1]++;
+                } else {
+                    out[next[row]++] = ax + (rowCentre(row) - ay) * (bx - ax) / (by - ay);
+                }
+            }
+        }
+    }
+
+    private int firstRowAtOrAbove(double y) {
+        int row = Math.max(0, (int) Math.ceil((y - minY) / cellHeight - 0.5));
+        while (row > 0 && rowCentre(row - 1) >= y) {
+            row--;
+        }
+        while (row < size && rowCentre(row) < y) {
+            row++;
+        }
+        return row;
+    }
+
+    private double rowCentre(int row) {
+        return minY + (row + 0.5) * cellHeight;
+    }
+
+    private void addBoundaryCell(long code) {
+        if (boundaryCellCount == boundaryCells.length) {
+            // Neighbouring edges mostly mark the same cells, so squeeze duplicates out before growing
+            Arrays.sort(boundaryCells, 0, boundaryCellCount);
+            boundaryCellCount = dedupe(boundaryCells, boundaryCellCount);
+            if (boundaryCellCount > boundaryCells.length / 2) {
+                boundaryCells = Arrays.copyOf(boundaryCells, 2 * boundaryCells.length);
+            }
+        }
+        boundaryCells[boundaryCellCount++] = code;
+    }
+
+    private int clamp(int cell) {
+        return Math.max(0, Math.min(size - 1, cell));
+    }
+
+    private static int dedupe(long[] sorted, int count) {
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || sorted[unique - 1] != sorted[i]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Interleaves the column and row bits, column first.
+     */
+    static long morton(int column, int row) {
+        long code = 0;
+        for (int bit = 0; bit < MAX_LEVEL; bit++) {
+            code |= (long) ((column >> bit) & 1) << (2 * bit);
+            code |= (long) ((row >> bit) & 1) << (2 * bit + 1);
+        }
+        return code;
+    }
+
+    @Value
+    private static class Block {
+        Tile tile;
+        int level;
+        int x;
+        int y;
+    }
+
+    /**
+     * First depth at which every quadtree tile of {@code bounds} is at or below
+     * {@code minTileArea}. Tile areas grow towards the equator, so the widest row is
+     * checked.
+     */
+    private static int leafLevel(BoundingBox bounds, double minTileArea) {
+        double south = bounds.getSouthWest().getLatitude();
+        double north = bounds.getNorthEast().getLatitude();
+        double west = bounds.getSouthWest().getLongitude();
+        double latitude = Math.max(south, Math.min(north, 0));
+        double width = bounds.getNorthEast().getLongitude() - west;
+        double height = north - south;
+
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            double scale = 1 << level;
+            BoundingBox widest = new BoundingBox(new Point(latitude, west),
+                    new Point(latitude + height / scale, west + width / scale));
+            if (GeometryUtils.calculateAreaInMeters(widest) <= minTileArea) {
+                return level;
+            }
+        }
+        return MAX_LEVEL;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.tile.Tile;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clip-and-descend walk. Each frame carries the part of the shape inside its parent
+ * tile; the tile clips it to its own rectangle and passes only that piece down, so the
+ * work per tile follows the local complexity instead of the whole shape. A
+ * {@code null} piece means the tile is fully covered and needs no more geometry.
+ */
+@Slf4j
+class ClipDescendTileIterator extends DepthFirstTileIterator<ClipDescendTileIterator.Frame> {
+    // Relative slack for treating a clipped piece as covering its whole tile
+    private static final double FULL_COVERAGE = 1 - 1e-12;
+
+    private final TileService tileService;
+    private final TilingContext context;
+    private final GeometryFactory geometryFactory;
+
+    ClipDescendTileIterator(TileService tileService, TilingContext context, GeometryFactory geometryFactory,
+                            List<? extends Tile> tiles, int depth) {
+        this.tileService = tileService;
+        this.context = context;
+        this.geometryFactory = geometryFactory;
+        push(frames(tiles, depth, context.getGeometry()));
+    }
+
+    @Override
+    protected Tile visit(Frame frame) {
+        Tile tile = frame.tile;
+        int depth = frame.depth;
+        TilingJob job = context.getJob();
+        double tileAreaInMeters = context.areaInMeters(tile);
+
+        if (frame.localGeometry == null) {
+            return fullyCovered(tile, depth, tileAreaInMeters);
+        }
+
+        if (!intersects(tile.getBoundingBox(), frame.localGeometry.getEnvelopeInternal())) {
+            return null;
+        }
+
+        Geometry tileGeometry = tile.toJtsPolygon(geometryFactory);
+        Geometry piece;
+        try {
+            piece = frame.localGeometry.intersection(tileGeometry);
+        } catch (Exception e) {
+            log.warn("Error clipping geometry to tile: {}", e.getMessage());
+            // The parent piece is still correct for the children, it just isn't any smaller
+            TileDecision decision = tileService.fallbackDecision(context, depth, tileAreaInMeters);
+            if (decision == TileDecision.SUBDIVIDE) {
+                push(frames(tile.subdivide(), depth + 1, frame.localGeometry));
+            }
+            return decision == TileDecision.EMIT ? tile : null;
+        }
+
+        if (piece.isEmpty()) {
+            return null;
+        }
+
+        double coverageRatio = piece.getArea() / tileGeometry.getArea();
+        if (coverageRatio >= FULL_COVERAGE) {
+            return fullyCovered(tile, depth, tileAreaInMeters);
+        }
+
+        TileDecision decision = tileAreaInMeters > job.getMaxTileArea() && depth < context.getMaxDepth()
+                ? TileDecision.SUBDIVIDE
+                : tileService.decide(tile, context, depth, tileAreaInMeters, coverageRatio);
+        if (decision == TileDecision.SUBDIVIDE) {
+            push(frames(tile.subdivide(), depth + 1, piece));
+        }
+        return decision == TileDecision.EMIT ? tile : null;
+    }
+
+    private Tile fullyCovered(Tile tile, int depth, double tileAreaInMeters) {
+        if (tileAreaInMeters > context.getJob().getMaxTileArea() && depth < context.getMaxDepth()) {
+            push(frames(tile.subdivide(), depth + 1, null));
+            return null;
+        }
+        return tileService.decide(tile, context, depth, tileAreaInMeters, 1.0) == TileDecision.EMIT ? tile : null;
+    }
+
+    private static boolean intersects(BoundingBox box, Envelope envelope) {
+        return !(envelope.getMaxX() < box.getSouthWest().getLongitude() ||
+                envelope.getMinX() > box.getNorthEast().getLongitude() ||
+                envelope.getMaxY() < box.getSouthWest().getLatitude() ||
+                envelope.getMinY() > box.getNorthEast().getLatitude());
+    }
+
+    private static List<Frame> frames(List<? extends Tile> tiles, int depth, Geometry localGeometry) {
+        List<Frame> frames = new ArrayList<>(tiles.size());
+        for (Tile tile : tiles) {
+            frames.add(new Frame(tile, depth, localGeometry));
+        }
+        return frames;
+    }
+
+    @Value
+    static class Frame {
+        Tile tile;
+        int depth;
+        Geometry localGeometry;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.tilingservice.service;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * How the covered fraction of a tile is computed.
+ */
+public enum CoverageMode {
+    /** Rectangle clipping of the shape's rings, falling back to JTS when the result looks wrong. */
+    CLIP,
+    /** JTS overlay of the tile and the shape; slower, kept for verification. */
+    JTS,
+    /**
+     * Lookup in a coverage raster built once per job at the resolution of the smallest
+     * tiles. Tiles that don't line up with the raster are clipped instead.
+     */
+    RASTER;
+
+    @JsonCreator
+    public static CoverageMode fromValue(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
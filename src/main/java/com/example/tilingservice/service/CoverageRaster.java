@@ -0,0 +1,211 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.utils.RectangleClipper;
+import lombok.Getter;
+
+/**
+ * Coverage bitmap of a shape over its bounding box, stored as a summed-area table so
+ * the coverage of any cell-aligned rectangle is an O(1) lookup.
+ * <p>
+ * The grid has {@code 2^level} cells per side, so every quadtree tile down to that
+ * depth lines up with cell edges. Cell coverage is accumulated analytically from the
+ * ring edges (signed-area scanline accumulation), not by point sampling, so aligned
+ * lookups are exact up to floating-point rounding. Tiles that don't line up with the
+ * grid get {@code NaN} and must be handled by the caller.
+ */
+public class CoverageRaster {
+    public static final int MAX_LEVEL = 10;
+    private static final double ALIGNMENT_TOLERANCE = 1e-6;
+
+    @Getter
+    private final int level;
+    private final int size;
+    private final double minX;
+    private final double minY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final double[] table;
+
+    public CoverageRaster(ShapeRings rings, BoundingBox bounds, int level) {
+        this.level = Math.max(0, Math.min(MAX_LEVEL, level));
+        this.size = 1 << this.level;
+        this.minX = bounds.getSouthWest().getLongitude();
+        this.minY = bounds.getSouthWest().getLatitude();
+        this.cellWidth = (bounds.getNorthEast().getLongitude() - minX) / size;
+        this.cellHeight = (bounds.getNorthEast().getLatitude() - minY) / size;
+        this.table = new double[(size + 1) * (size + 1)];
+
+        if (cellWidth > 0 && cellHeight > 0) {
+            // Two spare columns per row take the spill-over of edges on the right border
+            int stride = size + 2;
+            double[] accumulation = new double[size * stride];
+            for (int i = 0; i < rings.getRingCount(); i++) {
+                accumulateRing(accumulation, stride, rings.getRing(i), rings.isHole(i));
+            }
+            buildTable(accumulation, stride);
+        }
+    }
+
+    /**
+     * Upper bound on the rounding error of an aligned lookup, as a fraction of the tile.
+     */
+    public double getErrorBound() {
+        return 4.0 * (size + 2) * (size + 2) * Math.ulp(1.0);
+    }
+
+    /**
+     * Largest difference in covered fraction between matching cells of two rasters of the
+     * same bounds and level. A tile made of whole cells averages its cells, so its coverage
+     * ratios in the two rasters differ by no more than this.
+     */
+    public double maxCellDifference(CoverageRaster other) {
+        if (other.level != level || other.minX != minX || other.minY != minY
+                || other.cellWidth != cellWidth || other.cellHeight != cellHeight) {
+            throw new IllegalArgumentException("Rasters must share bounds and level");
+        }
+        int width = size + 1;
+        double max = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int i = row * width + col;
+                double cell = table[i + width + 1] - table[i + 1] - table[i + width] + table[i];
+                double otherCell = other.table[i + width + 1] - other.table[i + 1] - other.table[i + width] + other.table[i];
+                max = Math.max(max, Math.abs(cell - otherCell));
+            }
+        }
+        return max;
+    }
+
+    public double coverageRatio(double tileMinX, double tileMinY, double tileMaxX, double tileMaxY) {
+        int col0 = toCell((tileMinX - minX) / cellWidth);
+        int col1 = toCell((tileMaxX - minX) / cellWidth);
+        int row0 = toCell((tileMinY - minY) / cellHeight);
+        int row1 = toCell((tileMaxY - minY) / cellHeight);
+        if (col0 < 0 || col1 < 0 || row0 < 0 || row1 < 0 || col1 <= col0 || row1 <= row0) {
+            return Double.NaN;
+        }
+
+        int width = size + 1;
+        double covered = table[row1 * width + col1] - table[row0 * width + col1]
+                - table[row1 * width + col0] + table[row0 * width + col0];
+        double ratio = covered / ((double) (col1 - col0) * (row1 - row0));
+        return Math.max(0, Math.min(1, ratio));
+    }
+
+    private int toCell(double position) {
+        long cell = Math.round(position);
+        if (Double.isNaN(position) || Math.abs(position - cell) > ALIGNMENT_TOLERANCE || cell < 0 || cell > size) {
+            return -1;
+        }
+        return (int) cell;
+    }
+
+    private void accumulateRing(double[] accumulation, int stride, double[] ring, boolean hole) {
+        int count = ring.length / 2;
+        if (count < 3) {
+            return;
+        }
+        // Outer rings must add +1 inside and holes -1 whatever the ring orientation
+        double weight = signedArea(ring) > 0 ? -1 : 1;
+        if (hole) {
+            weight = -weight;
+        }
+
+        double prevX = (ring[2 * (count - 1)] - minX) / cellWidth;
+        double prevY = (ring[2 * (count - 1) + 1] - minY) / cellHeight;
+        for (int i = 0; i < count; i++) {
+            double x = (ring[2 * i] - minX) / cellWidth;
+            double y = (ring[2 * i + 1] - minY) / cellHeight;
+            accumulateEdge(accumulation, stride, prevX, prevY, x, y, weight);
+            prevX = x;
+            prevY = y;
+        }
+    }
+
+    /**
+     * Adds the exact signed area an edge sweeps over each cell of the rows it crosses.
+     * Summing a row left to right afterwards yields the covered fraction of each cell.
+     */
+    private void accumulateEdge(double[] accumulation, int stride, double x0, double y0, double x1, double y1,
+                                double weight) {
+        if (y0 == y1) {
+            return;
+        }
+        double direction;
+        double startX, startY, endX, endY;
+        if (y0 < y1) {
+            direction = weight;
+            startX = x0; startY = y0; endX = x1; endY = y1;
+        } else {
+            direction = -weight;
+            startX = x1; startY = y1; endX = x0; endY = y0;
+        }
+
+        double dxdy = (endX - startX) / (endY - startY);
+        double x = startX;
+        if (startY < 0) {
+            x -= startY * dxdy;
+        }
+        int rowStart = Math.max(0, (int) Math.floor(startY));
+        int rowEnd = Math.min(size, (int) Math.ceil(endY));
+
+        for (int row = rowStart; row < rowEnd; row++) {
+            int offset = row * stride;
+            double dy = Math.min(row + 1, endY) - Math.max(row, startY);
+            double xNext = x + dxdy * dy;
+            double d = dy * direction;
+
+            double left = Math.max(0, Math.min(x, xNext));
+            double right = Math.min(size, Math.max(x, xNext));
+            double leftFloor = Math.floor(left);
+            int leftCell = (int) leftFloor;
+            double rightCeil = Math.ceil(right);
+            int rightCell = (int) rightCeil;
+
+            if (rightCell <= leftCell + 1) {
+                double midFraction = 0.5 * (left + right) - leftFloor;
+                accumulation[offset + leftCell] += d - d * midFraction;
+                accumulation[offset + leftCell + 1] += d * midFraction;
+            } else {
+                double slope = 1 / (right - left);
+                double leftFraction = left - leftFloor;
+                double firstArea = 0.5 * slope * (1 - leftFraction) * (1 - leftFraction);
+                double rightFraction = right - rightCeil + 1;
+                double lastArea = 0.5 * slope * rightFraction * rightFraction;
+
+                accumulation[offset + leftCell] += d * firstArea;
+                if (rightCell == leftCell + 2) {
+                    accumulation[offset + leftCell + 1] += d * (1 - firstArea - lastArea);
+                } else {
+                    double secondArea = slope * (1.5 - leftFraction);
+                    accumulation[offset + leftCell + 1] += d * (secondArea - firstArea);
+                    for (int cell = leftCell + 2; cell < rightCell - 1; cell++) {
+                        accumulation[offset + cell] += d * slope;
+                    }
+                    double beforeLast = secondArea + (rightCell - leftCell - 3) * slope;
+                    accumulation[offset + rightCell - 1] += d * (1 - beforeLast - lastArea);
+                }
+                accumulation[offset + rightCell] += d * lastArea;
+            }
+            x = xNext;
+        }
+    }
+
+    private void buildTable(double[] accumulation, int stride) {
+        int width = size + 1;
+        for (int row = 0; row < size; row++) {
+            double cover = 0;
+            double rowSum = 0;
+            for (int col = 0; col < size; col++) {
+                cover += accumulation[row * stride + col];
+                rowSum += Math.max(0, Math.min(1, cover));
+                table[(row + 1) * width + col + 1] = table[row * width + col + 1] + rowSum;
+            }
+        }
+    }
+
+    private static double signedArea(double[] ring) {
+        return RectangleClipper.signedRingArea(ring);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.tile.Tile;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy depth-first walk over an explicit stack of frames, so tiles come out one at a
+ * time in the same order the recursive versions produce them. The stack only ever
+ * holds the pending siblings along the current path, at most three per level.
+ *
+ * @param <F> what a subclass needs to remember about a tile that hasn't been visited yet
+ */
+abstract class DepthFirstTileIterator<F> implements Iterator<Tile> {
+    private final Deque<F> stack = new ArrayDeque<>();
+    private Tile next;
+
+    /**
+     * Visits one frame. Returns the tile to emit, or {@code null} if the frame emits
+     * nothing itself; either way it may {@link #push} children.
+     */
+    protected abstract Tile visit(F frame);
+
+    /**
+     * Schedules frames so that the first one in the list is visited first.
+     */
+    protected void push(List<F> frames) {
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            stack.push(frames.get(i));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !stack.isEmpty()) {
+            next = visit(stack.pop());
+        }
+        return next != null;
+    }
+
+    @Override
+    public Tile next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Tile tile = next;
+        next = null;
+        return tile;
+    }
+}
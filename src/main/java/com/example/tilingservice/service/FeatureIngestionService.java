@@ -0,0 +1,125 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.geojson.StreamingGeoJsonParser;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.tile.Tile;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiles GeoJSON FeatureCollections too large to hold in memory, such as national
+ * exports over 2 GB, one feature at a time. Output is newline-delimited JSON: one line
+ * per feature, a FeatureCollection of its tiles with its {@code id}, {@code metadata} and
+ * the {@code progress} so far, then a last line with {@code done} or {@code error}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeatureIngestionService {
+    private static final long PROGRESS_LOG_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final TileService tileService;
+    private final StreamingGeoJsonParser geoJsonParser;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Where an ingestion got to; {@code error} is set when it stopped early.
+     */
+    @Value
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Progress {
+        long bytesRead;
+        long featuresDone;
+        long tileCount;
+        String error;
+    }
+
+    /**
+     * Reads the file through a buffered channel stream. The parser copies its input into
+     * its own buffer either way, so mapping the file would save nothing and would need
+     * one mapping per 2 GB.
+     */
+    public Progress ingest(Path file, TilingJob job, OutputStream out) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return ingest(in, job, out);
+        }
+    }
+
+    public Progress ingest(InputStream in, TilingJob job, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long[] counts = new long[2];
+        long[] lastLog = {System.nanoTime()};
+        StreamingGeoJsonParser.FeatureStream features = null;
+        long bytesRead = 0;
+        String error = null;
+        try {
+            features = geoJsonParser.streamFeatures(in);
+            StreamingGeoJsonParser.FeatureStream stream = features;
+            tileService.tileEach(features, job, (feature, result) -> {
+                counts[0]++;
+                counts[1] += result.getTiles().size();
+                writeResult(feature, result, new Progress(stream.getBytesRead(), counts[0], counts[1], null), writer);
+                if (System.nanoTime() - lastLog[0] > PROGRESS_LOG_INTERVAL) {
+                    lastLog[0] = System.nanoTime();
+                    log.info("Ingested {} features, {} tiles, {} bytes read", counts[0], counts[1], stream.getBytesRead());
+                }
+            });
+        } catch (IllegalArgumentException | IllegalStateException | UncheckedIOException e) {
+            log.warn("Ingestion stopped after {} features: {}", counts[0], e.getMessage());
+            error = e.getMessage();
+        } catch (RuntimeException e) {
+            // Failures from inside the tiling too, so the stream still ends with its last line
+            log.error("Ingestion failed after {} features: ", counts[0], e);
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            if (features != null) {
+                bytesRead = features.getBytesRead();
+                features.close();
+            }
+        }
+
+        Progress progress = new Progress(bytesRead, counts[0], counts[1], error);
+        writer.write(error != null ? "{\"error\":" + objectMapper.writeValueAsString(error) : "{\"done\":true");
+        writer.write(",\"progress\":");
+        writer.write(objectMapper.writeValueAsString(progress));
+        writer.write("}\n");
+        writer.flush();
+        log.info("Ingestion finished: {}", progress);
+        return progress;
+    }
+
+    private void writeResult(Feature feature, TilingResult result, Progress progress, Writer writer)
+            throws IOException {
+        writer.write("{\"id\":");
+        writer.write(objectMapper.writeValueAsString(feature.getId()));
+        writer.write(",\"type\":\"FeatureCollection\",\"features\":[");
+        boolean first = true;
+        for (Tile tile : result.getTiles()) {
+            if (!first) writer.write(",");
+            first = false;
+            writer.write(tile.toGeoJson());
+        }
+        writer.write("],\"metadata\":");
+        writer.write(objectMapper.writeValueAsString(result.getMetadata()));
+        writer.write(",\"progress\":");
+        writer.write(objectMapper.writeValueAsString(progress));
+        writer.write("}\n");
+        writer.flush();
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.tile.Quadkey;
+import com.example.tilingservice.tile.QuadkeyTileSet;
+import com.example.tilingservice.tile.Tile;
+import lombok.Value;
+import org.locationtech.jts.algorithm.RectangleLineIntersector;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.algorithm.locate.PointOnGeometryLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quadtree walk that only evaluates tiles touching the region where an edited shape
+ * differs from the shape of an earlier result. Inside any other tile both shapes are
+ * the same, so every decision below it is the same too, and the earlier result's
+ * tiles in it, one contiguous quadkey range, are replayed as they are.
+ * <p>
+ * The changed region isn't computed as a polygon, which costs more than the retiling
+ * it saves. Its boundary is made of the edges found in only one of the two shapes, so
+ * a tile that none of those edges cross lies either wholly inside or wholly outside
+ * it, and its center tells which.
+ * <p>
+ * A tile the earlier result emitted whole, or merged into an ancestor, has no
+ * descendants to replay, so its subtree is evaluated even when it is unchanged.
+ */
+class IncrementalTileIterator extends DepthFirstTileIterator<IncrementalTileIterator.Frame> {
+    private final TileService tileService;
+    private final TilingContext context;
+    private final GeometryFactory geometryFactory;
+    private final QuadkeyTileSet previous;
+    private final STRtree changedEdges = new STRtree();
+    private final PointOnGeometryLocator previousLocator;
+    private final PointOnGeometryLocator locator;
+    // Tiles containing one of these depend on the whole shape, see TilingContext.isContainedBy
+    private final List<BoundingBox> shapeBoxes;
+
+    /**
+     * @param root     quadtree root of both results, {@code null} for the Web Mercator grid
+     * @param previous      tiles of the earlier result, without the bounding box tile
+     * @param previousShape shape the earlier result was computed for
+     */
+    IncrementalTileIterator(TileService tileService, TilingContext context, GeometryFactory geometryFactory,
+                            BoundingBox root, QuadkeyTileSet previous, Shape previousShape,
+                            List<BoundingBox> shapeBoxes, List<? extends Tile> tiles, int depth) {
+        this.tileService = tileService;
+        this.context = context;
+        this.geometryFactory = geometryFactory;
+        this.previous = previous;
+        this.previousLocator = new IndexedPointInAreaLocator(previousShape.toJtsGeometry(geometryFactory));
+        this.locator = new IndexedPointInAreaLocator(context.getGeometry());
+        this.shapeBoxes = shapeBoxes;
+
+        // Edges are counted up for the earlier shape and down for the current one
+        Map<Edge, Integer> edgeCounts = new HashMap<>();
+        countEdges(new ShapeRings(previousShape), edgeCounts, 1);
+        countEdges(context.getRings() != null ? context.getRings() : new ShapeRings(context.getShape()), edgeCounts, -1);
+        edgeCounts.forEach((edge, count) -> {
+            if (count != 0) {
+                changedEdges.insert(new Envelope(edge.x0, edge.x1, edge.y0, edge.y1), edge);
+            }
+        });
+        changedEdges.build();
+
+        List<Frame> frames = new ArrayList<>(tiles.size());
+        for (Tile tile : tiles) {
+            long code = Quadkey.of(tile, root);
+            frames.add(Frame.evaluate(tile, depth, code, hasPreviousAncestor(code)));
+        }
+        push(frames);
+    }
+
+    @Override
+    protected Tile visit(Frame frame) {
+        if (frame.tile == null) {
+            if (frame.from + 1 < frame.to) {
+                push(List.of(Frame.replay(frame.from + 1, frame.to)));
+            }
+            return previous.getTile(frame.from);
+        }
+
+        if (!frame.wholeAbove && !touchesChange(frame.tile)) {
+            int from = previous.firstAtOrAfter(frame.code);
+            int to = from + previous.countWithin(frame.code);
+            if (from < to) {
+                push(List.of(Frame.replay(from, to)));
+            }
+            return null;
+        }
+
+        switch (tileService.evaluate(frame.tile, context, frame.depth)) {
+            case EMIT:
+                return frame.tile;
+            case SUBDIVIDE:
+                boolean wholeAbove = frame.wholeAbove || previous.contains(frame.code);
+                List<Frame> children = new ArrayList<>(4);
+                int position = 0;
+                for (Tile child : frame.tile.subdivide()) {
+                    children.add(Frame.evaluate(child, frame.depth + 1, Quadkey.child(frame.code, position++), wholeAbove));
+                }
+                push(children);
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private boolean touchesChange(Tile tile) {
+        BoundingBox box = tile.getBoundingBox();
+        for (BoundingBox shapeBox : shapeBoxes) {
+            if (contains(box, shapeBox)) {
+                return true;
+            }
+        }
+        Envelope envelope = new Envelope(box.getSouthWest().getLongitude(), box.getNorthEast().getLongitude(),
+                box.getSouthWest().getLatitude(), box.getNorthEast().getLatitude());
+        RectangleLineIntersector intersector = new RectangleLineIntersector(envelope);
+        for (Object item : changedEdges.query(envelope)) {
+            Edge edge = (Edge) item;
+            if (intersector.intersects(new Coordinate(edge.x0, edge.y0), new Coordinate(edge.x1, edge.y1))) {
+                return true;
+            }
+        }
+        Coordinate center = envelope.centre();
+        return previousLocator.locate(center) != locator.locate(center);
+    }
+
+    private static void countEdges(ShapeRings rings, Map<Edge, Integer> counts, int increment) {
+        for (int r = 0; r < rings.getRingCount(); r++) {
+            double[] ring = rings.getRing(r);
+            int points = ring.length / 2;
+            for (int i = 0; i < points; i++) {
+                int j = (i + 1) % points;
+                double x0 = ring[2 * i], y0 = ring[2 * i + 1];
+                double x1 = ring[2 * j], y1 = ring[2 * j + 1];
+                if (x0 == x1 && y0 == y1) {
+                    continue;
+                }
+                // Edges are undirected, so reversing a ring changes nothing
+                boolean swap = x1 < x0 || (x1 == x0 && y1 < y0);
+                Edge edge = swap ? new Edge(x1, y1, x0, y0) : new Edge(x0, y0, x1, y1);
+                counts.merge(edge, increment, Integer::sum);
+            }
+        }
+    }
+
+    private static boolean contains(BoundingBox outer, BoundingBox inner) {
+        return outer.getSouthWest().getLatitude() <= inner.getSouthWest().getLatitude()
+                && outer.getSouthWest().getLongitude() <= inner.getSouthWest().getLongitude()
+                && outer.getNorthEast().getLatitude() >= inner.getNorthEast().getLatitude()
+                && outer.getNorthEast().getLongitude() >= inner.getNorthEast().getLongitude();
+    }
+
+    private boolean hasPreviousAncestor(long code) {
+        while (Quadkey.level(code) > 0) {
+            code = Quadkey.parent(code);
+            if (previous.contains(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Value
+    static class Edge {
+        double x0;
+        double y0;
+        double x1;
+        double y1;
+    }
+
+    /**
+     * Either a tile to evaluate or a range of earlier tiles to replay.
+     */
+    @Value
+    static class Frame {
+        Tile tile;
+        int depth;
+        long code;
+        // The earlier result has this tile's parent or another ancestor as a single tile
+        boolean wholeAbove;
+        int from;
+        int to;
+
+        static Frame evaluate(Tile tile, int depth, long code, boolean wholeAbove) {
+            return new Frame(tile, depth, code, wholeAbove, 0, 0);
+        }
+
+        static Frame replay(int from, int to) {
+            return new Frame(null, 0, 0, false, from, to);
+        }
+    }
+}
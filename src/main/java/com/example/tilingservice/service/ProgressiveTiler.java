@@ -0,0 +1,110 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.tile.Quadkey;
+import com.example.tilingservice.tile.QuadkeyTileSet;
+import com.example.tilingservice.tile.Tile;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Breadth-first version of the quadtree walk, refining the whole shape one level at a
+ * time, so it can stop at any point with a usable tiling.
+ * <p>
+ * When the deadline passes or the next step could exceed the tile budget, tiles still
+ * waiting to be refined are returned whole, next to the tiles emitted so far. That
+ * covers everything a complete run would, with coarser tiles along the unfinished
+ * edges. Uninterrupted, it makes the same decisions as {@link QuadtreeTileIterator}
+ * and returns the same tiles.
+ */
+class ProgressiveTiler {
+    // Refining a tile replaces it with at most four
+    private static final int MAX_GROWTH = 3;
+
+    private final TileService tileService;
+    private final TilingContext context;
+    private final BoundingBox root;
+    private final long deadlineNanos;
+    private final int maxTiles;
+
+    @Getter
+    private boolean partial;
+    /** Quadtree level down to which every tile has been evaluated. */
+    @Getter
+    private int levelReached;
+
+    /**
+     * @param root          quadtree root, {@code null} for the Web Mercator grid
+     * @param deadlineNanos {@link System#nanoTime()} to stop at
+     * @param maxTiles      most tiles to return, or 0 for no limit
+     */
+    ProgressiveTiler(TileService tileService, TilingContext context, BoundingBox root, long deadlineNanos,
+                     int maxTiles) {
+        this.tileService = tileService;
+        this.context = context;
+        this.root = root;
+        this.deadlineNanos = deadlineNanos;
+        this.maxTiles = maxTiles > 0 ? maxTiles : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Tiles in {@link Quadkey} order, which is the order the depth-first algorithms
+     * produce. The initial tiles are always evaluated, whatever the limits.
+     */
+    List<Tile> run(List<? extends Tile> initialTiles, int initialDepth) {
+        int levelOffset = Quadkey.level(Quadkey.of(initialTiles.get(0), root)) - initialDepth;
+        List<Tile> emitted = new ArrayList<>();
+        Deque<Group> pending = new ArrayDeque<>();
+        pending.add(new Group(null, new ArrayList<>(initialTiles), initialDepth));
+        int deepest = initialDepth;
+
+        boolean first = true;
+        while (!pending.isEmpty()) {
+            if (!first && (emitted.size() + pending.size() + MAX_GROWTH > maxTiles
+                    || System.nanoTime() - deadlineNanos > 0)) {
+                partial = true;
+                break;
+            }
+            first = false;
+
+            Group group = pending.poll();
+            deepest = Math.max(deepest, group.depth);
+            for (Tile tile : group.tiles) {
+                switch (tileService.evaluate(tile, context, group.depth)) {
+                    case EMIT:
+                        emitted.add(tile);
+                        break;
+                    case SUBDIVIDE:
+                        pending.add(new Group(tile, tile.subdivide(), group.depth + 1));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        // Groups are queued level by level, so the first one left is the shallowest
+        levelReached = (partial ? pending.peek().depth - 1 : deepest) + levelOffset;
+        QuadkeyTileSet.Builder tiles = QuadkeyTileSet.builder(root);
+        emitted.forEach(tiles::add);
+        for (Group group : pending) {
+            tiles.add(group.parent);
+        }
+        return tiles.build().asList();
+    }
+
+    /**
+     * Children of one tile, evaluated together so a tile is either refined or not.
+     */
+    @Value
+    private static class Group {
+        Tile parent;
+        List<? extends Tile> tiles;
+        int depth;
+    }
+}
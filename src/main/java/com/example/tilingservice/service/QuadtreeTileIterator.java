@@ -0,0 +1,49 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.tile.Tile;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lazy version of {@link TileService#processTile}: each tile is evaluated only when
+ * the consumer asks for the next one.
+ */
+class QuadtreeTileIterator extends DepthFirstTileIterator<QuadtreeTileIterator.Frame> {
+    private final TileService tileService;
+    private final TilingContext context;
+
+    QuadtreeTileIterator(TileService tileService, TilingContext context, List<? extends Tile> tiles, int depth) {
+        this.tileService = tileService;
+        this.context = context;
+        push(frames(tiles, depth));
+    }
+
+    @Override
+    protected Tile visit(Frame frame) {
+        switch (tileService.evaluate(frame.tile, context, frame.depth)) {
+            case EMIT:
+                return frame.tile;
+            case SUBDIVIDE:
+                push(frames(frame.tile.subdivide(), frame.depth + 1));
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static List<Frame> frames(List<? extends Tile> tiles, int depth) {
+        List<Frame> frames = new ArrayList<>(tiles.size());
+        for (Tile tile : tiles) {
+            frames.add(new Frame(tile, depth));
+        }
+        return frames;
+    }
+
+    @Value
+    static class Frame {
+        Tile tile;
+        int depth;
+    }
+}
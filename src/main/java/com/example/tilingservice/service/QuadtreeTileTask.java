@@ -0,0 +1,60 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.tile.Tile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join version of {@link TileService#processTile}. Children are forked down to
+ * {@code maxForkDepth} and processed sequentially below it. Subtask results are
+ * joined in subdivision order, so the output matches the sequential recursion.
+ */
+public class QuadtreeTileTask extends RecursiveTask<List<Tile>> {
+    private static final long serialVersionUID = 1L;
+
+    // Tasks only live inside one fork/join run and are never serialized
+    private final transient TileService tileService;
+    private final transient TilingContext context;
+    private final transient Tile tile;
+    private final int depth;
+    private final int maxForkDepth;
+
+    public QuadtreeTileTask(TileService tileService, TilingContext context, Tile tile, int depth, int maxForkDepth) {
+        this.tileService = tileService;
+        this.context = context;
+        this.tile = tile;
+        this.depth = depth;
+        this.maxForkDepth = maxForkDepth;
+    }
+
+    @Override
+    protected List<Tile> compute() {
+        List<Tile> results = new ArrayList<>();
+
+        if (depth >= maxForkDepth) {
+            tileService.processTile(tile, context, results, depth);
+            return results;
+        }
+
+        switch (tileService.evaluate(tile, context, depth)) {
+            case EMIT:
+                results.add(tile);
+                break;
+            case SUBDIVIDE:
+                List<QuadtreeTileTask> subtasks = new ArrayList<>();
+                for (Tile subtile : tile.subdivide()) {
+                    subtasks.add(new QuadtreeTileTask(tileService, context, subtile, depth + 1, maxForkDepth));
+                }
+                invokeAll(subtasks);
+                for (QuadtreeTileTask subtask : subtasks) {
+                    results.addAll(subtask.join());
+                }
+                break;
+            default:
+                break;
+        }
+        return results;
+    }
+}
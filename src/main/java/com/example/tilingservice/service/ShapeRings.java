@@ -0,0 +1,141 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.utils.RectangleClipper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rings of a shape as primitive coordinate arrays, shared with its {@link PackedRing}s,
+ * with the bounds and area of each ring precomputed so the clipper can skip rings that
+ * miss a tile or lie inside it.
+ */
+public class ShapeRings {
+    private final double[][] rings;
+    private final boolean[] holes;
+    private final double[] bounds;
+    private final double[] areas;
+    // Members to look up rings by, and the first ring of each member; null to scan all rings
+    private final MultiPolygonShape members;
+    private final int[] memberRings;
+
+    public ShapeRings(Shape shape) {
+        List<double[]> ringList = new ArrayList<>();
+        List<Boolean> holeList = new ArrayList<>();
+        List<PolygonShape> polygons = polygonsOf(shape);
+        int[] firstRings = new int[polygons.size() + 1];
+        for (int m = 0; m < polygons.size(); m++) {
+            PolygonShape polygon = polygons.get(m);
+            firstRings[m] = ringList.size();
+            ringList.add(polygon.getOuterRing().getCoordinates());
+            holeList.add(false);
+            for (PackedRing hole : polygon.getHoleRings()) {
+                ringList.add(hole.getCoordinates());
+                holeList.add(true);
+            }
+        }
+        firstRings[polygons.size()] = ringList.size();
+
+        this.rings = ringList.toArray(new double[0][]);
+        this.holes = new boolean[rings.length];
+        this.bounds = new double[4 * rings.length];
+        this.areas = new double[rings.length];
+        for (int i = 0; i < rings.length; i++) {
+            holes[i] = holeList.get(i);
+            areas[i] = RectangleClipper.ringArea(rings[i]);
+            computeBounds(rings[i], bounds, 4 * i);
+        }
+
+        boolean indexed = shape instanceof MultiPolygonShape;
+        for (int m = 0; m < polygons.size() && indexed; m++) {
+            // The member index only knows outer ring bounds; a hole sticking out would be missed
+            for (int i = firstRings[m] + 1; i < firstRings[m + 1]; i++) {
+                indexed &= contains(4 * firstRings[m], 4 * i);
+            }
+        }
+        this.members = indexed ? (MultiPolygonShape) shape : null;
+        this.memberRings = indexed ? firstRings : null;
+    }
+
+    public int getRingCount() {
+        return rings.length;
+    }
+
+    public double[] getRing(int index) {
+        return rings[index];
+    }
+
+    public boolean isHole(int index) {
+        return holes[index];
+    }
+
+    /**
+     * Area of the shape inside the rectangle: clipped outer rings minus clipped holes.
+     */
+    public double coveredArea(RectangleClipper clipper, double minX, double minY, double maxX, double maxY) {
+        double area = 0;
+        if (members == null) {
+            for (int i = 0; i < rings.length; i++) {
+                area += signedArea(i, clipper, minX, minY, maxX, maxY);
+            }
+            return area;
+        }
+        // Rings of the members nearby, in the same order as the full scan adds them
+        for (int m : members.membersIntersecting(minX, minY, maxX, maxY)) {
+            for (int i = memberRings[m]; i < memberRings[m + 1]; i++) {
+                area += signedArea(i, clipper, minX, minY, maxX, maxY);
+            }
+        }
+        return area;
+    }
+
+    private double signedArea(int i, RectangleClipper clipper, double minX, double minY, double maxX, double maxY) {
+        int b = 4 * i;
+        if (bounds[b + 2] < minX || bounds[b] > maxX || bounds[b + 3] < minY || bounds[b + 1] > maxY) {
+            return 0;
+        }
+        double ringArea;
+        if (bounds[b] >= minX && bounds[b + 2] <= maxX && bounds[b + 1] >= minY && bounds[b + 3] <= maxY) {
+            ringArea = areas[i];
+        } else {
+            ringArea = clipper.clippedArea(rings[i], minX, minY, maxX, maxY);
+        }
+        return holes[i] ? -ringArea : ringArea;
+    }
+
+    private boolean contains(int outer, int inner) {
+        return bounds[outer] <= bounds[inner] && bounds[outer + 1] <= bounds[inner + 1]
+                && bounds[outer + 2] >= bounds[inner + 2] && bounds[outer + 3] >= bounds[inner + 3];
+    }
+
+    /**
+     * Members of a MultiPolygon, or the polygon itself.
+     */
+    static List<PolygonShape> polygonsOf(Shape shape) {
+        if (shape instanceof MultiPolygonShape) {
+            return ((MultiPolygonShape) shape).getPolygons();
+        } else if (shape instanceof PolygonShape) {
+            return List.of((PolygonShape) shape);
+        }
+        throw new IllegalArgumentException("Unsupported shape type: " + shape.getClass().getSimpleName());
+    }
+
+    private static void computeBounds(double[] ring, double[] bounds, int offset) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < ring.length; i += 2) {
+            minX = Math.min(minX, ring[i]);
+            maxX = Math.max(maxX, ring[i]);
+            minY = Math.min(minY, ring[i + 1]);
+            maxY = Math.max(maxY, ring[i + 1]);
+        }
+        bounds[offset] = minX;
+        bounds[offset + 1] = minY;
+        bounds[offset + 2] = maxX;
+        bounds[offset + 3] = maxY;
+    }
+}
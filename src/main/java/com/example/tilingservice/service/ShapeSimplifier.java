@@ -0,0 +1,168 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import lombok.Value;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Topology-preserving Douglas-Peucker pass that drops vertices the smallest tiles of a
+ * job can't tell apart, before the shape is tiled.
+ * <p>
+ * A boundary moved by at most {@code d} across a {@code w} by {@code h} tile changes its
+ * covered area by about {@code d * sqrt(w * w + h * h)}, so the tolerance keeps that within
+ * {@link #THRESHOLD_FRACTION} of the coverage threshold for tiles of the leaf level.
+ * Rings are cut where they touch their bounding box and the pieces are simplified
+ * together, so every ring keeps its bounds and the tile grid doesn't move. The error
+ * actually introduced is measured afterwards by comparing coverage rasters of both shapes.
+ */
+class ShapeSimplifier {
+    static final double THRESHOLD_FRACTION = 0.1;
+
+    @Value
+    static class Result {
+        Shape shape;
+        /** Douglas-Peucker tolerance in degrees. */
+        double tolerance;
+        int verticesBefore;
+        int verticesAfter;
+        /** Largest change in the coverage ratio of any tile down to {@link #errorLevel}. */
+        double errorBound;
+        int errorLevel;
+    }
+
+    private ShapeSimplifier() {
+    }
+
+    static Result simplify(Shape shape, TilingJob job, GeometryFactory geometryFactory, int maxRecursionDepth) {
+        List<PolygonShape> polygons = ShapeRings.polygonsOf(shape);
+        int verticesBefore = vertexCount(polygons);
+        double tolerance = tolerance(shape.getBoundingBox(), job, maxRecursionDepth);
+        if (!(tolerance > 0)) {
+            return new Result(shape, 0, verticesBefore, verticesBefore, 0, 0);
+        }
+
+        List<int[]> cuts = new ArrayList<>();
+        List<LineString> pieces = new ArrayList<>();
+        for (PolygonShape polygon : polygons) {
+            addPieces(polygon.getOuterRing(), geometryFactory, cuts, pieces);
+            for (PackedRing hole : polygon.getHoleRings()) {
+                addPieces(hole, geometryFactory, cuts, pieces);
+            }
+        }
+        Geometry simplified = TopologyPreservingSimplifier.simplify(
+                geometryFactory.createMultiLineString(pieces.toArray(new LineString[0])), tolerance);
+        if (simplified.getNumGeometries() != pieces.size()) {
+            return new Result(shape, tolerance, verticesBefore, verticesBefore, 0, 0);
+        }
+
+        List<PolygonShape> simplifiedPolygons = new ArrayList<>();
+        int[] position = new int[2];
+        for (PolygonShape polygon : polygons) {
+            PackedRing outer = joinPieces(polygon.getOuterRing(), simplified, cuts, position);
+            List<PackedRing> holes = new ArrayList<>();
+            for (PackedRing hole : polygon.getHoleRings()) {
+                holes.add(joinPieces(hole, simplified, cuts, position));
+            }
+            simplifiedPolygons.add(new PolygonShape(outer, holes));
+        }
+        Shape result = shape instanceof MultiPolygonShape
+                ? new MultiPolygonShape(simplifiedPolygons)
+                : simplifiedPolygons.get(0);
+
+        int level = TilingContext.rasterLevel(job, shape);
+        CoverageRaster before = new CoverageRaster(new ShapeRings(shape), shape.getBoundingBox(), level);
+        CoverageRaster after = new CoverageRaster(new ShapeRings(result), shape.getBoundingBox(), level);
+        double errorBound = before.maxCellDifference(after) + before.getErrorBound() + after.getErrorBound();
+        return new Result(result, tolerance, verticesBefore, vertexCount(simplifiedPolygons), errorBound, level);
+    }
+
+    /**
+     * Tolerance in degrees for the tiles of the level where tiles drop below the job's
+     * smaller area limit, or 0 when the job has no coverage threshold to stay within.
+     */
+    static double tolerance(BoundingBox box, TilingJob job, int maxRecursionDepth) {
+        double leafArea = Math.min(job.getMinTileArea(), job.getMaxTileArea());
+        int leafLevel = Math.min(maxRecursionDepth, TileAreaTable.forRoot(box).levelBelow(leafArea));
+        double width = (box.getNorthEast().getLongitude() - box.getSouthWest().getLongitude()) / (1L << leafLevel);
+        double height = (box.getNorthEast().getLatitude() - box.getSouthWest().getLatitude()) / (1L << leafLevel);
+        if (!(width > 0 && height > 0) || !(job.getCoverageThreshold() > 0)) {
+            return 0;
+        }
+        return THRESHOLD_FRACTION * job.getCoverageThreshold() * width * height / Math.hypot(width, height);
+    }
+
+    /**
+     * Cuts the ring at its first vertex and where it reaches its bounds; the pieces share
+     * their end vertices, which the simplifier always keeps.
+     */
+    private static void addPieces(PackedRing ring, GeometryFactory geometryFactory, List<int[]> cuts,
+                                  List<LineString> pieces) {
+        double[] coordinates = ring.getCoordinates();
+        int last = coordinates.length / 2 - 1;
+        int minX = 0, maxX = 0, minY = 0, maxY = 0;
+        for (int i = 1; i < last; i++) {
+            minX = coordinates[2 * i] < coordinates[2 * minX] ? i : minX;
+            maxX = coordinates[2 * i] > coordinates[2 * maxX] ? i : maxX;
+            minY = coordinates[2 * i + 1] < coordinates[2 * minY + 1] ? i : minY;
+            maxY = coordinates[2 * i + 1] > coordinates[2 * maxY + 1] ? i : maxY;
+        }
+        int[] ringCuts = Arrays.stream(new int[] {0, minX, maxX, minY, maxY, last}).sorted().distinct().toArray();
+        cuts.add(ringCuts);
+        for (int k = 0; k + 1 < ringCuts.length; k++) {
+            double[] piece = Arrays.copyOfRange(coordinates, 2 * ringCuts[k], 2 * ringCuts[k + 1] + 2);
+            pieces.add(geometryFactory.createLineString(new PackedCoordinateSequence.Double(piece, 2, 0)));
+        }
+    }
+
+    /**
+     * Joins the simplified pieces of the next ring; {@code position} holds the indexes of
+     * that ring and of its first piece. Rings that would collapse are kept as they were.
+     */
+    private static PackedRing joinPieces(PackedRing ring, Geometry simplified, List<int[]> cuts, int[] position) {
+        int pieceCount = cuts.get(position[0]++).length - 1;
+        List<LineString> pieces = new ArrayList<>();
+        int vertices = 1;
+        for (int k = 0; k < pieceCount; k++) {
+            LineString piece = (LineString) simplified.getGeometryN(position[1]++);
+            pieces.add(piece);
+            vertices += piece.getNumPoints() - 1;
+        }
+        if (vertices < 4 || ring.getCoordinates().length / 2 <= vertices) {
+            return ring;
+        }
+
+        double[] coordinates = new double[2 * vertices];
+        int count = 0;
+        for (LineString piece : pieces) {
+            for (int i = count == 0 ? 0 : 1; i < piece.getNumPoints(); i++) {
+                coordinates[2 * count] = piece.getCoordinateN(i).getX();
+                coordinates[2 * count + 1] = piece.getCoordinateN(i).getY();
+                count++;
+            }
+        }
+        return PackedRing.wrap(coordinates, count);
+    }
+
+    private static int vertexCount(List<PolygonShape> polygons) {
+        int count = 0;
+        for (PolygonShape polygon : polygons) {
+            count += polygon.getOuterRing().getCoordinates().length / 2;
+            for (PackedRing hole : polygon.getHoleRings()) {
+                count += hole.getCoordinates().length / 2;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.tile.Quadkey;
+import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.tile.WebMercatorTile;
+import com.example.tilingservice.utils.GeometryUtils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tile areas of one job's quadtree without trigonometry per tile.
+ * <p>
+ * {@link GeometryUtils#calculateAreaInMeters} needs the cosine of a tile's south edge,
+ * and every tile in a row of a quadtree level shares that edge, down to the last bit,
+ * because it comes from the same chain of midpoints. The cosine is therefore computed
+ * once per (level, row) and looked up after that. Each entry remembers the latitude it
+ * was computed for and is only used for exactly that latitude, so areas are identical
+ * to the direct formula; tiles that don't fit the table get the direct formula.
+ * <p>
+ * Web Mercator tiles are keyed by their zoom and row alone. Their edge latitudes take an
+ * inverse hyperbolic projection each, so the row keeps them along with the cosine and a
+ * lookup doesn't build the tile's bounding box.
+ * <p>
+ * Rows are filled in as tiles reach them and may be filled concurrently by fork/join
+ * workers. Entries are immutable, so a lost race only costs one more cosine.
+ */
+class TileAreaTable {
+    // Deeper levels than this many rows fall back to the direct formula
+    private static final int MAX_ROWS = 1 << 16;
+    private static final double ALIGNMENT_TOLERANCE = 1e-6;
+
+    private final BoundingBox root;
+    private final int baseLevel;
+    private final long baseRow;
+    private final long baseRows;
+    private final AtomicReferenceArray<Row[]> levels = new AtomicReferenceArray<>(Quadkey.MAX_LEVEL + 1);
+
+    /**
+     * Table for the quadtree of a bounding box, rows counted from the south.
+     */
+    static TileAreaTable forRoot(BoundingBox root) {
+        return new TileAreaTable(root, 0, 0, 1);
+    }
+
+    /**
+     * Table for the Web Mercator grid below the given rows of the zoom the walk starts
+     * at, rows counted from the north.
+     */
+    static TileAreaTable forWebMercator(int zoom, int firstRow, int rowCount) {
+        return new TileAreaTable(null, zoom, firstRow, rowCount);
+    }
+
+    private TileAreaTable(BoundingBox root, int baseLevel, long baseRow, long baseRows) {
+        this.root = root;
+        this.baseLevel = baseLevel;
+        this.baseRow = baseRow;
+        this.baseRows = baseRows;
+    }
+
+    double areaInMeters(Tile tile) {
+        if (root == null) {
+            return tile instanceof WebMercatorTile webMercator
+                    ? webMercatorArea(webMercator)
+                    : GeometryUtils.calculateAreaInMeters(tile.getBoundingBox());
+        }
+        BoundingBox box = tile.getBoundingBox();
+        double south = box.getSouthWest().getLatitude();
+        double rootWidth = root.getNorthEast().getLongitude() - root.getSouthWest().getLongitude();
+        double width = box.getNorthEast().getLongitude() - box.getSouthWest().getLongitude();
+        // The ratio is a power of two up to rounding, so the factor 1.5 keeps it inside that binade
+        int level = Math.getExponent(rootWidth / width * 1.5);
+        if (level < 0 || level > Quadkey.MAX_LEVEL) {
+            return GeometryUtils.calculateAreaInMeters(box);
+        }
+        double rootHeight = root.getNorthEast().getLatitude() - root.getSouthWest().getLatitude();
+        double position = (south - root.getSouthWest().getLatitude()) / rootHeight * (1L << level);
+        long row = Math.round(position);
+        if (Math.abs(position - row) > ALIGNMENT_TOLERANCE) {
+            return GeometryUtils.calculateAreaInMeters(box);
+        }
+
+        Row[] rows = rows(level);
+        long index = rows != null ? row - (baseRow << (level - baseLevel)) : -1;
+        if (index < 0 || index >= rows.length) {
+            return GeometryUtils.calculateAreaInMeters(box);
+        }
+        Row entry = rows[(int) index];
+        if (entry == null || Double.doubleToRawLongBits(entry.south) != Double.doubleToRawLongBits(south)) {
+            entry = new Row(south, box.getNorthEast().getLatitude());
+            rows[(int) index] = entry;
+        }
+        return GeometryUtils.calculateAreaInMeters(box, entry.cosine);
+    }
+
+    private double webMercatorArea(WebMercatorTile tile) {
+        int zoom = tile.getZ();
+        Row[] rows = rows(zoom);
+        long index = rows != null ? tile.getY() - (baseRow << (zoom - baseLevel)) : -1;
+        if (index < 0 || index >= rows.length) {
+            return GeometryUtils.calculateAreaInMeters(tile.getBoundingBox());
+        }
+        Row entry = rows[(int) index];
+        if (entry == null) {
+            entry = new Row(WebMercatorTile.latitude(tile.getY() + 1, zoom), WebMercatorTile.latitude(tile.getY(), zoom));
+            rows[(int) index] = entry;
+        }
+        return GeometryUtils.calculateAreaInMeters(entry.south, WebMercatorTile.longitude(tile.getX(), zoom),
+                entry.north, WebMercatorTile.longitude(tile.getX() + 1, zoom), entry.cosine);
+    }
+
+    /**
+     * Shallowest level at which no tile can be larger than {@code area}, taking the
+     * cosine as 1. Web Mercator tiles are never taller than wide in degrees.
+     */
+    int levelBelow(double area) {
+        if (!(area > 0)) {
+            return Quadkey.MAX_LEVEL;
+        }
+        double width = root != null ? root.getNorthEast().getLongitude() - root.getSouthWest().getLongitude() : 360;
+        double height = root != null ? root.getNorthEast().getLatitude() - root.getSouthWest().getLatitude() : 360;
+        // Margin for midpoints that round a little away from exact halves
+        double limit = area * (1 - 1e-9);
+        for (int level = baseLevel; level < Quadkey.MAX_LEVEL; level++) {
+            double scale = 1L << level;
+            double bound = GeometryUtils.EARTH_RADIUS * Math.toRadians(width / scale)
+                    * GeometryUtils.EARTH_RADIUS * Math.toRadians(height / scale);
+            if (bound <= limit) {
+                return level;
+            }
+        }
+        return Quadkey.MAX_LEVEL;
+    }
+
+    private Row[] rows(int level) {
+        if (level < baseLevel || level - baseLevel >= Long.SIZE - 1) {
+            return null;
+        }
+        long count = baseRows << (level - baseLevel);
+        if (count > MAX_ROWS || count <= 0) {
+            return null;
+        }
+        Row[] rows = levels.get(level);
+        if (rows == null) {
+            levels.compareAndSet(level, null, new Row[(int) count]);
+            rows = levels.get(level);
+        }
+        return rows;
+    }
+
+    private static final class Row {
+        final double south;
+        final double north;
+        final double cosine;
+
+        Row(double south, double north) {
+            this.south = south;
+            this.north = north;
+            this.cosine = Math.cos(Math.toRadians(south));
+        }
+    }
+}
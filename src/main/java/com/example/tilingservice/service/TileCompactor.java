@@ -0,0 +1,148 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.tile.Quadkey;
+import com.example.tilingservice.tile.RectangleTile;
+import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.tile.WebMercatorTile;
+import com.example.tilingservice.utils.GeometryUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges complete groups of four sibling tiles into their parent, bottom-up, as long
+ * as the parent stays at or below {@code maxTileArea}. The merged tiles cover exactly
+ * the same area, there are just fewer of them.
+ * <p>
+ * Tiles are matched up by their {@link Quadkey}. For bounding-box tiles it is
+ * recovered from the box relative to the root, so the compactor works on the output of
+ * any algorithm. Tiles that don't line up with the root's quadtree are passed through
+ * untouched.
+ * <p>
+ * Input must be in depth-first subdivision order (SW, NW, NE, SE), which is what every
+ * algorithm produces. Siblings are then contiguous, so the compactor only holds the
+ * groups that may still complete: at most three tiles per level. A merged parent takes
+ * the place of its south-west child, which keeps the output in depth-first order.
+ */
+public class TileCompactor {
+    private final BoundingBox root;
+    private final double maxTileArea;
+
+    /**
+     * @param root the root bounding box, or {@code null} for the Web Mercator grid
+     */
+    public TileCompactor(BoundingBox root, double maxTileArea) {
+        this.root = root;
+        this.maxTileArea = maxTileArea;
+    }
+
+    public List<Tile> compact(List<Tile> tiles) {
+        List<Tile> compacted = new ArrayList<>();
+        compact(tiles.iterator()).forEachRemaining(compacted::add);
+        return compacted;
+    }
+
+    public Iterator<Tile> compact(Iterator<Tile> tiles) {
+        return new CompactingIterator(tiles);
+    }
+
+    private class CompactingIterator implements Iterator<Tile> {
+        private final Iterator<Tile> source;
+        // Tiles that may still merge, each one the start or continuation of a sibling group
+        private final List<Tile> pending = new ArrayList<>();
+        private final List<Long> pendingCodes = new ArrayList<>();
+        private final Deque<Tile> ready = new ArrayDeque<>();
+
+        CompactingIterator(Iterator<Tile> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (ready.isEmpty() && source.hasNext()) {
+                Tile tile = source.next();
+                offer(tile, Quadkey.of(tile, root));
+            }
+            if (ready.isEmpty()) {
+                flush();
+            }
+            return !ready.isEmpty();
+        }
+
+        @Override
+        public Tile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return ready.poll();
+        }
+
+        private void offer(Tile tile, long code) {
+            while (true) {
+                int position = code < 0 ? -1 : Quadkey.position(code);
+                if (!extendsPending(code, position)) {
+                    // Whatever is pending can't complete any more, and neither can a tile
+                    // that doesn't start a group
+                    flush();
+                    if (position != 0) {
+                        ready.add(tile);
+                        return;
+                    }
+                }
+                pending.add(tile);
+                pendingCodes.add(code);
+                if (position < 3) {
+                    return;
+                }
+
+                int last = pending.size() - 1;
+                Tile parent = parentOf(pending.get(last - 3), pending.get(last - 1));
+                if (GeometryUtils.calculateAreaInMeters(parent.getBoundingBox()) > maxTileArea) {
+                    flush();
+                    return;
+                }
+                for (int i = 0; i < 4; i++) {
+                    pending.remove(last - i);
+                    pendingCodes.remove(last - i);
+                }
+                tile = parent;
+                code = Quadkey.parent(code);
+            }
+        }
+
+        /**
+         * Whether the tile is the next sibling of the last pending group, or starts a new
+         * group inside the region that sibling would cover.
+         */
+        private boolean extendsPending(long code, int position) {
+            if (position < 0) {
+                return false;
+            } else if (pending.isEmpty()) {
+                return position == 0;
+            }
+            long last = pendingCodes.get(pendingCodes.size() - 1);
+            long expected = Quadkey.sibling(last, Quadkey.position(last) + 1);
+            return code == expected || (position == 0 && Quadkey.contains(expected, code));
+        }
+
+        private void flush() {
+            ready.addAll(pending);
+            pending.clear();
+            pendingCodes.clear();
+        }
+    }
+
+    private static Tile parentOf(Tile southWest, Tile northEast) {
+        if (southWest instanceof WebMercatorTile) {
+            return ((WebMercatorTile) southWest).getParent();
+        }
+        return new RectangleTile(new BoundingBox(
+                southWest.getBoundingBox().getSouthWest(),
+                northEast.getBoundingBox().getNorthEast()));
+    }
+}
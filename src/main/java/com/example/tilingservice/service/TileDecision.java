@@ -0,0 +1,10 @@
+package com.example.tilingservice.service;
+
+/**
+ * Outcome of evaluating a single tile against the shape being tiled.
+ */
+public enum TileDecision {
+    SKIP,
+    EMIT,
+    SUBDIVIDE
+}
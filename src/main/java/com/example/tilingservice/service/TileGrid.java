@@ -0,0 +1,18 @@
+package com.example.tilingservice.service;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Grid the quadtree is laid on.
+ */
+public enum TileGrid {
+    /** The shape's own bounding box is the root, halved into double-precision boxes. */
+    BOUNDING_BOX,
+    /** Integer z/x/y tiles of the Web Mercator grid, starting from the deepest zoom that covers the shape with 2x2 tiles. */
+    WEB_MERCATOR;
+
+    @JsonCreator
+    public static TileGrid fromValue(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
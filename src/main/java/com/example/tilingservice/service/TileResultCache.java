@@ -0,0 +1,464 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.tile.QuadkeyTileSet;
+import com.example.tilingservice.tile.RectangleTile;
+import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.utils.RectangleClipper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache of tiling results, keyed by a hash of the normalized shape and every job
+ * parameter that affects the output. The shape is kept with the result, so a later
+ * request for an edited shape can reuse the tiles away from the edit.
+ * <p>
+ * The memory tier is bounded by an estimate of the bytes each entry holds; results
+ * are kept as quadkey arrays, so that is about eight bytes per tile plus sixteen per
+ * shape vertex. Least recently
+ * used entries are evicted first. When a directory is configured, results are also
+ * written there and survive restarts; that tier has its own byte budget and drops the
+ * least recently read files first.
+ */
+@Slf4j
+@Component
+public class TileResultCache {
+    private static final int FILE_VERSION = 2;
+    private static final String FILE_SUFFIX = ".tiles";
+    // Rough fixed cost of an entry: key, holder objects and metadata
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final Cache<String, Entry> memory;
+    private final long maxBytes;
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    public TileResultCache(@Value("${tiling.cache.max-bytes:67108864}") long maxBytes,
+                           @Value("${tiling.cache.disk.directory:}") String directory,
+                           @Value("${tiling.cache.disk.max-bytes:1073741824}") long maxDiskBytes,
+                           ObjectMapper objectMapper) {
+        this.maxBytes = maxBytes;
+        this.memory = maxBytes > 0
+                ? CacheBuilder.newBuilder()
+                    .maximumWeight(maxBytes)
+                    .weigher((String key, Entry entry) -> weight(entry))
+                    .recordStats()
+                    .build()
+                : null;
+        this.directory = directory == null || directory.isBlank() ? null : Paths.get(directory);
+        this.maxDiskBytes = maxDiskBytes;
+        this.objectMapper = objectMapper;
+
+        if (this.directory != null) {
+            try {
+                Files.createDirectories(this.directory);
+                diskBytes.set(cacheFiles().mapToLong(TileResultCache::sizeOf).sum());
+                log.info("Tile cache directory {} holds {} bytes", this.directory.toAbsolutePath(), diskBytes.get());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open tile cache directory " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * A cache that stores nothing.
+     */
+    public static TileResultCache disabled() {
+        return new TileResultCache(0, null, 0, new ObjectMapper());
+    }
+
+    public boolean isEnabled() {
+        return memory != null || directory != null;
+    }
+
+    /**
+     * Tiles a result may have to be cached. Larger results would push out everything
+     * else, so they aren't recorded at all.
+     */
+    public long maxCachedTiles() {
+        return Math.max(maxBytes, directory != null ? maxDiskBytes : 0) / Long.BYTES;
+    }
+
+    /**
+     * Cached result for the key, or {@code null}. Every call returns its own copy, so
+     * callers may add metadata to it.
+     */
+    public TilingResult get(String key) {
+        Entry entry = lookup(key);
+        return entry != null ? copy(entry.getResult()) : null;
+    }
+
+    /**
+     * Cached result for the key along with the shape it was computed for, or {@code null}.
+     */
+    public Entry getEntry(String key) {
+        Entry entry = lookup(key);
+        return entry != null ? new Entry(entry.getShape(), copy(entry.getResult())) : null;
+    }
+
+    private Entry lookup(String key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Entry entry = memory != null ? memory.getIfPresent(key) : null;
+        if (entry == null && directory != null) {
+            entry = readFromDisk(key);
+            if (entry != null) {
+                diskHits.incrementAndGet();
+                if (memory != null) {
+                    memory.put(key, entry);
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Caches a quadkey-backed result. Results held as tile objects are ignored, and so
+     * are partial ones, which depend on how fast the run happened to be.
+     */
+    public void put(String key, Shape shape, TilingResult result) {
+        if (!isEnabled() || result.getTileSet() == null || Boolean.TRUE.equals(result.getMetadata().get("partial"))) {
+            return;
+        }
+        Entry entry = new Entry(shape, copy(result));
+        if (memory != null) {
+            memory.put(key, entry);
+        }
+        if (directory != null) {
+            writeToDisk(key, entry);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        if (memory != null) {
+            CacheStats memoryStats = memory.stats();
+            stats.put("hitCount", memoryStats.hitCount());
+            stats.put("missCount", memoryStats.missCount());
+            stats.put("hitRate", memoryStats.hitRate());
+            stats.put("evictionCount", memoryStats.evictionCount());
+            stats.put("entries", memory.size());
+            stats.put("weightBytes", memory.asMap().values().stream().mapToLong(TileResultCache::weight).sum());
+            stats.put("maxBytes", maxBytes);
+        }
+        if (directory != null) {
+            stats.put("diskHitCount", diskHits.get());
+            stats.put("diskEvictionCount", diskEvictions.get());
+            stats.put("diskBytes", diskBytes.get());
+            stats.put("maxDiskBytes", maxDiskBytes);
+        }
+        return stats;
+    }
+
+    /**
+     * Hash of the job parameters that change the output and of the shape with each ring
+     * normalized: closing point dropped, outer rings counter-clockwise and holes
+     * clockwise, starting at the smallest vertex, with holes and polygons sorted. The
+     * parallel flag and the deadline aren't part of the key because they don't change
+     * the tiles of a complete result, and partial results aren't cached.
+     */
+    public String key(Shape shape, TilingJob job) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeDouble(job.getMaxTileArea());
+            out.writeDouble(job.getMinTileArea());
+            out.writeDouble(job.getCoverageThreshold());
+            out.writeBoolean(job.isIncludeBoundingBox());
+            out.writeUTF(job.getAlgorithm().name());
+            out.writeUTF(job.getCoverageMode().name());
+            out.writeUTF(job.getGrid().name());
+            out.writeBoolean(job.isCompact());
+            out.writeBoolean(job.isSimplify());
+            out.writeInt(job.getMaxTiles());
+
+            List<List<double[]>> polygons = new ArrayList<>();
+            for (PolygonShape polygon : ShapeRings.polygonsOf(shape)) {
+                List<double[]> rings = new ArrayList<>();
+                rings.add(normalizedRing(polygon.getOuterRing(), true));
+                List<double[]> holes = new ArrayList<>();
+                for (PackedRing hole : polygon.getHoleRings()) {
+                    holes.add(normalizedRing(hole, false));
+                }
+                holes.sort(Arrays::compare);
+                rings.addAll(holes);
+                polygons.add(rings);
+            }
+            polygons.sort((a, b) -> Arrays.compare(a.get(0), b.get(0)));
+
+            out.writeInt(polygons.size());
+            for (List<double[]> rings : polygons) {
+                out.writeInt(rings.size());
+                for (double[] ring : rings) {
+                    out.writeInt(ring.length);
+                    for (double value : ring) {
+                        // 0.0 and -0.0 are the same coordinate
+                        out.writeDouble(value + 0.0);
+                    }
+                }
+            }
+            out.flush();
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray()));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash tiling request", e);
+        }
+    }
+
+    private static double[] normalizedRing(PackedRing ring, boolean counterClockwise) {
+        int count = ring.size();
+        if (count > 1 && ring.getLongitude(0) == ring.getLongitude(count - 1)
+                && ring.getLatitude(0) == ring.getLatitude(count - 1)) {
+            count--;
+        }
+        double[] coordinates = Arrays.copyOf(ring.getCoordinates(), 2 * count);
+
+        boolean reverse = (RectangleClipper.signedRingArea(coordinates) > 0) != counterClockwise;
+        int start = 0;
+        for (int i = 1; i < count; i++) {
+            if (coordinates[2 * i] < coordinates[2 * start]
+                    || (coordinates[2 * i] == coordinates[2 * start] && coordinates[2 * i + 1] < coordinates[2 * start + 1])) {
+                start = i;
+            }
+        }
+
+        double[] normalized = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            int source = reverse ? (start - i + count) % count : (start + i) % count;
+            normalized[2 * i] = coordinates[2 * source];
+            normalized[2 * i + 1] = coordinates[2 * source + 1];
+        }
+        return normalized;
+    }
+
+    private static int weight(Entry entry) {
+        long vertices = ShapeRings.polygonsOf(entry.getShape()).stream()
+                .mapToLong(polygon -> polygon.getOuterBoundary().size()
+                        + polygon.getHoles().stream().mapToLong(List::size).sum())
+                .sum();
+        long bytes = ENTRY_OVERHEAD + (long) Long.BYTES * entry.getResult().getTileSet().size() + 2L * Double.BYTES * vertices;
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static TilingResult copy(TilingResult result) {
+        TilingResult copy = new TilingResult(result.getFirst(), result.getTileSet());
+        result.getMetadata().forEach(copy::withMetadata);
+        return copy;
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + FILE_SUFFIX);
+    }
+
+    private Stream<Path> cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> list = files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX)).toList();
+            return list.stream();
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        Path file = fileFor(key);
+        // Only reached on a miss, so an existing file is outdated or unreadable
+        long replacedSize = sizeOf(file);
+        TilingResult result = entry.getResult();
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FILE_VERSION);
+                writeShape(out, entry.getShape());
+                writeBox(out, result.getFirst() != null ? result.getFirst().getBoundingBox() : null);
+                QuadkeyTileSet tileSet = result.getTileSet();
+                writeBox(out, tileSet.getRoot());
+                out.writeUTF(objectMapper.writeValueAsString(result.getMetadata()));
+                out.writeInt(tileSet.size());
+                for (int i = 0; i < tileSet.size(); i++) {
+                    out.writeLong(tileSet.getCode(i));
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            diskBytes.addAndGet(sizeOf(file) - replacedSize);
+            evictFromDisk();
+        } catch (IOException e) {
+            log.warn("Could not write tile cache file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION) {
+                return null;
+            }
+            Shape shape = readShape(in);
+            BoundingBox firstBox = readBox(in);
+            BoundingBox root = readBox(in);
+            Map<String, Object> metadata = objectMapper.readValue(in.readUTF(), new TypeReference<>() { });
+            long[] codes = new long[in.readInt()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = in.readLong();
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+
+            Tile first = firstBox != null ? new RectangleTile(firstBox) : null;
+            TilingResult result = new TilingResult(first, QuadkeyTileSet.of(root, codes));
+            metadata.forEach(result::withMetadata);
+            return new Entry(shape, result);
+        } catch (IOException e) {
+            log.warn("Could not read tile cache file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized void evictFromDisk() throws IOException {
+        if (diskBytes.get() <= maxDiskBytes) {
+            return;
+        }
+        List<Path> files = new ArrayList<>(cacheFiles().toList());
+        files.sort(Comparator.comparing(TileResultCache::lastModified));
+        for (Path file : files) {
+            if (diskBytes.get() <= maxDiskBytes) {
+                break;
+            }
+            long size = sizeOf(file);
+            if (Files.deleteIfExists(file)) {
+                diskBytes.addAndGet(-size);
+                diskEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void writeShape(DataOutputStream out, Shape shape) throws IOException {
+        List<PolygonShape> polygons = ShapeRings.polygonsOf(shape);
+        out.writeBoolean(shape instanceof MultiPolygonShape);
+        out.writeInt(polygons.size());
+        for (PolygonShape polygon : polygons) {
+            out.writeInt(1 + polygon.getHoles().size());
+            writeRing(out, polygon.getOuterRing());
+            for (PackedRing hole : polygon.getHoleRings()) {
+                writeRing(out, hole);
+            }
+        }
+    }
+
+    private static void writeRing(DataOutputStream out, PackedRing ring) throws IOException {
+        out.writeInt(ring.size());
+        for (int i = 0; i < ring.size(); i++) {
+            out.writeDouble(ring.getLatitude(i));
+            out.writeDouble(ring.getLongitude(i));
+        }
+    }
+
+    private static Shape readShape(DataInputStream in) throws IOException {
+        boolean multi = in.readBoolean();
+        List<PolygonShape> polygons = new ArrayList<>();
+        for (int polygon = in.readInt(); polygon > 0; polygon--) {
+            int rings = in.readInt();
+            PackedRing outer = readRing(in);
+            List<PackedRing> holes = new ArrayList<>();
+            for (int hole = 1; hole < rings; hole++) {
+                holes.add(readRing(in));
+            }
+            polygons.add(new PolygonShape(outer, holes));
+        }
+        return multi ? new MultiPolygonShape(polygons) : polygons.get(0);
+    }
+
+    private static PackedRing readRing(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        double[] coordinates = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            coordinates[2 * i + 1] = in.readDouble();
+            coordinates[2 * i] = in.readDouble();
+        }
+        return PackedRing.wrap(coordinates, count);
+    }
+
+    private static void writeBox(DataOutputStream out, BoundingBox box) throws IOException {
+        out.writeBoolean(box != null);
+        if (box != null) {
+            out.writeDouble(box.getSouthWest().getLatitude());
+            out.writeDouble(box.getSouthWest().getLongitude());
+            out.writeDouble(box.getNorthEast().getLatitude());
+            out.writeDouble(box.getNorthEast().getLongitude());
+        }
+    }
+
+    private static BoundingBox readBox(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new BoundingBox(new Point(in.readDouble(), in.readDouble()), new Point(in.readDouble(), in.readDouble()));
+    }
+
+    /**
+     * A cached result together with the shape it was computed for.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+        private final Shape shape;
+        private final TilingResult result;
+    }
+}
@@ -1,24 +1,39 @@
 package com.example.tilingservice.service;
 
 import com.example.tilingservice.geojson.Parser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
 import com.example.tilingservice.model.Shape;
 import com.example.tilingservice.rtree.RTree;
 import com.example.tilingservice.rtree.RTreeSerializer;
+import com.example.tilingservice.tile.Quadkey;
+import com.example.tilingservice.tile.QuadkeyTileSet;
 import com.example.tilingservice.tile.Tile;
 import com.example.tilingservice.tile.TileFactory;
+import com.example.tilingservice.tile.WebMercatorTile;
 import com.example.tilingservice.utils.GeometryUtils;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.IntersectionMatrix;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -27,14 +42,26 @@ public class TileService {
     private final Parser geoJsonParser;
     private RTree rtree;
     private final RTreeSerializer rtreeSerializer;
+    private final GeometryFactory geometryFactory;
+    private final TileResultCache resultCache;
 
-    @Autowired
-    private GeometryFactory geometryFactory;
+    @Value("${tiling.max-recursion-depth:15}")
+    private int maxRecursionDepth = TilingContext.DEFAULT_MAX_DEPTH;
 
-    private double maxTileArea;
-    private double minTileArea;
-    private double coverageThreshold;
-    private boolean includeBoundingBox;
+    @Value("${tiling.parallel.max-fork-depth:6}")
+    private int maxForkDepth = 6;
+
+    private final ForkJoinPool tilingPool = new ForkJoinPool(
+        Runtime.getRuntime().availableProcessors(),
+        pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("tiling-worker-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        },
+        null,
+        false
+    );
 
     @PostConstruct
     public void init() {
@@ -49,88 +76,486 @@ public class TileService {
 
     public List<Tile> generateTiles(String geoJson, double maxTileArea, double minTileArea, 
                                   double coverageThreshold, boolean includeBoundingBox) {
-        this.maxTileArea = maxTileArea;
-        this.minTileArea = minTileArea;
-        this.coverageThreshold = coverageThreshold;
-        this.includeBoundingBox = includeBoundingBox;
-        
-        log.info("Generating tiles with parameters: maxTileArea={}, minTileArea={}, coverageThreshold={}, includeBoundingBox={}",
-                maxTileArea, minTileArea, coverageThreshold, includeBoundingBox);
-
-        Shape shape = geoJsonParser.parse(geoJson);
-        List<Tile> tiles = new ArrayList<>();
+        return generateTiles(geoJson, TilingJob.builder()
+                .maxTileArea(maxTileArea)
+                .minTileArea(minTileArea)
+                .coverageThreshold(coverageThreshold)
+                .includeBoundingBox(includeBoundingBox)
+                .build());
+    }
+
+    public List<Tile> generateTiles(String geoJson, TilingJob job) {
+        return generateTiling(geoJson, job).getTiles();
+    }
+
+    public TilingResult generateTiling(String geoJson, TilingJob job) {
+        log.info("Generating tiles with parameters: {}", job);
+        return generateTiling(geoJsonParser.parse(geoJson), job);
+    }
+
+    /**
+     * Tiles are collected as quadkeys, eight bytes each, and only turned back into tile
+     * objects when the result is read. Results are served from the cache when the same
+     * shape was tiled with the same parameters before, and when the job names an earlier
+     * result, only the tiles around the edit are recomputed.
+     */
+    public TilingResult generateTiling(Shape shape, TilingJob job) {
+        String key = resultCache.isEnabled() ? resultCache.key(shape, job) : null;
+        if (key != null) {
+            TilingResult cached = resultCache.get(key);
+            if (cached != null) {
+                log.info("Serving {} cached tiles", cached.getTiles().size());
+                return cached;
+            }
+        }
+
+        TilingStream stream = createStream(shape, job, previousEntry(job));
+        if (key != null) {
+            stream.withMetadata("resultId", key);
+        }
+        TilingResult result = collect(shape, job, stream);
+        if (key != null) {
+            resultCache.put(key, shape, result);
+        }
+        return result;
+    }
+
+    /**
+     * Tiles without hashing the shape for the result cache or adding the result to it,
+     * for one-off inputs that would only evict the entries of interactive requests.
+     */
+    TilingResult generateTilingUncached(Shape shape, TilingJob job) {
+        return collect(shape, job, createStream(shape, job, null));
+    }
+
+    private TilingResult collect(Shape shape, TilingJob job, TilingStream stream) {
+        Iterator<Tile> tiles = stream.iterator();
+        Tile first = job.isIncludeBoundingBox() && tiles.hasNext() ? tiles.next() : null;
+
+        QuadkeyTileSet.Builder tileSet = QuadkeyTileSet.builder(gridRoot(shape, job));
+        List<Tile> unencoded = null;
+        while (tiles.hasNext()) {
+            Tile tile = tiles.next();
+            if (unencoded == null && tileSet.add(tile)) {
+                continue;
+            }
+            if (unencoded == null) {
+                log.debug("Tile {} is off the quadtree, keeping tile objects", tile);
+                unencoded = new ArrayList<>();
+                if (first != null) {
+                    unencoded.add(first);
+                }
+                unencoded.addAll(tileSet.build().asList());
+            }
+            unencoded.add(tile);
+        }
+
+        TilingResult result = unencoded != null
+                ? new TilingResult(unencoded)
+                : new TilingResult(first, tileSet.build());
+        log.info("Generated {} tiles", result.getTiles().size());
+        stream.getMetadata().forEach(result::withMetadata);
+        return result;
+    }
+
+    /**
+     * Tiles every feature of a FeatureCollection, spreading the features over the tiling
+     * pool. Each feature is tiled sequentially and, like in {@link #tileEach}, without
+     * the result cache, which a large collection would otherwise empty of interactive
+     * results.
+     *
+     * @param deduplicate hold tiles shared by several features once; only tiles of the
+     *                    Web Mercator grid, or with identical bounds, are shared
+     */
+    public BatchTilingResult generateBatch(String geoJson, TilingJob job, boolean deduplicate) {
+        return generateBatch(geoJsonParser.parseFeatures(geoJson), job, deduplicate);
+    }
+
+    public BatchTilingResult generateBatch(List<Feature> features, TilingJob job, boolean deduplicate) {
+        log.info("Generating tiles for {} features with parameters: {}", features.size(), job);
+        TilingJob featureJob = job.toBuilder().parallel(false).previousResultId(null).build();
+
+        List<TilingResult> tilings;
+        try {
+            tilings = tilingPool.submit(() -> features.parallelStream()
+                    .map(feature -> generateTilingUncached(feature.getShape(), featureJob))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch tiling was interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException("Batch tiling failed", e.getCause());
+        }
+
+        Map<String, TilingResult> results = new LinkedHashMap<>();
+        long tileCount = 0;
+        for (int i = 0; i < features.size(); i++) {
+            results.put(features.get(i).getId(), tilings.get(i));
+            tileCount += tilings.get(i).getTiles().size();
+        }
+
+        BatchTilingResult batch;
+        if (deduplicate) {
+            Map<Object, Integer> indexes = new HashMap<>();
+            List<Tile> sharedTiles = new ArrayList<>();
+            Map<String, int[]> tileIndexes = new LinkedHashMap<>();
+            results.forEach((id, result) -> tileIndexes.put(id, result.getTiles().stream()
+                    .mapToInt(tile -> indexes.computeIfAbsent(identity(tile), key -> {
+                        sharedTiles.add(tile);
+                        return sharedTiles.size() - 1;
+                    }))
+                    .toArray()));
+            batch = new BatchTilingResult(results, sharedTiles, tileIndexes);
+        } else {
+            batch = new BatchTilingResult(results, null, null);
+        }
+
+        batch.withMetadata("featureCount", features.size())
+             .withMetadata("tileCount", tileCount);
+        if (deduplicate) {
+            batch.withMetadata("uniqueTileCount", batch.getSharedTiles().size());
+        }
+        log.info("Generated {} tiles for {} features", tileCount, features.size());
+        return batch;
+    }
+
+    /**
+     * Receives the results of {@link #tileEach}.
+     */
+    @FunctionalInterface
+    public interface FeatureResultSink {
+        void accept(Feature feature, TilingResult result) throws IOException;
+    }
+
+    /**
+     * Tiles features as the iterator yields them, for inputs too large to hold as a list.
+     * Features are tiled on the tiling pool while the next ones are read, and handed to
+     * the sink in input order. At most two per pool thread are held at a time, so memory
+     * doesn't grow with the input. Results bypass the result cache: a bulk input would
+     * otherwise push every interactive result out of it.
+     *
+     * @return number of features tiled
+     */
+    public long tileEach(Iterator<Feature> features, TilingJob job, FeatureResultSink sink) throws IOException {
+        log.info("Tiling features one by one with parameters: {}", job);
+        TilingJob featureJob = job.toBuilder().parallel(false).previousResultId(null).build();
+        int window = 2 * tilingPool.getParallelism();
+        ArrayDeque<Feature> pendingFeatures = new ArrayDeque<>();
+        ArrayDeque<Future<TilingResult>> pendingResults = new ArrayDeque<>();
+        long count = 0;
+        RuntimeException readError = null;
+        try {
+            while (true) {
+                boolean more = false;
+                if (readError == null) {
+                    try {
+                        more = features.hasNext();
+                    } catch (RuntimeException e) {
+                        // Features read before the bad one are still delivered
+                        readError = e;
+                    }
+                }
+                if (more && pendingResults.size() < window) {
+                    Feature feature = features.next();
+                    pendingFeatures.add(feature);
+                    pendingResults.add(tilingPool.submit(() -> generateTilingUncached(feature.getShape(), featureJob)));
+                } else if (!pendingResults.isEmpty()) {
+                    sink.accept(pendingFeatures.poll(), pendingResults.poll().get());
+                    count++;
+                } else {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Feature tiling was interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException("Feature tiling failed", e.getCause());
+        } finally {
+            pendingResults.forEach(result -> result.cancel(false));
+        }
+        if (readError != null) {
+            throw readError;
+        }
+        return count;
+    }
+
+    /**
+     * Grid tiles are equal by address, other tiles by bounds.
+     */
+    private static Object identity(Tile tile) {
+        return tile instanceof WebMercatorTile ? tile : tile.getBoundingBox();
+    }
+
+    public TilingStream streamTiling(String geoJson, TilingJob job) {
+        log.info("Streaming tiles with parameters: {}", job);
+        return streamTiling(geoJsonParser.parse(geoJson), job);
+    }
 
-        if (includeBoundingBox) {
-            Tile boundingBoxTile = TileFactory.createInitialTile(shape.getBoundingBox());
-            tiles.add(boundingBoxTile);
+    /**
+     * Tiles are produced as the stream is consumed, in the same order
+     * {@link #generateTiling} returns them. Parallel quadtree jobs are the exception:
+     * the fork/join pool computes them up front and the stream replays the result.
+     * Cached results are replayed, and a fully consumed stream is added to the cache.
+     */
+    public TilingStream streamTiling(Shape shape, TilingJob job) {
+        if (!resultCache.isEnabled()) {
+            return createStream(shape, job, null);
+        }
+        String key = resultCache.key(shape, job);
+        TilingResult cached = resultCache.get(key);
+        if (cached != null) {
+            log.info("Replaying {} cached tiles", cached.getTiles().size());
+            return TilingStream.replay(cached);
         }
+        return createStream(shape, job, previousEntry(job))
+                .withMetadata("resultId", key)
+                .recordTo(gridRoot(shape, job), resultCache.maxCachedTiles(), result -> resultCache.put(key, shape, result));
+    }
+
+    /**
+     * The earlier result the job names, if it is still cached and was computed with the
+     * same parameters.
+     */
+    private TileResultCache.Entry previousEntry(TilingJob job) {
+        String previousId = job.getPreviousResultId();
+        if (previousId == null || !resultCache.isEnabled()) {
+            return null;
+        }
+        TileResultCache.Entry previous = resultCache.getEntry(previousId);
+        if (previous == null) {
+            log.info("Previous result {} is no longer cached, tiling from scratch", previousId);
+            return null;
+        }
+        if (!resultCache.key(previous.getShape(), job).equals(previousId)) {
+            log.info("Previous result {} was computed with other parameters, tiling from scratch", previousId);
+            return null;
+        }
+        return previous;
+    }
+
+    /**
+     * @param previous earlier result to reuse tiles from, or {@code null}
+     */
+    private TilingStream createStream(Shape shape, TilingJob job, TileResultCache.Entry previous) {
+        long startNanos = System.nanoTime();
+        ShapeSimplifier.Result simplification = null;
+        if (job.isSimplify()) {
+            if (job.getGrid() == TileGrid.WEB_MERCATOR) {
+                throw new IllegalArgumentException("Simplification only supports the bounding-box grid");
+            }
+            simplification = ShapeSimplifier.simplify(shape, job, geometryFactory, maxRecursionDepth);
+            log.info("Simplified {} vertices to {}", simplification.getVerticesBefore(),
+                    simplification.getVerticesAfter());
+            shape = simplification.getShape();
+        }
+        TilingContext context = new TilingContext(job, shape, geometryFactory, job.isParallel() ? tilingPool : null,
+                maxRecursionDepth);
 
         Tile initialTile = TileFactory.createInitialTile(shape.getBoundingBox());
         double initialAreaInMeters = GeometryUtils.calculateAreaInMeters(initialTile.getBoundingBox());
         log.info("Initial area in square meters: {}", initialAreaInMeters);
 
-        if (initialAreaInMeters > maxTileArea) {
-            List<Tile> initialTiles = new ArrayList<>(initialTile.subdivide());
-            for (Tile subtile : initialTiles) {
-                processTile(subtile, shape, tiles, 1);
+        List<Tile> initialTiles = new ArrayList<>();
+        int initialDepth;
+        if (job.getGrid() == TileGrid.WEB_MERCATOR) {
+            if (job.getAlgorithm() == TilingAlgorithm.BOUNDARY_WALK) {
+                throw new IllegalArgumentException("The boundary-walk algorithm only supports the bounding-box grid");
+            }
+            int zoom = WebMercatorTile.coveringZoom(shape.getBoundingBox());
+            initialTiles.addAll(WebMercatorTile.covering(shape.getBoundingBox(), zoom));
+            initialDepth = zoom - context.getLevelOffset();
+        } else if (initialAreaInMeters > job.getMaxTileArea()) {
+            initialTiles.addAll(initialTile.subdivide());
+            initialDepth = 1;
+        } else {
+            initialTiles.add(initialTile);
+            initialDepth = 0;
+        }
+
+        Iterator<Tile> tiles;
+        BoundaryWalker walker = null;
+        ProgressiveTiler progressive = null;
+        IncrementalTileIterator incremental = previous != null && !job.isProgressive()
+                ? incremental(previous, shape, job, context, initialTiles, initialDepth)
+                : null;
+        if (job.isProgressive()) {
+            if (job.getAlgorithm() == TilingAlgorithm.BOUNDARY_WALK) {
+                throw new IllegalArgumentException("Deadlines and tile budgets need the quadtree or clip-descend algorithm");
             }
+            long deadline = job.getDeadlineMillis() > 0
+                    ? startNanos + TimeUnit.MILLISECONDS.toNanos(job.getDeadlineMillis())
+                    : Long.MAX_VALUE;
+            progressive = new ProgressiveTiler(this, context, gridRoot(shape, job), deadline, job.getMaxTiles());
+            tiles = progressive.run(initialTiles, initialDepth).iterator();
+        } else if (incremental != null) {
+            tiles = incremental;
+        } else if (job.getAlgorithm() == TilingAlgorithm.BOUNDARY_WALK) {
+            // The walker decides for itself whether the root needs splitting
+            walker = new BoundaryWalker(context, geometryFactory);
+            tiles = walker.iterator(initialTile);
+        } else if (job.getAlgorithm() == TilingAlgorithm.CLIP_DESCEND) {
+            tiles = new ClipDescendTileIterator(this, context, geometryFactory, initialTiles, initialDepth);
+        } else if (job.isParallel()) {
+            tiles = processInParallel(initialTiles, context, initialDepth).iterator();
         } else {
-            processTile(initialTile, shape, tiles, 0);
+            tiles = new QuadtreeTileIterator(this, context, initialTiles, initialDepth);
         }
 
-        log.info("Generated {} tiles", tiles.size());
+        TilingStream stream = new TilingStream(
+                job.isIncludeBoundingBox() ? TileFactory.createInitialTile(shape.getBoundingBox()) : null,
+                tiles,
+                job.isCompact() ? new TileCompactor(gridRoot(shape, job), job.getMaxTileArea()) : null)
+                .withMetadata("algorithm", job.getAlgorithm())
+                .withMetadata("coverageMode", job.getCoverageMode());
+        if (context.getRaster() != null) {
+            stream.withMetadata("rasterLevel", context.getRaster().getLevel())
+                  .withMetadata("coverageErrorBound", context.getRaster().getErrorBound());
+        }
+        if (walker != null) {
+            stream.withMetadata("leafLevel", walker.getLeafLevel())
+                  .withMetadata("boundaryCells", walker.getBoundaryCellCount());
+        }
+        if (simplification != null) {
+            stream.withMetadata("simplificationTolerance", simplification.getTolerance())
+                  .withMetadata("verticesBefore", simplification.getVerticesBefore())
+                  .withMetadata("verticesAfter", simplification.getVerticesAfter())
+                  .withMetadata("simplificationErrorBound", simplification.getErrorBound())
+                  .withMetadata("simplificationErrorLevel", simplification.getErrorLevel());
+        }
+        if (incremental != null) {
+            stream.withMetadata("reusedFrom", job.getPreviousResultId());
+        }
+        if (progressive != null) {
+            stream.withMetadata("partial", progressive.isPartial())
+                  .withMetadata("levelReached", progressive.getLevelReached());
+        }
+        return stream;
+    }
+
+    /**
+     * Walk reusing the earlier result's tiles away from the edit, or {@code null} when the
+     * earlier result can't be reused. Boundary-walk, raster and simplified runs depend on
+     * the whole shape, and both results must share the quadtree root and top tiles.
+     * Clip-descend decides coverage from pieces clipped down through each tile's ancestors,
+     * which the quadtree test used for the recomputed tiles doesn't reproduce exactly.
+     */
+    private IncrementalTileIterator incremental(TileResultCache.Entry previous, Shape shape, TilingJob job,
+                                                TilingContext context, List<Tile> initialTiles, int initialDepth) {
+        QuadkeyTileSet previousTiles = previous.getResult().getTileSet();
+        BoundingBox previousBox = previous.getShape().getBoundingBox();
+        BoundingBox box = shape.getBoundingBox();
+        if (job.getAlgorithm() != TilingAlgorithm.QUADTREE || job.getCoverageMode() == CoverageMode.RASTER
+                || job.isSimplify() || previousTiles == null) {
+            return null;
+        }
+        boolean sameRoot = job.getGrid() == TileGrid.WEB_MERCATOR
+                ? WebMercatorTile.coveringZoom(previousBox) == WebMercatorTile.coveringZoom(box)
+                : previousBox.equals(box);
+        if (!sameRoot) {
+            log.info("Edit moved the quadtree root, tiling from scratch");
+            return null;
+        }
+
+        return new IncrementalTileIterator(this, context, geometryFactory, gridRoot(shape, job), previousTiles,
+                previous.getShape(), previousBox.equals(box) ? List.of() : List.of(previousBox, box),
+                initialTiles, initialDepth);
+    }
+
+    /**
+     * Root of the quadtree for {@link Quadkey} addressing, {@code null} for the Web Mercator grid.
+     */
+    private static BoundingBox gridRoot(Shape shape, TilingJob job) {
+        return job.getGrid() == TileGrid.WEB_MERCATOR ? null : shape.getBoundingBox();
+    }
+
+    private List<Tile> processInParallel(List<Tile> initialTiles, TilingContext context, int initialDepth) {
+        List<QuadtreeTileTask> tasks = new ArrayList<>();
+        for (Tile tile : initialTiles) {
+            QuadtreeTileTask task = new QuadtreeTileTask(this, context, tile, initialDepth, maxForkDepth);
+            tasks.add(task);
+            tilingPool.execute(task);
+        }
+        List<Tile> tiles = new ArrayList<>();
+        for (QuadtreeTileTask task : tasks) {
+            tiles.addAll(task.join());
+        }
         return tiles;
     }
 
-    private void processTile(Tile tile, Shape shape, List<Tile> results, int depth) {
-        double tileAreaInMeters = GeometryUtils.calculateAreaInMeters(tile.getBoundingBox());
+    void processTile(Tile tile, TilingContext context, List<Tile> results, int depth) {
+        new QuadtreeTileIterator(this, context, List.of(tile), depth).forEachRemaining(results::add);
+    }
+
+    TileDecision evaluate(Tile tile, TilingContext context, int depth) {
+        TilingJob job = context.getJob();
+        double tileAreaInMeters = context.areaInMeters(tile);
         log.debug("Processing tile at depth {} with area {} sq meters", depth, tileAreaInMeters);
 
-        if (!tile.getBoundingBox().intersects(shape.getBoundingBox())) {
-            return;
+        if (!context.intersectsBoundingBox(tile.getBoundingBox())) {
+            return TileDecision.SKIP;
         }
 
         try {
             Geometry tileGeometry = tile.toJtsPolygon(geometryFactory);
-            Geometry shapeGeometry = shape.toJtsGeometry(geometryFactory);
-            IntersectionMatrix matrix = tileGeometry.relate(shapeGeometry);
 
-            if (matrix.isDisjoint()) {
-                return;
+            if (context.isDisjoint(tileGeometry)) {
+                return TileDecision.SKIP;
             }
 
-            Geometry intersection = tileGeometry.intersection(shapeGeometry);
-            double intersectionArea = intersection.getArea();
-            double tileArea = tileGeometry.getArea();
-            double coverageRatio = intersectionArea / tileArea;
+            if (tileAreaInMeters > job.getMaxTileArea() && depth < context.getMaxDepth()) {
+                return TileDecision.SUBDIVIDE;
+            }
 
+            // Coverage is only needed below the max tile size, so the overlay is skipped above it
+            double coverageRatio = context.coverageRatio(tile, tileGeometry);
             log.debug("Tile coverage ratio: {}", coverageRatio);
 
-            if (tileAreaInMeters > maxTileArea && depth < 15) {
-                for (Tile subtile : tile.subdivide()) {
-                    processTile(subtile, shape, results, depth + 1);
-                }
-            } else if (depth >= 15 || tileAreaInMeters <= minTileArea) {
-                if (coverageRatio >= coverageThreshold) {
-                    results.add(tile);
-                }
-            } else if (matrix.isContains() || coverageRatio > 0.95) {
-                results.add(tile);
-            } else {
-                for (Tile subtile : tile.subdivide()) {
-                    processTile(subtile, shape, results, depth + 1);
-                }
-            }
+            return decide(tile, context, depth, tileAreaInMeters, coverageRatio);
 
         } catch (Exception e) {
             log.warn("Error processing tile intersection: {}", e.getMessage());
-            if (tileAreaInMeters > maxTileArea && depth < 15) {
-                for (Tile subtile : tile.subdivide()) {
-                    processTile(subtile, shape, results, depth + 1);
-                }
-            } else if (tileAreaInMeters <= maxTileArea) {
-                results.add(tile);
+            return fallbackDecision(context, depth, tileAreaInMeters);
+        }
+    }
+
+    /**
+     * Decision for a tile that intersects the shape and is already at or below the max tile size.
+     */
+    TileDecision decide(Tile tile, TilingContext context, int depth, double tileAreaInMeters,
+                        double coverageRatio) {
+        TilingJob job = context.getJob();
+        if (depth >= context.getMaxDepth() || tileAreaInMeters <= job.getMinTileArea()) {
+            return coverageRatio >= job.getCoverageThreshold() ? TileDecision.EMIT : TileDecision.SKIP;
+        } else if (context.isContainedBy(tile) || coverageRatio > 0.95) {
+            return TileDecision.EMIT;
+        } else {
+            return TileDecision.SUBDIVIDE;
+        }
+    }
+
+    TileDecision fallbackDecision(TilingContext context, int depth, double tileAreaInMeters) {
+        TilingJob job = context.getJob();
+        if (tileAreaInMeters > job.getMaxTileArea() && depth < context.getMaxDepth()) {
+            return TileDecision.SUBDIVIDE;
+        } else if (tileAreaInMeters <= job.getMaxTileArea()) {
+            return TileDecision.EMIT;
+        }
+        return TileDecision.SKIP;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tilingPool.shutdown();
+        try {
+            if (!tilingPool.awaitTermination(60, TimeUnit.SECONDS)) {
+                tilingPool.shutdownNow();
             }
+        } catch (InterruptedException e) {
+            tilingPool.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
 
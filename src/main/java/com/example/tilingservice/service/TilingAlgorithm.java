@@ -0,0 +1,20 @@
+package com.example.tilingservice.service;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Strategy used to walk the quadtree for a job.
+ */
+public enum TilingAlgorithm {
+    /** Every tile is tested against the whole prepared shape. */
+    QUADTREE,
+    /** Every tile clips the geometry it received to its own rectangle and hands that piece to its children. */
+    CLIP_DESCEND,
+    /** Only tiles along the shape's edges are refined; interior blocks are filled from a scanline pass. */
+    BOUNDARY_WALK;
+
+    @JsonCreator
+    public static TilingAlgorithm fromValue(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.MutableBox;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.tile.WebMercatorTile;
+import com.example.tilingservice.utils.GeometryUtils;
+import com.example.tilingservice.utils.RectangleClipper;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Per-request view of the shape being tiled. The JTS geometry is built once and
+ * wrapped in a {@link PreparedGeometry}, so every tile predicate reuses the same
+ * point locator and segment index instead of rebuilding the shape per tile.
+ */
+@Slf4j
+@Getter
+public class TilingContext {
+    // Slack allowed on a clipped coverage ratio before it is considered wrong
+    private static final double CLIP_TOLERANCE = 1e-9;
+    static final int DEFAULT_MAX_DEPTH = 15;
+
+    private final TilingJob job;
+    private final Shape shape;
+    private final Geometry geometry;
+    private final PreparedGeometry preparedGeometry;
+    private final ShapeRings rings;
+    private final CoverageRaster raster;
+    @Getter(AccessLevel.NONE)
+    private final MutableBox shapeBounds;
+    private final ThreadLocal<RectangleClipper> clipper = ThreadLocal.withInitial(RectangleClipper::new);
+    @Getter(AccessLevel.NONE)
+    private final TileAreaTable areaTable;
+    /** Depth below which tiles are no longer subdivided. */
+    private final int maxDepth;
+    /** Quadtree level of depth 0; Web Mercator walks start deeper than zoom 0. */
+    private final int levelOffset;
+
+    public TilingContext(TilingJob job, Shape shape, GeometryFactory geometryFactory) {
+        this(job, shape, geometryFactory, null);
+    }
+
+    public TilingContext(TilingJob job, Shape shape, GeometryFactory geometryFactory, ForkJoinPool pool) {
+        this(job, shape, geometryFactory, pool, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * When a pool is given, MultiPolygon members are converted to JTS as independent
+     * tasks. Members are collected in their original order, so the resulting geometry
+     * is the same as the sequential conversion.
+     */
+    public TilingContext(TilingJob job, Shape shape, GeometryFactory geometryFactory, ForkJoinPool pool,
+                         int maxRecursionDepth) {
+        this.job = job;
+        this.shape = shape;
+        this.shapeBounds = new MutableBox(shape.getBoundingBox());
+        this.geometry = pool != null && shape instanceof MultiPolygonShape
+                ? toJtsGeometryParallel((MultiPolygonShape) shape, geometryFactory, pool)
+                : shape.toJtsGeometry(geometryFactory);
+        this.preparedGeometry = PreparedGeometryFactory.prepare(geometry);
+        this.rings = job.getCoverageMode() != CoverageMode.JTS ? new ShapeRings(shape) : null;
+        this.raster = job.getCoverageMode() == CoverageMode.RASTER
+                ? new CoverageRaster(rings, shape.getBoundingBox(), rasterLevel(job, shape))
+                : null;
+
+        if (job.getGrid() == TileGrid.WEB_MERCATOR) {
+            int zoom = WebMercatorTile.coveringZoom(shape.getBoundingBox());
+            List<WebMercatorTile> tiles = WebMercatorTile.covering(shape.getBoundingBox(), zoom);
+            int firstRow = tiles.stream().mapToInt(WebMercatorTile::getY).min().orElse(0);
+            int lastRow = tiles.stream().mapToInt(WebMercatorTile::getY).max().orElse(0);
+            this.areaTable = TileAreaTable.forWebMercator(zoom, firstRow, lastRow - firstRow + 1);
+            // Starting deeper in the depth budget keeps the finest zoom addressable
+            this.levelOffset = zoom - Math.max(0, zoom + maxRecursionDepth - WebMercatorTile.MAX_ZOOM);
+        } else {
+            this.areaTable = TileAreaTable.forRoot(shape.getBoundingBox());
+            this.levelOffset = 0;
+        }
+        // Tiles at or below both area limits are never subdivided, whatever the depth limit
+        double leafArea = Math.min(job.getMinTileArea(), job.getMaxTileArea());
+        this.maxDepth = Math.min(maxRecursionDepth, areaTable.levelBelow(leafArea) - levelOffset);
+    }
+
+    /**
+     * Area of a tile of this job's grid, same as {@link GeometryUtils#calculateAreaInMeters}.
+     */
+    public double areaInMeters(Tile tile) {
+        return areaTable.areaInMeters(tile);
+    }
+
+    /**
+     * Depth at which quadtree tiles of the shape's bounding box reach {@code minTileArea},
+     * plus one level of headroom for the latitude dependence of tile areas.
+     */
+    static int rasterLevel(TilingJob job, Shape shape) {
+        double rootArea = GeometryUtils.calculateAreaInMeters(shape.getBoundingBox());
+        if (job.getMinTileArea() <= 0) {
+            return CoverageRaster.MAX_LEVEL;
+        } else if (rootArea <= job.getMinTileArea()) {
+            return 1;
+        }
+        int leafDepth = (int) Math.ceil(Math.log(rootArea / job.getMinTileArea()) / Math.log(4));
+        return Math.min(CoverageRaster.MAX_LEVEL, leafDepth + 1);
+    }
+
+    private static Geometry toJtsGeometryParallel(MultiPolygonShape shape, GeometryFactory geometryFactory,
+                                                  ForkJoinPool pool) {
+        Polygon[] polygons = pool.submit(() -> shape.getPolygons().parallelStream()
+                .map(polygon -> polygon.toJtsGeometry(geometryFactory))
+                .filter(Polygon.class::isInstance)
+                .map(Polygon.class::cast)
+                .toArray(Polygon[]::new)).join();
+        return geometryFactory.createMultiPolygon(polygons);
+    }
+
+    public BoundingBox getBoundingBox() {
+        return shape.getBoundingBox();
+    }
+
+    /**
+     * Whether a tile's box touches the shape's bounding box, the cheap test before any geometry.
+     */
+    public boolean intersectsBoundingBox(BoundingBox tileBox) {
+        return shapeBounds.intersects(tileBox);
+    }
+
+    public boolean isDisjoint(Geometry tileGeometry) {
+        return !preparedGeometry.intersects(tileGeometry);
+    }
+
+    /**
+     * A rectangular tile contains the shape exactly when it contains the shape's
+     * bounding box, so this never needs to touch the geometry.
+     */
+    public boolean isContainedBy(Tile tile) {
+        BoundingBox tileBox = tile.getBoundingBox();
+        return tileBox.getSouthWest().getLatitude() <= shapeBounds.getMinLatitude() &&
+               tileBox.getSouthWest().getLongitude() <= shapeBounds.getMinLongitude() &&
+               tileBox.getNorthEast().getLatitude() >= shapeBounds.getMaxLatitude() &&
+               tileBox.getNorthEast().getLongitude() >= shapeBounds.getMaxLongitude();
+    }
+
+    public double coverageRatio(Tile tile, Geometry tileGeometry) {
+        if (rings != null) {
+            BoundingBox box = tile.getBoundingBox();
+            double minX = box.getSouthWest().getLongitude();
+            double minY = box.getSouthWest().getLatitude();
+            double maxX = box.getNorthEast().getLongitude();
+            double maxY = box.getNorthEast().getLatitude();
+            if (raster != null) {
+                double ratio = raster.coverageRatio(minX, minY, maxX, maxY);
+                if (!Double.isNaN(ratio)) {
+                    return ratio;
+                }
+            }
+            double ratio = rings.coveredArea(clipper.get(), minX, minY, maxX, maxY) / ((maxX - minX) * (maxY - minY));
+            if (ratio >= -CLIP_TOLERANCE && ratio <= 1 + CLIP_TOLERANCE) {
+                return Math.max(0, Math.min(1, ratio));
+            }
+            // Overlapping members or misplaced holes break the ring arithmetic; JTS handles those
+            log.debug("Clipped coverage ratio {} out of range, falling back to JTS", ratio);
+        }
+        return jtsCoverageRatio(tileGeometry);
+    }
+
+    public double jtsCoverageRatio(Geometry tileGeometry) {
+        if (preparedGeometry.covers(tileGeometry)) {
+            return 1.0;
+        }
+        Geometry intersection = tileGeometry.intersection(nearbyGeometry(tileGeometry.getEnvelopeInternal()));
+        return intersection.getArea() / tileGeometry.getArea();
+    }
+
+    /**
+     * The members of a MultiPolygon whose boxes touch the envelope, which is all the
+     * overlay with a tile needs, or the whole geometry otherwise.
+     */
+    private Geometry nearbyGeometry(Envelope envelope) {
+        if (!(shape instanceof MultiPolygonShape) || geometry.getNumGeometries() != ((MultiPolygonShape) shape).getPolygons().size()) {
+            return geometry;
+        }
+        int[] members = ((MultiPolygonShape) shape).membersIntersecting(
+                envelope.getMinX(), envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY());
+        if (members.length == geometry.getNumGeometries()) {
+            return geometry;
+        } else if (members.length == 1) {
+            return geometry.getGeometryN(members[0]);
+        }
+        Polygon[] polygons = new Polygon[members.length];
+        for (int i = 0; i < members.length; i++) {
+            polygons[i] = (Polygon) geometry.getGeometryN(members[i]);
+        }
+        return geometry.getFactory().createMultiPolygon(polygons);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.tilingservice.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable parameters of a single tiling request. Every request gets its own job,
+ * so concurrent requests never share tiling state inside {@link TileService}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class TilingJob {
+    @Builder.Default
+    double maxTileArea = 1000.0;
+
+    @Builder.Default
+    double minTileArea = 10.0;
+
+    @Builder.Default
+    double coverageThreshold = 0.10;
+
+    @Builder.Default
+    boolean includeBoundingBox = true;
+
+    /** Only used by {@link TilingAlgorithm#QUADTREE}; the other algorithms always run sequentially. */
+    boolean parallel;
+
+    @Builder.Default
+    TilingAlgorithm algorithm = TilingAlgorithm.QUADTREE;
+
+    @Builder.Default
+    CoverageMode coverageMode = CoverageMode.CLIP;
+
+    @Builder.Default
+    TileGrid grid = TileGrid.BOUNDING_BOX;
+
+    /** Merge complete sibling groups into their parent; see {@link TileCompactor}. */
+    boolean compact;
+
+    /** Drop vertices finer than the smallest tiles before tiling; see {@link ShapeSimplifier}. */
+    boolean simplify;
+
+    /**
+     * {@code resultId} of an earlier run over a slightly different shape. Tiles away from
+     * the edit are then taken from that result instead of being recomputed.
+     */
+    String previousResultId;
+
+    /**
+     * Milliseconds the tiling may take, or 0 for no limit. Past it, the coarser tiling
+     * reached so far is returned and flagged as partial; see {@link ProgressiveTiler}.
+     */
+    long deadlineMillis;
+
+    /** Most tiles to return, or 0 for no limit; works like {@link #deadlineMillis}. */
+    int maxTiles;
+
+    /**
+     * Whether the job refines breadth-first so it can stop early.
+     */
+    public boolean isProgressive() {
+        return deadlineMillis > 0 || maxTiles > 0;
+    }
+}
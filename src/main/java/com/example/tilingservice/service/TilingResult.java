@@ -0,0 +1,55 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.tile.QuadkeyTileSet;
+import com.example.tilingservice.tile.Tile;
+import lombok.Getter;
+
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tiles produced for a job, plus metadata about how they were produced. The metadata
+ * is reported next to the features in the response.
+ */
+@Getter
+public class TilingResult {
+    private final List<Tile> tiles;
+    private final Map<String, Object> metadata = new LinkedHashMap<>();
+    // Set only when the tiles are held as quadkeys
+    private final Tile first;
+    private final QuadkeyTileSet tileSet;
+
+    public TilingResult(List<Tile> tiles) {
+        this.tiles = tiles;
+        this.first = null;
+        this.tileSet = null;
+    }
+
+    /**
+     * Tiles held as quadkeys and only rebuilt when read. {@code first} is a tile that
+     * isn't on the quadtree, like the bounding box tile, or {@code null}.
+     */
+    public TilingResult(Tile first, QuadkeyTileSet tileSet) {
+        this.first = first;
+        this.tileSet = tileSet;
+        int offset = first != null ? 1 : 0;
+        this.tiles = new AbstractList<>() {
+            @Override
+            public Tile get(int index) {
+                return index < offset ? first : tileSet.getTile(index - offset);
+            }
+
+            @Override
+            public int size() {
+                return tileSet.size() + offset;
+            }
+        };
+    }
+
+    public TilingResult withMetadata(String key, Object value) {
+        metadata.put(key, value);
+        return this;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.tile.QuadkeyTileSet;
+import com.example.tilingservice.tile.Tile;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tiles of a job, produced lazily as the consumer pulls them, plus metadata about how
+ * they were produced. Only the recursion stack and whatever the consumer keeps are in
+ * memory at any time, however many tiles the job yields.
+ * <p>
+ * The tiles can be consumed once. Counts such as {@code tileCount} are only in the
+ * metadata after the stream has been fully consumed.
+ */
+public class TilingStream {
+    private final Iterator<Tile> tiles;
+    private final Map<String, Object> metadata = new LinkedHashMap<>();
+    private int tileCount;
+    private int uncompactedCount;
+    private final boolean compacted;
+    private boolean consumed;
+    private Recorder recorder;
+    // Metadata of a replayed result, which already holds the counts
+    private Map<String, Object> replayedMetadata;
+
+    /**
+     * @param first     tile emitted before all others and never compacted, or {@code null}
+     * @param compactor applied to {@code tiles} when not {@code null}
+     */
+    public TilingStream(Tile first, Iterator<Tile> tiles, TileCompactor compactor) {
+        Iterator<Tile> counted = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return tiles.hasNext();
+            }
+
+            @Override
+            public Tile next() {
+                uncompactedCount++;
+                return tiles.next();
+            }
+        };
+        Iterator<Tile> body = compactor != null ? compactor.compact(counted) : counted;
+        this.compacted = compactor != null;
+        this.tiles = new Iterator<>() {
+            private boolean firstPending = first != null;
+
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = firstPending || body.hasNext();
+                if (!hasNext && !consumed) {
+                    consumed = true;
+                    if (recorder != null) {
+                        recorder.finish();
+                    }
+                }
+                return hasNext;
+            }
+
+            @Override
+            public Tile next() {
+                tileCount++;
+                boolean isFirst = firstPending;
+                Tile tile;
+                if (firstPending) {
+                    firstPending = false;
+                    uncompactedCount++;
+                    tile = first;
+                } else {
+                    tile = body.next();
+                }
+                if (recorder != null) {
+                    recorder.add(tile, isFirst);
+                }
+                return tile;
+            }
+        };
+    }
+
+    /**
+     * Replays a finished result, metadata included.
+     */
+    public static TilingStream replay(TilingResult result) {
+        TilingStream stream = new TilingStream(null, result.getTiles().iterator(), null);
+        stream.replayedMetadata = result.getMetadata();
+        return stream;
+    }
+
+    /**
+     * Collects the tiles as they pass through into a result that goes to {@code listener}
+     * once the stream has been consumed. Nothing is handed over if a tile isn't on the
+     * quadtree of {@code root} or there are more than {@code maxTiles}.
+     */
+    TilingStream recordTo(BoundingBox root, long maxTiles, Consumer<TilingResult> listener) {
+        recorder = new Recorder(QuadkeyTileSet.builder(root), maxTiles, listener);
+        return this;
+    }
+
+    public TilingStream withMetadata(String key, Object value) {
+        metadata.put(key, value);
+        return this;
+    }
+
+    public Stream<Tile> getTiles() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(tiles, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public Iterator<Tile> iterator() {
+        return tiles;
+    }
+
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    public Map<String, Object> getMetadata() {
+        if (replayedMetadata != null) {
+            Map<String, Object> result = new LinkedHashMap<>(replayedMetadata);
+            if (!consumed) {
+                result.remove("tileCount");
+                result.remove("tileCountBeforeCompaction");
+            }
+            return result;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (consumed) {
+            result.put("tileCount", tileCount);
+        }
+        result.putAll(metadata);
+        if (consumed && compacted) {
+            result.put("tileCountBeforeCompaction", uncompactedCount);
+        }
+        return result;
+    }
+
+    private class Recorder {
+        private QuadkeyTileSet.Builder tileSet;
+        private final long maxTiles;
+        private final Consumer<TilingResult> listener;
+        private Tile first;
+        private long count;
+
+        Recorder(QuadkeyTileSet.Builder tileSet, long maxTiles, Consumer<TilingResult> listener) {
+            this.tileSet = tileSet;
+            this.maxTiles = maxTiles;
+            this.listener = listener;
+        }
+
+        void add(Tile tile, boolean isFirst) {
+            if (tileSet == null) {
+                return;
+            }
+            if (isFirst) {
+                first = tile;
+            } else if (++count > maxTiles || !tileSet.add(tile)) {
+                tileSet = null;
+            }
+        }
+
+        void finish() {
+            if (tileSet != null) {
+                TilingResult result = new TilingResult(first, tileSet.build());
+                getMetadata().forEach(result::withMetadata);
+                listener.accept(result);
+            }
+        }
+    }
+}
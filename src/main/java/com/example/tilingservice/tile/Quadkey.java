@@ -0,0 +1,208 @@
+package com.example.tilingservice.tile;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+
+/**
+ * Quadtree addresses packed into a single {@code long}.
+ * <p>
+ * The path from the root is stored left-aligned, two bits per level starting at the
+ * top (below the sign bit), with each digit being the child's position in
+ * subdivision order: SW = 0, NW = 1, NE = 2, SE = 3. The low five bits hold the level.
+ * Sorting codes numerically therefore gives depth-first pre-order in subdivision
+ * order, which is the order the tiling algorithms emit tiles in, and all descendants
+ * of a tile form one contiguous range.
+ * <p>
+ * The root is either a bounding box, halved the same way {@link RectangleTile} does,
+ * or, when {@code null}, the whole Web Mercator grid, where level equals zoom.
+ */
+public final class Quadkey {
+    public static final int MAX_LEVEL = 29;
+    private static final int LEVEL_BITS = 5;
+    private static final long LEVEL_MASK = (1L << LEVEL_BITS) - 1;
+    // Allowed misalignment of a tile edge, as a fraction of the tile size
+    private static final double ALIGNMENT_TOLERANCE = 1e-6;
+
+    private Quadkey() {
+    }
+
+    /**
+     * Code of the tile at {@code column} and {@code row} of the {@code 2^level} grid,
+     * with rows counted from the south.
+     */
+    public static long encode(int level, int column, int row) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Level out of range: " + level);
+        }
+        long code = level;
+        for (int i = 0; i < level; i++) {
+            int bit = level - 1 - i;
+            int dx = (column >> bit) & 1;
+            int dy = (row >> bit) & 1;
+            code |= (long) digit(dx, dy) << shift(i);
+        }
+        return code;
+    }
+
+    public static int level(long code) {
+        return (int) (code & LEVEL_MASK);
+    }
+
+    public static int column(long code) {
+        int column = 0;
+        for (int i = 0; i < level(code); i++) {
+            int digit = digit(code, i);
+            column = (column << 1) | (digit >= 2 ? 1 : 0);
+        }
+        return column;
+    }
+
+    public static int row(long code) {
+        int row = 0;
+        for (int i = 0; i < level(code); i++) {
+            int digit = digit(code, i);
+            row = (row << 1) | (digit == 1 || digit == 2 ? 1 : 0);
+        }
+        return row;
+    }
+
+    /**
+     * Position among its siblings in subdivision order, or -1 for the root.
+     */
+    public static int position(long code) {
+        int level = level(code);
+        return level == 0 ? -1 : digit(code, level - 1);
+    }
+
+    public static long parent(long code) {
+        int level = level(code);
+        if (level == 0) {
+            throw new IllegalArgumentException("The root has no parent");
+        }
+        return (code & ~LEVEL_MASK & ~(3L << shift(level - 1))) | (level - 1);
+    }
+
+    public static long child(long code, int position) {
+        int level = level(code);
+        if (level == MAX_LEVEL) {
+            throw new IllegalArgumentException("Already at the deepest level");
+        }
+        return (code & ~LEVEL_MASK) | ((long) position << shift(level)) | (level + 1);
+    }
+
+    public static long sibling(long code, int position) {
+        return child(parent(code), position);
+    }
+
+    /**
+     * Whether {@code code} is {@code ancestor} or lies inside it.
+     */
+    public static boolean contains(long ancestor, long code) {
+        int level = level(ancestor);
+        if (level(code) < level) {
+            return false;
+        }
+        long pathMask = level == 0 ? 0 : -1L << shift(level - 1);
+        return ((ancestor ^ code) & pathMask) == 0;
+    }
+
+    /**
+     * Code of a tile, or -1 if it doesn't sit on the root's quadtree.
+     */
+    public static long of(Tile tile, BoundingBox root) {
+        if (root == null) {
+            if (!(tile instanceof WebMercatorTile)) {
+                return -1;
+            }
+            WebMercatorTile mercator = (WebMercatorTile) tile;
+            if (mercator.getZ() > MAX_LEVEL) {
+                return -1;
+            }
+            return encode(mercator.getZ(), mercator.getX(), (1 << mercator.getZ()) - 1 - mercator.getY());
+        }
+        return of(tile.getBoundingBox(), root);
+    }
+
+    private static long of(BoundingBox box, BoundingBox root) {
+        double rootMinX = root.getSouthWest().getLongitude();
+        double rootMinY = root.getSouthWest().getLatitude();
+        double rootWidth = root.getNorthEast().getLongitude() - rootMinX;
+        double rootHeight = root.getNorthEast().getLatitude() - rootMinY;
+        double width = box.getNorthEast().getLongitude() - box.getSouthWest().getLongitude();
+        double height = box.getNorthEast().getLatitude() - box.getSouthWest().getLatitude();
+        if (!(rootWidth > 0) || !(rootHeight > 0) || !(width > 0) || !(height > 0)) {
+            return -1;
+        }
+
+        int level = (int) Math.round(Math.log(rootWidth / width) / Math.log(2));
+        if (level < 0 || level > MAX_LEVEL) {
+            return -1;
+        }
+        double cellWidth = rootWidth / (1 << level);
+        double cellHeight = rootHeight / (1 << level);
+        double column = (box.getSouthWest().getLongitude() - rootMinX) / cellWidth;
+        double row = (box.getSouthWest().getLatitude() - rootMinY) / cellHeight;
+        long size = 1L << level;
+        if (!aligned(width / cellWidth, 1) || !aligned(height / cellHeight, 1)
+                || !aligned(column, Math.round(column)) || !aligned(row, Math.round(row))
+                || Math.round(column) < 0 || Math.round(row) < 0
+                || Math.round(column) >= size || Math.round(row) >= size) {
+            return -1;
+        }
+        return encode(level, (int) Math.round(column), (int) Math.round(row));
+    }
+
+    /**
+     * Tile for a code. Bounding-box tiles are rebuilt by replaying the subdivision from
+     * the root, so they are bit-identical to the tiles the quadtree produced.
+     */
+    public static Tile toTile(long code, BoundingBox root) {
+        if (root == null) {
+            int level = level(code);
+            return new WebMercatorTile(level, column(code), (1 << level) - 1 - row(code));
+        }
+        return new RectangleTile(bounds(code, root));
+    }
+
+    public static BoundingBox bounds(long code, BoundingBox root) {
+        if (root == null) {
+            return toTile(code, null).getBoundingBox();
+        }
+        double south = root.getSouthWest().getLatitude();
+        double west = root.getSouthWest().getLongitude();
+        double north = root.getNorthEast().getLatitude();
+        double east = root.getNorthEast().getLongitude();
+        for (int i = 0; i < level(code); i++) {
+            double midLat = (south + north) / 2;
+            double midLon = (west + east) / 2;
+            int digit = digit(code, i);
+            if (digit == 0 || digit == 1) {
+                east = midLon;
+            } else {
+                west = midLon;
+            }
+            if (digit == 1 || digit == 2) {
+                south = midLat;
+            } else {
+                north = midLat;
+            }
+        }
+        return new BoundingBox(new Point(south, west), new Point(north, east));
+    }
+
+    private static boolean aligned(double value, double expected) {
+        return Math.abs(value - expected) <= ALIGNMENT_TOLERANCE;
+    }
+
+    private static int digit(long code, int index) {
+        return (int) ((code >>> shift(index)) & 3);
+    }
+
+    private static int digit(int dx, int dy) {
+        return dx == 0 ? dy : 3 - dy;
+    }
+
+    private static int shift(int index) {
+        return 61 - 2 * index;
+    }
+}
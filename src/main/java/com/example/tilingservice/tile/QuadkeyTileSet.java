@@ -0,0 +1,140 @@
+package com.example.tilingservice.tile;
+
+import com.example.tilingservice.model.BoundingBox;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tiles stored as sorted {@link Quadkey} codes, eight bytes per tile, instead of tile
+ * objects. Tiles are only rebuilt from their codes when they are read, typically while
+ * the response is written.
+ * <p>
+ * Codes sort in depth-first subdivision order, so a set built from tiling output keeps
+ * the order the tiles were generated in.
+ */
+public class QuadkeyTileSet {
+    private final BoundingBox root;
+    private final long[] codes;
+
+    private QuadkeyTileSet(BoundingBox root, long[] codes) {
+        this.root = root;
+        this.codes = codes;
+    }
+
+    /**
+     * @param root the root bounding box, or {@code null} for the Web Mercator grid
+     */
+    public static Builder builder(BoundingBox root) {
+        return new Builder(root);
+    }
+
+    /**
+     * Set over codes that are already sorted, such as ones read back from storage.
+     */
+    public static QuadkeyTileSet of(BoundingBox root, long[] sortedCodes) {
+        return new QuadkeyTileSet(root, sortedCodes);
+    }
+
+    public BoundingBox getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public long getCode(int index) {
+        return codes[index];
+    }
+
+    public Tile getTile(int index) {
+        return Quadkey.toTile(codes[index], root);
+    }
+
+    public boolean contains(long code) {
+        return Arrays.binarySearch(codes, code) >= 0;
+    }
+
+    /**
+     * Number of tiles that lie inside the tile with code {@code ancestor}, itself included.
+     * Descendants share the ancestor's path prefix, so they are one contiguous range.
+     */
+    public int countWithin(long ancestor) {
+        int from = firstAtOrAfter(ancestor);
+        int to = from;
+        while (to < codes.length && Quadkey.contains(ancestor, codes[to])) {
+            to++;
+        }
+        return to - from;
+    }
+
+    /**
+     * Index of the first tile whose code isn't below {@code code}; with
+     * {@link #countWithin} this gives the index range of a subtree.
+     */
+    public int firstAtOrAfter(long code) {
+        int index = Arrays.binarySearch(codes, code);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Duplicates are allowed, so step back to the first one
+        while (index > 0 && codes[index - 1] == code) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * Read-only view that rebuilds each tile when it is accessed.
+     */
+    public List<Tile> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Tile get(int index) {
+                return getTile(index);
+            }
+
+            @Override
+            public int size() {
+                return codes.length;
+            }
+        };
+    }
+
+    public static class Builder {
+        private final BoundingBox root;
+        private long[] codes = new long[64];
+        private int size;
+        private boolean sorted = true;
+
+        private Builder(BoundingBox root) {
+            this.root = root;
+        }
+
+        /**
+         * Adds a tile, or returns {@code false} if it doesn't sit on the root's quadtree.
+         */
+        public boolean add(Tile tile) {
+            long code = Quadkey.of(tile, root);
+            if (code < 0) {
+                return false;
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, 2 * codes.length);
+            }
+            sorted &= size == 0 || codes[size - 1] <= code;
+            codes[size++] = code;
+            return true;
+        }
+
+        public QuadkeyTileSet build() {
+            long[] result = Arrays.copyOf(codes, size);
+            if (!sorted) {
+                Arrays.sort(result);
+            }
+            return new QuadkeyTileSet(root, result);
+        }
+    }
+}
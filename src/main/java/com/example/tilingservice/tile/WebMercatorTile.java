@@ -0,0 +1,182 @@
+package com.example.tilingservice.tile;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Value;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tile of the Web Mercator (slippy map) grid, addressed by zoom and integer column and
+ * row, with rows counted from the north as map clients do. Bounds are computed from
+ * the address when needed, so the same address always has exactly the same bounds and
+ * tiles from different requests can be compared, deduplicated and cached.
+ */
+@Value
+@JsonIgnoreProperties(value = {"boundingBox", "corners", "area"}, allowGetters = true)
+public class WebMercatorTile implements Tile {
+    public static final int MAX_ZOOM = Quadkey.MAX_LEVEL;
+    public static final double MAX_LATITUDE = 85.0511287798066;
+
+    int z;
+    int x;
+    int y;
+
+    @JsonCreator
+    public WebMercatorTile(@JsonProperty("z") int z, @JsonProperty("x") int x, @JsonProperty("y") int y) {
+        int size = 1 << z;
+        if (z < 0 || z > MAX_ZOOM || x < 0 || x >= size || y < 0 || y >= size) {
+            throw new IllegalArgumentException("Invalid tile address " + z + "/" + x + "/" + y);
+        }
+        this.z = z;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Tiles at {@code zoom} that cover {@code box}, in the order a quadtree walk from
+     * the whole world would visit them, which is {@link Quadkey} order.
+     */
+    public static List<WebMercatorTile> covering(BoundingBox box, int zoom) {
+        int[] range = range(box, zoom);
+        List<WebMercatorTile> tiles = new ArrayList<>();
+        for (int column = range[0]; column <= range[2]; column++) {
+            for (int row = range[1]; row <= range[3]; row++) {
+                tiles.add(new WebMercatorTile(zoom, column, row));
+            }
+        }
+        tiles.sort(Comparator.comparingLong(tile -> Quadkey.of(tile, null)));
+        return tiles;
+    }
+
+    /**
+     * Deepest zoom at which {@code box} is covered by at most two tiles in each direction.
+     */
+    public static int coveringZoom(BoundingBox box) {
+        int zoom = 0;
+        while (zoom < MAX_ZOOM) {
+            int[] range = range(box, zoom + 1);
+            if (range[2] - range[0] > 1 || range[3] - range[1] > 1) {
+                break;
+            }
+            zoom++;
+        }
+        return zoom;
+    }
+
+    /**
+     * Column and row range {@code [minColumn, minRow, maxColumn, maxRow]} of the tiles
+     * covering the box. A box edge that falls exactly on a tile edge doesn't pull in the
+     * tile beyond it.
+     */
+    private static int[] range(BoundingBox box, int zoom) {
+        int size = 1 << zoom;
+        double west = columnPosition(box.getSouthWest().getLongitude(), zoom);
+        double east = columnPosition(box.getNorthEast().getLongitude(), zoom);
+        double north = rowPosition(box.getNorthEast().getLatitude(), zoom);
+        double south = rowPosition(box.getSouthWest().getLatitude(), zoom);
+        return new int[]{
+            clamp((int) Math.floor(west), size),
+            clamp((int) Math.floor(north), size),
+            clamp(Math.max((int) Math.floor(west), (int) Math.ceil(east) - 1), size),
+            clamp(Math.max((int) Math.floor(north), (int) Math.ceil(south) - 1), size)
+        };
+    }
+
+    private static double columnPosition(double longitude, int zoom) {
+        return (longitude + 180.0) / 360.0 * (1 << zoom);
+    }
+
+    private static double rowPosition(double latitude, int zoom) {
+        double clamped = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        return (1 - Math.log(Math.tan(clamped) + 1 / Math.cos(clamped)) / Math.PI) / 2 * (1 << zoom);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    /**
+     * Longitude of the west edge of a column.
+     */
+    public static double longitude(int column, int zoom) {
+        return (double) column / (1 << zoom) * 360.0 - 180.0;
+    }
+
+    /**
+     * Latitude of the north edge of a row.
+     */
+    public static double latitude(int row, int zoom) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2.0 * row / (1 << zoom)))));
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(
+            new Point(latitude(y + 1, z), longitude(x, z)),
+            new Point(latitude(y, z), longitude(x + 1, z)));
+    }
+
+    @Override
+    public List<Point> getCorners() {
+        BoundingBox box = getBoundingBox();
+        Point sw = box.getSouthWest();
+        Point ne = box.getNorthEast();
+        return List.of(sw, new Point(ne.getLatitude(), sw.getLongitude()), ne,
+                new Point(sw.getLatitude(), ne.getLongitude()));
+    }
+
+    @Override
+    public double getArea() {
+        BoundingBox box = getBoundingBox();
+        return Math.abs((box.getNorthEast().getLatitude() - box.getSouthWest().getLatitude()) *
+                (box.getNorthEast().getLongitude() - box.getSouthWest().getLongitude()));
+    }
+
+    /**
+     * Children in the same order as {@link RectangleTile#subdivide()}: SW, NW, NE, SE.
+     */
+    @Override
+    public List<WebMercatorTile> subdivide() {
+        int childZoom = z + 1;
+        return List.of(
+            new WebMercatorTile(childZoom, 2 * x, 2 * y + 1),
+            new WebMercatorTile(childZoom, 2 * x, 2 * y),
+            new WebMercatorTile(childZoom, 2 * x + 1, 2 * y),
+            new WebMercatorTile(childZoom, 2 * x + 1, 2 * y + 1));
+    }
+
+    @JsonIgnore
+    public WebMercatorTile getParent() {
+        return z == 0 ? null : new WebMercatorTile(z - 1, x / 2, y / 2);
+    }
+
+    @Override
+    public String toGeoJson() {
+        List<Point> corners = getCorners();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[");
+        for (Point p : corners) {
+            sb.append("[").append(p.getLongitude()).append(",").append(p.getLatitude()).append("],");
+        }
+        sb.append("[").append(corners.get(0).getLongitude())
+          .append(",").append(corners.get(0).getLatitude()).append("]");
+        sb.append("]]},\"properties\":{\"z\":").append(z)
+          .append(",\"x\":").append(x)
+          .append(",\"y\":").append(y).append("}}");
+        return sb.toString();
+    }
+
+    @Override
+    public Polygon toJtsPolygon(GeometryFactory geometryFactory) {
+        return createJtsPolygon(geometryFactory);
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.tilingservice.utils;
 
 import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.PackedRing;
 import com.example.tilingservice.model.Point;
 import java.util.List;
 
 public class GeometryUtils {
+    // Earth's radius in meters
+    public static final double EARTH_RADIUS = 6371e3;
+
     public static boolean pointInPolygon(Point point, List<Point> polygon) {
         boolean inside = false;
         int i, j;
@@ -22,6 +26,35 @@ public class GeometryUtils {
         return inside;
     }
 
+    /**
+     * Same as {@link #pointInPolygon(Point, List)}, reading the packed coordinates directly.
+     */
+    public static boolean pointInPolygon(Point point, PackedRing polygon) {
+        return pointInPolygon(point.getLongitude(), point.getLatitude(), polygon);
+    }
+
+    /**
+     * Large rings are answered from their {@link RingEdgeIndex}, with the same result.
+     */
+    public static boolean pointInPolygon(double x, double y, PackedRing polygon) {
+        if (polygon.size() >= RingEdgeIndex.MIN_EDGES) {
+            return polygon.getEdgeIndex().contains(x, y);
+        }
+        boolean inside = false;
+        int i, j;
+        for (i = 0, j = polygon.size() - 1; i < polygon.size(); j = i++) {
+            double xi = polygon.getLongitude(i);
+            double yi = polygon.getLatitude(i);
+            double xj = polygon.getLongitude(j);
+            double yj = polygon.getLatitude(j);
+
+            if (((yi > y) != (yj > y)) && (x < (xj - xi) * (y - yi) / (yj - yi) + xi)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
     public static double calculatePolygonArea(List<Point> polygon) {
         double area = 0;
         int j;
@@ -34,6 +67,18 @@ public class GeometryUtils {
         return area;
     }
 
+    public static double calculatePolygonArea(PackedRing polygon) {
+        double area = 0;
+        int j;
+        for (int i = 0; i < polygon.size(); i++) {
+            j = (i + 1) % polygon.size();
+            area += polygon.getLongitude(i) * polygon.getLatitude(j);
+            area -= polygon.getLongitude(j) * polygon.getLatitude(i);
+        }
+        area = Math.abs(area) / 2.0;
+        return area;
+    }
+
     public static double calculateDistance(Point p1, Point p2) {
         double R = 6371e3; // Earth's radius in meters
         double lat1 = Math.toRadians(p1.getLatitude());
@@ -50,24 +95,33 @@ public class GeometryUtils {
     }
 
     public static double calculateAreaInMeters(BoundingBox box) {
+        return calculateAreaInMeters(box, Math.cos(Math.toRadians(box.getSouthWest().getLatitude())));
+    }
+
+    /**
+     * Same as {@link #calculateAreaInMeters(BoundingBox)}, with the cosine of the south
+     * edge's latitude supplied by the caller, for example from a lookup table.
+     */
+    public static double calculateAreaInMeters(BoundingBox box, double southCosine) {
         Point sw = box.getSouthWest();
         Point ne = box.getNorthEast();
-   
-   // Haversine formula components
-        double dLat = Math.toRadians(ne.getLatitude() - sw.getLatitude());
-        double dLon = Math.toRadians(ne.getLongitude() - sw.getLongitude());
-        double lat1 = Math.toRadians(sw.getLatitude());
-        double lat2 = Math.toRadians(ne.getLatitude());
-   
-   // Earth's radius in meters
-        double R = 6371e3;
-   
-   // Calculate width and height in meters
-        double width = R * Math.cos(lat1) * dLon;
-        double height = R * dLat;
-   
-        return Math.abs(width * height);
-}
+        return calculateAreaInMeters(sw.getLatitude(), sw.getLongitude(), ne.getLatitude(), ne.getLongitude(),
+                southCosine);
+    }
 
+    /**
+     * Same as {@link #calculateAreaInMeters(BoundingBox, double)}, for callers that have
+     * the edges without a box.
+     */
+    public static double calculateAreaInMeters(double south, double west, double north, double east,
+                                               double southCosine) {
+        double dLat = Math.toRadians(north - south);
+        double dLon = Math.toRadians(east - west);
 
+        // Calculate width and height in meters
+        double width = EARTH_RADIUS * southCosine * dLon;
+        double height = EARTH_RADIUS * dLat;
+
+        return Math.abs(width * height);
+    }
 }
@@ -0,0 +1,120 @@
+package com.example.tilingservice.utils;
+
+/**
+ * Sutherland-Hodgman clipping of a ring against an axis-aligned rectangle, used to
+ * get the covered area of a tile without building a JTS overlay graph.
+ * <p>
+ * Rings are interleaved {@code [x0, y0, x1, y1, ...]} arrays in longitude/latitude
+ * order; a repeated closing point is allowed. The clipper keeps two scratch buffers
+ * that grow to the largest ring seen, so steady-state calls don't allocate. An
+ * instance is therefore not thread-safe.
+ */
+public class RectangleClipper {
+    private double[] front = new double[64];
+    private double[] back = new double[64];
+
+    /**
+     * Area of the part of {@code ring} inside the rectangle. Concave rings are handled;
+     * the degenerate edges Sutherland-Hodgman leaves along the rectangle have no area.
+     */
+    public double clippedArea(double[] ring, double minX, double minY, double maxX, double maxY) {
+        int count = ring.length / 2;
+        if (count < 3) {
+            return 0;
+        }
+
+        count = clip(ring, count, 0, minX, true, false);
+        count = clip(front, count, 1, minY, true, true);
+        count = clip(back, count, 0, maxX, false, false);
+        count = clip(front, count, 1, maxY, false, true);
+
+        return count < 3 ? 0 : Math.abs(signedArea(back, count));
+    }
+
+    public static double ringArea(double[] ring) {
+        return Math.abs(signedRingArea(ring));
+    }
+
+    /**
+     * Positive for counter-clockwise rings.
+     */
+    public static double signedRingArea(double[] ring) {
+        return ring.length < 6 ? 0 : signedArea(ring, ring.length / 2);
+    }
+
+    /**
+     * Clips against one half-plane, reading {@code in} and writing into the front or back
+     * buffer. Every input vertex yields at most two output vertices.
+     */
+    private int clip(double[] in, int count, int axis, double bound, boolean keepGreater, boolean toBack) {
+        if (count == 0) {
+            return 0;
+        }
+        double[] out = toBack ? back : front;
+        if (out.length < 4 * count) {
+            out = new double[4 * count];
+            if (toBack) {
+                back = out;
+            } else {
+                front = out;
+            }
+        }
+
+        int size = 0;
+        double prevX = in[2 * (count - 1)];
+        double prevY = in[2 * (count - 1) + 1];
+        boolean prevInside = inside(axis == 0 ? prevX : prevY, bound, keepGreater);
+
+        for (int i = 0; i < count; i++) {
+            double x = in[2 * i];
+            double y = in[2 * i + 1];
+            boolean inside = inside(axis == 0 ? x : y, bound, keepGreater);
+
+            if (inside != prevInside) {
+                double t;
+                if (axis == 0) {
+                    t = (bound - prevX) / (x - prevX);
+                    out[size++] = bound;
+                    out[size++] = prevY + t * (y - prevY);
+                } else {
+                    t = (bound - prevY) / (y - prevY);
+                    out[size++] = prevX + t * (x - prevX);
+                    out[size++] = bound;
+                }
+            }
+            if (inside) {
+                out[size++] = x;
+                out[size++] = y;
+            }
+
+            prevX = x;
+            prevY = y;
+            prevInside = inside;
+        }
+        return size / 2;
+    }
+
+    private static boolean inside(double value, double bound, boolean keepGreater) {
+        return keepGreater ? value >= bound : value <= bound;
+    }
+
+    /**
+     * Shoelace area relative to the first vertex, which avoids the cancellation the plain
+     * formula suffers at large longitudes and latitudes.
+     */
+    private static double signedArea(double[] ring, int count) {
+        double originX = ring[0];
+        double originY = ring[1];
+        double area = 0;
+        double prevX = ring[2 * (count - 1)] - originX;
+        double prevY = ring[2 * (count - 1) + 1] - originY;
+        for (int i = 0; i < count; i++) {
+            double x = ring[2 * i] - originX;
+            double y = ring[2 * i + 1] - originY;
+            area += prevX * y - x * prevY;
+            prevX = x;
+            prevY = y;
+        }
+        return area / 2.0;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.tilingservice.utils;
+
+import com.example.tilingservice.model.PackedRing;
+
+/**
+ * Edges of one ring bucketed by latitude, so a point-in-ring test only looks at the
+ * edges whose latitude span reaches the point's band instead of the whole ring.
+ * <p>
+ * Each edge is listed in every bucket its span overlaps, found with the same function
+ * that maps a query latitude to its bucket. The function is monotonic, so any edge a
+ * horizontal ray at that latitude can cross is in the query's bucket, and the crossing
+ * test is the one of {@link GeometryUtils#pointInPolygon}, giving the same answers.
+ */
+public class RingEdgeIndex {
+    // Below this many edges the linear scan is as fast as a bucket lookup
+    public static final int MIN_EDGES = 64;
+    // Target edges per bucket, and the most bucket entries per edge before using fewer buckets
+    private static final int EDGES_PER_BUCKET = 4;
+    private static final int MAX_ENTRIES_PER_EDGE = 16;
+
+    private final double[] coordinates;
+    private final int size;
+    private final double minLatitude;
+    private final double maxLatitude;
+    private final double bucketScale;
+    private final int bucketCount;
+    // Bucket b lists edges edges[starts[b]] to edges[starts[b + 1] - 1], each by its end index
+    private final int[] starts;
+    private final int[] edges;
+
+    public RingEdgeIndex(PackedRing ring) {
+        this.coordinates = ring.getCoordinates();
+        this.size = ring.size();
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, latitude(i));
+            max = Math.max(max, latitude(i));
+        }
+        this.minLatitude = min;
+        this.maxLatitude = max;
+
+        // Long edges can land in many buckets; fewer, wider buckets keep the index linear in size
+        int count = Math.max(1, size / EDGES_PER_BUCKET);
+        while (count > 1 && entries(count) > (long) MAX_ENTRIES_PER_EDGE * size) {
+            count = Math.max(1, count / 4);
+        }
+        this.bucketCount = count;
+        this.bucketScale = max > min ? count / (max - min) : 0;
+
+        this.starts = new int[count + 1];
+        for (int i = 0, j = size - 1; i < size; j = i++) {
+            for (int b = lowBucket(i, j), to = highBucket(i, j); b <= to; b++) {
+                starts[b + 1]++;
+            }
+        }
+        for (int b = 0; b < count; b++) {
+            starts[b + 1] += starts[b];
+        }
+        this.edges = new int[starts[count]];
+        int[] next = starts.clone();
+        for (int i = 0, j = size - 1; i < size; j = i++) {
+            for (int b = lowBucket(i, j), to = highBucket(i, j); b <= to; b++) {
+                edges[next[b]++] = i;
+            }
+        }
+    }
+
+    public boolean contains(double longitude, double latitude) {
+        // A ray outside the latitude range crosses nothing; NaN falls through to false as well
+        if (!(latitude >= minLatitude && latitude <= maxLatitude)) {
+            return false;
+        }
+        int b = bucket(latitude, minLatitude, bucketScale, bucketCount);
+        boolean inside = false;
+        for (int k = starts[b]; k < starts[b + 1]; k++) {
+            int i = edges[k];
+            int j = i == 0 ? size - 1 : i - 1;
+            double xi = longitude(i);
+            double yi = latitude(i);
+            double xj = longitude(j);
+            double yj = latitude(j);
+            if (((yi > latitude) != (yj > latitude)) && (longitude < (xj - xi) * (latitude - yi) / (yj - yi) + xi)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Classifies the longitude, latitude pairs in {@code points} into {@code inside}.
+     */
+    public void containsAll(double[] points, boolean[] inside) {
+        for (int p = 0; p < inside.length; p++) {
+            inside[p] = contains(points[2 * p], points[2 * p + 1]);
+        }
+    }
+
+    /**
+     * Bucket entries the edges would need with {@code count} buckets.
+     */
+    private long entries(int count) {
+        double scale = maxLatitude > minLatitude ? count / (maxLatitude - minLatitude) : 0;
+        long entries = 0;
+        for (int i = 0, j = size - 1; i < size; j = i++) {
+            entries += bucket(Math.max(latitude(i), latitude(j)), minLatitude, scale, count)
+                    - bucket(Math.min(latitude(i), latitude(j)), minLatitude, scale, count) + 1;
+        }
+        return entries;
+    }
+
+    private int lowBucket(int i, int j) {
+        return bucket(Math.min(latitude(i), latitude(j)), minLatitude, bucketScale, bucketCount);
+    }
+
+    private int highBucket(int i, int j) {
+        return bucket(Math.max(latitude(i), latitude(j)), minLatitude, bucketScale, bucketCount);
+    }
+
+    private double longitude(int index) {
+        return coordinates[2 * index];
+    }
+
+    private double latitude(int index) {
+        return coordinates[2 * index + 1];
+    }
+
+    private static int bucket(double latitude, double min, double scale, int count) {
+        int b = (int) ((latitude - min) * scale);
+        return Math.max(0, Math.min(count - 1, b));
+    }
+}
@@ -144,6 +144,7 @@ export class UIManager {
         document.getElementById("coverageThreshold").value
       ),
       includeBoundingBox: document.getElementById("includeBoundingBox").checked,
+      compact: document.getElementById("compact").checked,
     };
 
     try {
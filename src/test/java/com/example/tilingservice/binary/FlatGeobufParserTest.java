@@ -0,0 +1,328 @@
+package com.example.tilingservice.binary;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatGeobufParserTest {
+
+    private static final String POLYGON = """
+        {"type": "Polygon", "coordinates": [
+            [[10,45], [10.013,45.002], [10.02,45.011], [10.008,45.017], [10,45]],
+            [[10.005,45.005], [10.01,45.006], [10.009,45.01], [10.005,45.005]]
+        ]}
+        """;
+
+    private static final String MULTI_POLYGON = """
+        {"type": "MultiPolygon", "coordinates": [
+            [[[0,0], [0,0.004], [0.004,0.004], [0.004,0], [0,0]]],
+            [[[0.006,0.006], [0.006,0.011], [0.012,0.011], [0.012,0.006], [0.006,0.006]]]
+        ]}
+        """;
+
+    private final FlatGeobufParser parser = new FlatGeobufParser();
+    private final GeoJsonParser geoJsonParser = new GeoJsonParser();
+
+    @Test
+    void parseFeatures_ShouldMatchGeoJsonWithAndWithoutIndex() throws IOException {
+        List<Shape> shapes = List.of(geoJsonParser.parse(POLYGON), geoJsonParser.parse(MULTI_POLYGON),
+            geoJsonParser.parse(POLYGON));
+        List<Feature> expected = List.of(new Feature("0", shapes.get(0)), new Feature("1", shapes.get(1)),
+            new Feature("2", shapes.get(2)));
+
+        assertEquals(expected, parser.parseFeatures(stream(write(shapes, 0, 16)), null));
+        assertEquals(expected, parser.parseFeatures(stream(write(shapes, 0, 0)), null));
+        assertEquals(shapes.get(1), parser.parse(stream(write(List.of(shapes.get(1)), 0, 16))));
+        assertEquals(shapes.get(0), parser.parse(stream(write(List.of(shapes.get(0)), BinaryGeometry.POLYGON, 0))));
+    }
+
+    @Test
+    void parseFeatures_Bbox_ShouldReadOnlyMatchingFeaturesThroughIndex() throws IOException {
+        // A 30 x 30 grid of squares; at node size 4 the tree has six levels
+        List<Shape> shapes = new ArrayList<>();
+        for (int row = 0; row < 30; row++) {
+            for (int column = 0; column < 30; column++) {
+                shapes.add(square(column, row, 0.5));
+            }
+        }
+        BoundingBox bbox = new BoundingBox(new Point(10.2, 3.2), new Point(12.7, 4.1));
+        byte[] indexed = write(shapes, BinaryGeometry.POLYGON, 4);
+        byte[] unindexed = write(shapes, BinaryGeometry.POLYGON, 0);
+
+        CountingInputStream in = new CountingInputStream(stream(indexed));
+        List<Feature> found = parser.parseFeatures(in, bbox);
+        List<Feature> scanned = parser.parseFeatures(stream(unindexed), bbox);
+
+        // Columns 3 and 4 of rows 10 to 12
+        assertEquals(List.of("303", "304", "333", "334", "363", "364"), found.stream().map(Feature::getId).toList());
+        assertEquals(scanned, found);
+        assertTrue(in.count < indexed.length / 10, in.count + " of " + indexed.length + " bytes read");
+        assertTrue(parser.parseFeatures(stream(indexed), new BoundingBox(new Point(50, 50), new Point(51, 51))).isEmpty());
+    }
+
+    @Test
+    void parse_MoreThanOneFeature_ShouldThrow() {
+        byte[] two = write(List.of(square(0, 0, 1), square(2, 2, 1)), BinaryGeometry.POLYGON, 0);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parser.parse(stream(two)));
+
+        assertTrue(e.getMessage().contains("expected one feature"), e.getMessage());
+    }
+
+    @Test
+    void parse_BadInput_ShouldNameProblemAndOffset() {
+        byte[] file = write(List.of(geoJsonParser.parse(POLYGON)), BinaryGeometry.POLYGON, 16);
+        byte[] badMagic = file.clone();
+        badMagic[3] = 2;
+        byte[] point = write(List.of(geoJsonParser.parse(POLYGON)), 1, 0);
+
+        IllegalArgumentException truncated = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse(stream(Arrays.copyOf(file, file.length - 20))));
+        IllegalArgumentException magic = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse(stream(badMagic)));
+        IllegalArgumentException unsupported = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse(stream(point)));
+
+        assertTrue(truncated.getMessage().startsWith("Invalid FlatGeobuf at byte"), truncated.getMessage());
+        assertTrue(magic.getMessage().contains("version 3"), magic.getMessage());
+        assertTrue(unsupported.getMessage().contains("feature 0: Unsupported geometry type: Point"),
+            unsupported.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(stream(new byte[0])));
+    }
+
+    private static Shape square(double longitude, double latitude, double size) {
+        double[] ring = {longitude, latitude, longitude + size, latitude, longitude + size, latitude + size,
+            longitude, latitude + size, longitude, latitude};
+        return new PolygonShape(PackedRing.wrap(ring, 5), List.<PackedRing>of());
+    }
+
+    private static InputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * Counts the bytes read, not those skipped.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            count += b >= 0 ? 1 : 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            count += Math.max(read, 0);
+            return read;
+        }
+    }
+
+    /**
+     * A FlatGeobuf file of the shapes in order, with a packed R-tree when {@code nodeSize}
+     * isn't 0. A header geometry type of 0 puts the type on each geometry instead.
+     */
+    private static byte[] write(List<Shape> shapes, int geometryType, int nodeSize) {
+        List<byte[]> features = new ArrayList<>();
+        for (Shape shape : shapes) {
+            features.add(sizePrefixed(new Table().put(0, geometry(shape, geometryType == 0))));
+        }
+        Table header = new Table()
+            .put(2, (byte) geometryType)
+            .put(8, (long) shapes.size())
+            .put(9, (short) nodeSize);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{'f', 'g', 'b', 3, 'f', 'g', 'b', 1});
+        out.writeBytes(sizePrefixed(header));
+        if (nodeSize > 0) {
+            out.writeBytes(index(shapes, features, nodeSize));
+        }
+        features.forEach(out::writeBytes);
+        return out.toByteArray();
+    }
+
+    private static Table geometry(Shape shape, boolean withType) {
+        if (shape instanceof MultiPolygonShape multiPolygon) {
+            List<Table> parts = new ArrayList<>();
+            for (PolygonShape polygon : multiPolygon.getPolygons()) {
+                parts.add(geometry(polygon, true));
+            }
+            return new Table().put(6, (byte) BinaryGeometry.MULTI_POLYGON).put(7, parts);
+        }
+        PolygonShape polygon = (PolygonShape) shape;
+        List<PackedRing> rings = new ArrayList<>(List.of(polygon.getOuterRing()));
+        rings.addAll(polygon.getHoleRings());
+        double[] xy = new double[0];
+        int[] ends = new int[rings.size()];
+        for (int i = 0; i < rings.size(); i++) {
+            double[] ring = rings.get(i).getCoordinates();
+            int start = xy.length;
+            xy = Arrays.copyOf(xy, start + ring.length);
+            System.arraycopy(ring, 0, xy, start, ring.length);
+            ends[i] = xy.length / 2;
+        }
+        Table geometry = new Table().put(1, xy);
+        if (rings.size() > 1) {
+            geometry.put(0, ends);
+        }
+        return withType ? geometry.put(6, (byte) BinaryGeometry.POLYGON) : geometry;
+    }
+
+    /**
+     * Nodes root first, level by level, as the reference writers lay out the tree. The
+     * features keep their order rather than being sorted along a Hilbert curve, which
+     * the reader doesn't depend on.
+     */
+    private static byte[] index(List<Shape> shapes, List<byte[]> features, int nodeSize) {
+        List<List<double[]>> levels = new ArrayList<>();
+        List<double[]> leaves = new ArrayList<>();
+        long offset = 0;
+        for (int i = 0; i < shapes.size(); i++) {
+            BoundingBox box = shapes.get(i).getBoundingBox();
+            leaves.add(new double[]{box.getSouthWest().getLongitude(), box.getSouthWest().getLatitude(),
+                box.getNorthEast().getLongitude(), box.getNorthEast().getLatitude(), offset});
+            offset += features.get(i).length;
+        }
+        levels.add(leaves);
+        do {
+            List<double[]> children = levels.get(levels.size() - 1);
+            List<double[]> parents = new ArrayList<>();
+            for (int first = 0; first < children.size(); first += nodeSize) {
+                double[] parent = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE, first};
+                for (double[] child : children.subList(first, Math.min(first + nodeSize, children.size()))) {
+                    parent[0] = Math.min(parent[0], child[0]);
+                    parent[1] = Math.min(parent[1], child[1]);
+                    parent[2] = Math.max(parent[2], child[2]);
+                    parent[3] = Math.max(parent[3], child[3]);
+                }
+                parents.add(parent);
+            }
+            levels.add(parents);
+        } while (levels.get(levels.size() - 1).size() != 1);
+
+        // Child offsets so far count from the start of their level
+        ByteBuffer buffer = ByteBuffer.allocate(40 * levels.stream().mapToInt(List::size).sum())
+            .order(ByteOrder.LITTLE_ENDIAN);
+        long levelStart = 0;
+        for (int level = levels.size() - 1; level >= 0; level--) {
+            long childLevelStart = levelStart + levels.get(level).size();
+            for (double[] node : levels.get(level)) {
+                buffer.putDouble(node[0]).putDouble(node[1]).putDouble(node[2]).putDouble(node[3]);
+                buffer.putLong(level == 0 ? (long) node[4] : childLevelStart + (long) node[4]);
+            }
+            levelStart = childLevelStart;
+        }
+        return buffer.array();
+    }
+
+    private static byte[] sizePrefixed(Table table) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0).putInt(0);
+        buffer.putInt(4, table.write(buffer) - 4);
+        buffer.putInt(0, buffer.position() - 4);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * A FlatBuffers table written front to back: its vtable, the table, then what its
+     * fields point to. Values are bytes, shorts, longs, double or int vectors, tables
+     * and table vectors.
+     */
+    private static final class Table {
+        private final TreeMap<Integer, Object> fields = new TreeMap<>();
+
+        Table put(int id, Object value) {
+            fields.put(id, value);
+            return this;
+        }
+
+        /**
+         * @return position of the table
+         */
+        int write(ByteBuffer buffer) {
+            int fieldCount = fields.isEmpty() ? 0 : fields.lastKey() + 1;
+            int vtable = buffer.position();
+            int vtableSize = 4 + 2 * fieldCount;
+            buffer.position(vtable + vtableSize + (vtableSize % 4));
+            int table = buffer.position();
+            buffer.putInt(table - vtable);
+            Map<Integer, Object> references = new TreeMap<>();
+            for (Map.Entry<Integer, Object> field : fields.entrySet()) {
+                buffer.putShort(vtable + 4 + 2 * field.getKey(), (short) (buffer.position() - table));
+                Object value = field.getValue();
+                if (value instanceof Byte b) {
+                    buffer.put(b);
+                } else if (value instanceof Short s) {
+                    buffer.putShort(s);
+                } else if (value instanceof Long l) {
+                    buffer.putLong(l);
+                } else {
+                    references.put(buffer.position(), value);
+                    buffer.putInt(0);
+                }
+            }
+            buffer.putShort(vtable, (short) vtableSize);
+            buffer.putShort(vtable + 2, (short) (buffer.position() - table));
+            for (Map.Entry<Integer, Object> reference : references.entrySet()) {
+                buffer.position((buffer.position() + 3) & ~3);
+                int target = writeReferenced(buffer, reference.getValue());
+                buffer.putInt(reference.getKey(), target - reference.getKey());
+            }
+            return table;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static int writeReferenced(ByteBuffer buffer, Object value) {
+            int start = buffer.position();
+            if (value instanceof Table table) {
+                return table.write(buffer);
+            }
+            if (value instanceof double[] doubles) {
+                buffer.putInt(doubles.length);
+                Arrays.stream(doubles).forEach(buffer::putDouble);
+            } else if (value instanceof int[] ints) {
+                buffer.putInt(ints.length);
+                Arrays.stream(ints).forEach(buffer::putInt);
+            } else {
+                List<Table> tables = (List<Table>) value;
+                buffer.putInt(tables.size());
+                int slots = buffer.position();
+                buffer.position(slots + 4 * tables.size());
+                for (int i = 0; i < tables.size(); i++) {
+                    int table = tables.get(i).write(buffer);
+                    buffer.putInt(slots + 4 * i, table - (slots + 4 * i));
+                }
+            }
+            return start;
+        }
+    }
+}
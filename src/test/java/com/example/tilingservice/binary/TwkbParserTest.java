@@ -0,0 +1,164 @@
+package com.example.tilingservice.binary;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.Point;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwkbParserTest {
+
+    private static final double[][][] POLYGON = {
+        {{10, 45}, {10.013, 45.002}, {10.02, 45.011}, {10.008, 45.017}, {10, 45}},
+        {{10.005, 45.005}, {10.01, 45.006}, {10.009, 45.01}, {10.005, 45.005}}
+    };
+
+    private static final double[][][] SQUARE = {{{0, 0}, {0, 0.004}, {0.004, 0.004}, {0.004, 0}, {0, 0}}};
+
+    private final TwkbParser parser = new TwkbParser();
+    private final GeoJsonParser geoJsonParser = new GeoJsonParser();
+
+    @Test
+    void parse_HandEncodedPolygon_ShouldDecodeDeltas() throws IOException {
+        // Polygon at precision 1: (0 0, 1 0, 1 1, 0 0) as deltas (0 0) (10 0) (0 10) (-10 -10)
+        byte[] twkb = {0x23, 0x00, 0x01, 0x04, 0x00, 0x00, 0x14, 0x00, 0x00, 0x14, 0x13, 0x13};
+
+        assertEquals(geoJsonParser.parse("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,0]]]}"),
+            parser.parse(stream(twkb)));
+    }
+
+    @Test
+    void parse_ShouldMatchGeoJsonAtItsPrecision() throws IOException {
+        byte[] polygon = new Writer(BinaryGeometry.POLYGON, 6, 0).polygon(POLYGON).toByteArray();
+        byte[] multiPolygon = new Writer(BinaryGeometry.MULTI_POLYGON, 6, 0).count(2).polygon(SQUARE).polygon(POLYGON)
+            .toByteArray();
+
+        assertEquals(geoJsonParser.parse(geoJson("Polygon", POLYGON)), parser.parse(stream(polygon)));
+        assertEquals(geoJsonParser.parse("{\"type\":\"MultiPolygon\",\"coordinates\":["
+            + coordinates(SQUARE) + "," + coordinates(POLYGON) + "]}"), parser.parse(stream(multiPolygon)));
+    }
+
+    @Test
+    void parse_OptionalHeaders_ShouldBeSkipped() throws IOException {
+        // Bounding box and size ahead of the rings, and a Z value after each position
+        Writer writer = new Writer(BinaryGeometry.POLYGON, 3, 0x01 | 0x02 | 0x08);
+        writer.out.write(0x01);
+        writer.varint(5).varint(0).varint(2).varint(0).varint(2).varint(0).varint(2);
+        writer.dimensions = 3;
+
+        assertEquals(geoJsonParser.parse(geoJson("Polygon", SQUARE)),
+            parser.parse(stream(writer.polygon(SQUARE).toByteArray())));
+    }
+
+    @Test
+    void parseFeatures_CollectionWithIds_ShouldUseIdsAndFilterByBbox() throws IOException {
+        Writer collection = new Writer(BinaryGeometry.GEOMETRY_COLLECTION, 0, 0x04).count(2).varint(zigzag(17)).varint(zigzag(-4));
+        collection.out.write(new Writer(BinaryGeometry.POLYGON, 6, 0).polygon(POLYGON).toByteArray());
+        collection.out.write(new Writer(BinaryGeometry.POLYGON, 6, 0).polygon(SQUARE).toByteArray());
+        byte[] twkb = collection.toByteArray();
+
+        List<Feature> features = parser.parseFeatures(stream(twkb), null);
+        List<Feature> nearOrigin = parser.parseFeatures(stream(twkb), new BoundingBox(new Point(-1, -1), new Point(1, 1)));
+
+        assertEquals(List.of(new Feature("17", geoJsonParser.parse(geoJson("Polygon", POLYGON))),
+            new Feature("-4", geoJsonParser.parse(geoJson("Polygon", SQUARE)))), features);
+        assertEquals(List.of("-4"), nearOrigin.stream().map(Feature::getId).toList());
+    }
+
+    @Test
+    void parse_BadInput_ShouldNameProblemAndOffset() throws IOException {
+        byte[] polygon = new Writer(BinaryGeometry.POLYGON, 6, 0).polygon(POLYGON).toByteArray();
+        byte[] lineString = {0x02, 0x00, 0x02, 0x00, 0x00, 0x02, 0x02};
+        byte[] empty = {0x03, 0x10};
+        byte[] manyRings = {0x03, 0x00, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+
+        IllegalArgumentException truncated = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse(stream(Arrays.copyOf(polygon, polygon.length - 1))));
+        IllegalArgumentException unsupported = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse(stream(lineString)));
+
+        assertTrue(truncated.getMessage().startsWith("Invalid TWKB at byte"), truncated.getMessage());
+        assertTrue(unsupported.getMessage().contains("Unsupported geometry type: LineString"), unsupported.getMessage());
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> parser.parse(stream(empty)))
+            .getMessage().contains("Polygon is empty"));
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> parser.parse(stream(manyRings)))
+            .getMessage().contains("exceeds"));
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static InputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    private static String geoJson(String type, double[][][] rings) {
+        return "{\"type\":\"" + type + "\",\"coordinates\":" + coordinates(rings) + "}";
+    }
+
+    private static String coordinates(double[][][] rings) {
+        return Arrays.deepToString(rings);
+    }
+
+    /**
+     * Encodes polygons the way PostGIS {@code ST_AsTWKB} does.
+     */
+    private static final class Writer {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final double scale;
+        int dimensions = 2;
+        long x;
+        long y;
+
+        Writer(int type, int precision, int flags) {
+            this.scale = Math.pow(10, precision);
+            out.write((int) zigzag(precision) << 4 | type);
+            out.write(flags);
+        }
+
+        Writer count(int count) {
+            return varint(count);
+        }
+
+        Writer polygon(double[][][] rings) {
+            count(rings.length);
+            for (double[][] ring : rings) {
+                count(ring.length);
+                for (double[] position : ring) {
+                    long px = Math.round(position[0] * scale);
+                    long py = Math.round(position[1] * scale);
+                    varint(zigzag(px - x)).varint(zigzag(py - y));
+                    x = px;
+                    y = py;
+                    for (int d = 2; d < dimensions; d++) {
+                        varint(zigzag(d));
+                    }
+                }
+            }
+            return this;
+        }
+
+        Writer varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
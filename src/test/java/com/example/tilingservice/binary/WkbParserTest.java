@@ -0,0 +1,119 @@
+package com.example.tilingservice.binary;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.Shape;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ByteOrderValues;
+import org.locationtech.jts.io.WKBWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WkbParserTest {
+
+    private static final String POLYGON = """
+        {"type": "Polygon", "coordinates": [
+            [[10,45], [10.013,45.002], [10.02,45.011], [10.008,45.017], [10,45]],
+            [[10.005,45.005], [10.01,45.006], [10.009,45.01], [10.005,45.005]]
+        ]}
+        """;
+
+    private static final String MULTI_POLYGON = """
+        {"type": "MultiPolygon", "coordinates": [
+            [[[0,0], [0,0.004], [0.004,0.004], [0.004,0], [0,0]]],
+            [[[0.006,0.006], [0.006,0.011], [0.012,0.011], [0.012,0.006], [0.006,0.006]]]
+        ]}
+        """;
+
+    private final WkbParser parser = new WkbParser();
+    private final GeoJsonParser geoJsonParser = new GeoJsonParser();
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    void parse_ShouldMatchGeoJsonInEitherByteOrder() throws IOException {
+        for (String geoJson : List.of(POLYGON, MULTI_POLYGON)) {
+            Shape expected = geoJsonParser.parse(geoJson);
+            Geometry geometry = expected.toJtsGeometry(geometryFactory);
+
+            for (int byteOrder : new int[]{ByteOrderValues.BIG_ENDIAN, ByteOrderValues.LITTLE_ENDIAN}) {
+                assertEquals(expected, parser.parse(stream(new WKBWriter(2, byteOrder).write(geometry))));
+            }
+        }
+    }
+
+    @Test
+    void parse_ExtendedAndIsoZ_ShouldSkipZ() throws IOException {
+        Coordinate[] ring = {new Coordinate(0, 0, 5), new Coordinate(0, 1, 6), new Coordinate(1, 1, 7), new Coordinate(0, 0, 5)};
+        Polygon polygon = geometryFactory.createPolygon(ring);
+        polygon.setSRID(4326);
+        byte[] ewkb = new WKBWriter(3, ByteOrderValues.LITTLE_ENDIAN, true).write(polygon);
+
+        // ISO Polygon Z is type 1003
+        ByteBuffer iso = ByteBuffer.allocate(1 + 4 + 4 + 4 + 4 * 24).order(ByteOrder.LITTLE_ENDIAN);
+        iso.put((byte) 1).putInt(1003).putInt(1).putInt(4);
+        for (Coordinate coordinate : ring) {
+            iso.putDouble(coordinate.x).putDouble(coordinate.y).putDouble(coordinate.z);
+        }
+
+        Shape expected = geoJsonParser.parse("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[0,1],[1,1],[0,0]]]}");
+        assertEquals(expected, parser.parse(stream(ewkb)));
+        assertEquals(expected, parser.parse(stream(iso.array())));
+    }
+
+    @Test
+    void parseFeatures_GeometryCollection_ShouldYieldMembersWithinBbox() throws IOException {
+        Geometry polygon = geoJsonParser.parse(POLYGON).toJtsGeometry(geometryFactory);
+        Geometry multiPolygon = geoJsonParser.parse(MULTI_POLYGON).toJtsGeometry(geometryFactory);
+        byte[] wkb = new WKBWriter().write(geometryFactory.createGeometryCollection(new Geometry[]{polygon, multiPolygon}));
+
+        List<Feature> features = parser.parseFeatures(stream(wkb), null);
+        List<Feature> nearOrigin = parser.parseFeatures(stream(wkb),
+            new BoundingBox(new Point(-1, -1), new Point(1, 1)));
+
+        assertEquals(List.of(new Feature("0", geoJsonParser.parse(POLYGON)),
+            new Feature("1", geoJsonParser.parse(MULTI_POLYGON))), features);
+        assertEquals(List.of("1"), nearOrigin.stream().map(Feature::getId).toList());
+        assertEquals(List.of("0"), parser.parseFeatures(stream(new WKBWriter().write(polygon)), null)
+            .stream().map(Feature::getId).toList());
+    }
+
+    @Test
+    void parse_BadInput_ShouldNameProblemAndOffset() throws IOException {
+        byte[] wkb = new WKBWriter().write(geoJsonParser.parse(POLYGON).toJtsGeometry(geometryFactory));
+        byte[] point = new WKBWriter().write(geometryFactory.createPoint(new Coordinate(1, 2)));
+        // A ring claiming two billion points
+        byte[] huge = ByteBuffer.allocate(13).put((byte) 0).putInt(3).putInt(1).putInt(Integer.MAX_VALUE).array();
+
+        IllegalArgumentException truncated = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse(stream(Arrays.copyOf(wkb, wkb.length - 3))));
+        IllegalArgumentException unsupported = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse(stream(point)));
+        IllegalArgumentException tooMany = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse(stream(huge)));
+
+        assertTrue(truncated.getMessage().startsWith("Invalid WKB at byte"), truncated.getMessage());
+        assertTrue(unsupported.getMessage().contains("Unsupported geometry type: Point"), unsupported.getMessage());
+        assertTrue(tooMany.getMessage().contains("exceeds"), tooMany.getMessage());
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> parser.parse(stream(new byte[0])))
+            .getMessage().contains("unexpected end of input"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(stream(Arrays.copyOf(wkb, wkb.length + 1))));
+    }
+
+    private static InputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+}
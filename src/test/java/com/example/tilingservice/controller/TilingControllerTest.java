@@ -0,0 +1,137 @@
+package com.example.tilingservice.controller;
+
+import com.example.tilingservice.binary.FlatGeobufParser;
+import com.example.tilingservice.binary.TwkbParser;
+import com.example.tilingservice.binary.WkbParser;
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.geojson.StreamingGeoJsonParser;
+import com.example.tilingservice.rtree.RTreeSerializer;
+import com.example.tilingservice.service.AsyncTileRenderer;
+import com.example.tilingservice.service.FeatureIngestionService;
+import com.example.tilingservice.service.TileResultCache;
+import com.example.tilingservice.service.TileService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.WKBWriter;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class TilingControllerTest {
+
+    private static final String POLYGON =
+        "{\"type\":\"Polygon\",\"coordinates\":[[[10,45],[10.013,45.002],[10.02,45.011],[10,45]]]}";
+
+    private static final long DEFAULT_TIMEOUT = 30_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TileService tileService;
+    private TilingController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        tileService = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(),
+                TileResultCache.disabled());
+        StreamingGeoJsonParser geoJsonParser = new StreamingGeoJsonParser();
+        controller = new TilingController(tileService, new AsyncTileRenderer(null, objectMapper),
+                TileResultCache.disabled(),
+                new TilingRequestReader(objectMapper, geoJsonParser,
+                        List.of(new WkbParser(), new TwkbParser(), new FlatGeobufParser())),
+                new FeatureIngestionService(tileService, geoJsonParser, objectMapper), objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setAsyncRequestTimeout(DEFAULT_TIMEOUT)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tileService.shutdown();
+    }
+
+    @Test
+    void generateTiles_ShouldNotTimeOutWhileTiling() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/tiles")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"maxTileArea\": 50000, \"minTileArea\": 500, \"geoJson\": " + POLYGON + "}"))
+            .andReturn();
+
+        assertTrue(result.getRequest().isAsyncStarted());
+        assertTrue(asyncTimeout(result) <= 0, "timeout " + asyncTimeout(result));
+        JsonNode tiles = objectMapper.readTree(mockMvc.perform(asyncDispatch(result)).andReturn().getResponse()
+            .getContentAsString());
+        assertFalse(tiles.get("features").isEmpty());
+    }
+
+    @Test
+    void generateTilesFromBinary_ShouldApplyConfiguredTimeout() throws Exception {
+        ReflectionTestUtils.setField(controller, "tilesTimeoutMillis", 120_000L);
+        byte[] wkb = new WKBWriter().write(new GeoJsonParser().parse(POLYGON).toJtsGeometry(new GeometryFactory()));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/tiles")
+                .contentType(WkbParser.MEDIA_TYPE)
+                .param("maxTileArea", "50000")
+                .param("minTileArea", "500")
+                .content(wkb))
+            .andReturn();
+
+        assertEquals(120_000L, asyncTimeout(result));
+    }
+
+    @Test
+    void tileFeatures_ShouldNotTimeOutWhileIngesting() throws Exception {
+        String collection = "{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\"id\":\"a\","
+            + "\"geometry\":" + POLYGON + "}]}";
+
+        MvcResult result = mockMvc.perform(post("/api/v1/tiles/features")
+                .param("maxTileArea", "50000")
+                .param("minTileArea", "500")
+                .content(collection))
+            .andReturn();
+
+        assertTrue(result.getRequest().isAsyncStarted());
+        assertTrue(asyncTimeout(result) <= 0, "timeout " + asyncTimeout(result));
+        String[] lines = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse()
+            .getContentAsString().strip().split("\n");
+        assertEquals("a", objectMapper.readTree(lines[0]).get("id").asText());
+        assertTrue(objectMapper.readTree(lines[lines.length - 1]).path("done").asBoolean(), lines[lines.length - 1]);
+    }
+
+    @Test
+    void badRequest_ShouldBeValidJson() throws Exception {
+        for (MockHttpServletRequestBuilder request : List.of(
+                post("/api/v1/tiles/features").param("algorithm", "foo").content("{}"),
+                post("/api/v1/tiles").contentType(WkbParser.MEDIA_TYPE).param("maxTileArea", "large")
+                    .content(new byte[0]),
+                post("/api/v1/tiles").contentType(MediaType.APPLICATION_JSON).content("{\"geoJson\": \"a\nb\"}"))) {
+            MvcResult result = mockMvc.perform(request).andReturn();
+            if (result.getRequest().isAsyncStarted()) {
+                result = mockMvc.perform(asyncDispatch(result)).andReturn();
+            }
+
+            assertEquals(400, result.getResponse().getStatus());
+            JsonNode error = objectMapper.readTree(result.getResponse().getContentAsString());
+            assertTrue(error.get("error").asText().startsWith("Invalid"), error.toString());
+        }
+    }
+
+    private static long asyncTimeout(MvcResult result) {
+        return ((MockAsyncContext) result.getRequest().getAsyncContext()).getTimeout();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.tilingservice.controller;
+
+import com.example.tilingservice.binary.FlatGeobufParser;
+import com.example.tilingservice.binary.TwkbParser;
+import com.example.tilingservice.binary.WkbParser;
+import com.example.tilingservice.geojson.StreamingGeoJsonParser;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.service.TilingAlgorithm;
+import com.example.tilingservice.service.TilingJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.WKBWriter;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TilingRequestReaderTest {
+
+    private static final String POLYGON =
+        "{\"type\":\"Polygon\",\"coordinates\":[[[10,45],[10.013,45.002],[10.02,45.011],[10,45]]]}";
+
+    private final StreamingGeoJsonParser geoJsonParser = new StreamingGeoJsonParser();
+    private final TilingRequestReader reader = new TilingRequestReader(new ObjectMapper(), geoJsonParser,
+        List.of(new WkbParser(), new TwkbParser(), new FlatGeobufParser()));
+
+    @Test
+    void readTiling_ShouldBindParametersAroundGeometry() throws IOException {
+        String body = "{\"maxTileArea\": 5000, \"geoJson\": " + POLYGON
+            + ", \"algorithm\": \"clip-descend\", \"simplify\": true, \"extra\": null}";
+        String unknown = body.replace(", \"extra\": null", ", \"unknownOption\": {\"a\": [1]}");
+
+        TilingRequestReader.Parsed<TilingController.TilingRequest, Shape> parsed =
+            reader.readTiling(stream(body.replace(", \"extra\": null", "")));
+        TilingJob job = parsed.getRequest().toTilingJob();
+
+        assertEquals(geoJsonParser.parse(POLYGON), parsed.getGeometry());
+        assertEquals(5000, job.getMaxTileArea());
+        assertEquals(TilingJob.builder().build().getMinTileArea(), job.getMinTileArea());
+        assertEquals(TilingAlgorithm.CLIP_DESCEND, job.getAlgorithm());
+        assertTrue(job.isSimplify());
+        assertNull(parsed.getRequest().getGeoJson());
+        assertThrows(IllegalArgumentException.class, () -> reader.readTiling(stream(unknown)));
+    }
+
+    @Test
+    void readBatch_ShouldReadFeaturesAndDeduplicate() throws IOException {
+        String body = "{\"geoJson\": {\"type\": \"FeatureCollection\", \"features\": ["
+            + "{\"type\": \"Feature\", \"id\": \"a\", \"geometry\": " + POLYGON + "},"
+            + "{\"type\": \"Feature\", \"id\": \"b\", \"geometry\": " + POLYGON + "}]},"
+            + "\"deduplicate\": true}";
+
+        TilingRequestReader.Parsed<TilingController.BatchTilingRequest, List<Feature>> parsed =
+            reader.readBatch(stream(body));
+
+        assertEquals(List.of("a", "b"), parsed.getGeometry().stream().map(Feature::getId).toList());
+        assertTrue(parsed.getRequest().isDeduplicate());
+    }
+
+    @Test
+    void readTiling_BadBody_ShouldThrowWithLocation() {
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+            () -> reader.readTiling(stream("{\"maxTileArea\": 5000}")));
+        IllegalArgumentException malformed = assertThrows(IllegalArgumentException.class,
+            () -> reader.readTiling(stream("{\"maxTileArea\": 5000,\n \"geoJson\": {\"type\": \"Polygon\", "
+                + "\"coordinates\": [[[0,0], [0,1], [1,true]]]}}")));
+
+        assertTrue(missing.getMessage().contains("geoJson"), missing.getMessage());
+        assertTrue(malformed.getMessage().contains("line 2"), malformed.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> reader.readTiling(stream("[]")));
+        assertThrows(IllegalArgumentException.class, () -> reader.readTiling(stream("{\"geoJson\": null}")));
+    }
+
+    @Test
+    void readBinary_ShouldPickParserByContentTypeAndTakeQueryParameters() throws IOException {
+        Shape shape = geoJsonParser.parse(POLYGON);
+        byte[] wkb = new WKBWriter().write(shape.toJtsGeometry(new GeometryFactory()));
+
+        TilingRequestReader.Parsed<TilingController.TilingRequest, Shape> parsed = reader.readTiling(
+            new ByteArrayInputStream(wkb), MediaType.parseMediaType("application/wkb"),
+            Map.of("maxTileArea", "5000", "algorithm", "clip-descend"));
+        TilingRequestReader.Parsed<TilingController.BatchTilingRequest, List<Feature>> outside = reader.readBatch(
+            new ByteArrayInputStream(wkb), WkbParser.MEDIA_TYPE, Map.of("bbox", "0,0,1,1", "deduplicate", "true"));
+
+        assertEquals(shape, parsed.getGeometry());
+        assertEquals(5000, parsed.getRequest().toTilingJob().getMaxTileArea());
+        assertEquals(TilingAlgorithm.CLIP_DESCEND, parsed.getRequest().getAlgorithm());
+        assertTrue(outside.getGeometry().isEmpty());
+        assertTrue(outside.getRequest().isDeduplicate());
+        assertThrows(IllegalArgumentException.class, () -> reader.readTiling(new ByteArrayInputStream(wkb),
+            MediaType.parseMediaType("application/x-shapefile"), Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> reader.readBatch(new ByteArrayInputStream(wkb),
+            WkbParser.MEDIA_TYPE, Map.of("bbox", "1,1,0,0")));
+        assertThrows(IllegalArgumentException.class, () -> reader.readTiling(new ByteArrayInputStream(wkb),
+            WkbParser.MEDIA_TYPE, Map.of("maxTileArea", "large")));
+    }
+
+    @Test
+    void readParameters_BadValue_ShouldNameFieldOnly() {
+        IllegalArgumentException algorithm = assertThrows(IllegalArgumentException.class,
+            () -> reader.readParameters(Map.of("algorithm", "foo"), TilingController.TilingRequest.class));
+        IllegalArgumentException area = assertThrows(IllegalArgumentException.class,
+            () -> reader.readParameters(Map.of("maxTileArea", "large"), TilingController.TilingRequest.class));
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+            () -> reader.readParameters(Map.of("maxTileSize", "5"), TilingController.TilingRequest.class));
+
+        assertEquals("Invalid request: algorithm must be one of quadtree, clip-descend, boundary-walk",
+            algorithm.getMessage());
+        assertTrue(area.getMessage().startsWith("Invalid request: maxTileArea: "), area.getMessage());
+        assertEquals("Invalid request: unknown field maxTileSize", unknown.getMessage());
+        for (IllegalArgumentException e : List.of(algorithm, area, unknown)) {
+            assertFalse(e.getMessage().contains("\n"), e.getMessage());
+            assertFalse(e.getMessage().contains("TilingRequest"), e.getMessage());
+        }
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.tilingservice.geojson;
+
+import com.example.tilingservice.model.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GeoJsonParser}, which builds a Jackson tree first, against the token-stream
+ * {@link StreamingGeoJsonParser} on a MultiPolygon of jittered rings. Run the main method;
+ * the GC profiler reports {@code gc.alloc.rate.norm}, the bytes allocated per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoJsonParserBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int vertices;
+
+    private final GeoJsonParser treeParser = new GeoJsonParser();
+    private final StreamingGeoJsonParser streamingParser = new StreamingGeoJsonParser();
+    private String geoJson;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        int rings = Math.max(1, vertices / 10_000);
+        StringBuilder sb = new StringBuilder("{\"type\":\"Feature\",\"properties\":{},\"geometry\":"
+                + "{\"type\":\"MultiPolygon\",\"coordinates\":[");
+        for (int r = 0; r < rings; r++) {
+            sb.append(r > 0 ? ",[[" : "[[");
+            int count = vertices / rings;
+            for (int i = 0; i <= count; i++) {
+                double angle = 2 * Math.PI * (i % count) / count;
+                double radius = 0.01 * (0.5 + (i % count == 0 ? 0.5 : random.nextDouble()));
+                sb.append(i > 0 ? "," : "").append(String.format(Locale.ROOT, "[%.8f,%.8f]",
+                        r * 0.05 + radius * Math.cos(angle), 45 + radius * Math.sin(angle)));
+            }
+            sb.append("]]");
+        }
+        geoJson = sb.append("]}}").toString();
+    }
+
+    @Benchmark
+    public Shape treeParser() {
+        return treeParser.parse(geoJson);
+    }
+
+    @Benchmark
+    public Shape streamingParser() {
+        return streamingParser.parse(geoJson);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeoJsonParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.tilingservice.geojson;
 
+import com.example.tilingservice.model.Feature;
 import com.example.tilingservice.model.MultiPolygonShape;
 import com.example.tilingservice.model.PolygonShape;
 import com.example.tilingservice.model.Shape;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class GeoJsonParserTest {
@@ -64,4 +67,51 @@ class GeoJsonParserTest {
         
         assertThrows(IllegalArgumentException.class, () -> parser.parse(invalidGeoJson));
     }
+
+    @Test
+    void parseFeatures_FeatureCollection_ShouldKeyFeaturesByIdOrPosition() {
+        String geoJson = """
+            {
+                "type": "FeatureCollection",
+                "features": [
+                    {"type": "Feature", "id": "parcel-7", "geometry": {"type": "Polygon", "coordinates": [[[0,0], [0,1], [1,1], [0,0]]]}},
+                    {"type": "Feature", "geometry": {"type": "Polygon", "coordinates": [[[2,2], [2,3], [3,3], [2,2]]]}},
+                    {"type": "Feature", "id": 42, "geometry": {"type": "MultiPolygon", "coordinates": [[[[4,4], [4,5], [5,5], [4,4]]]]}}
+                ]
+            }
+            """;
+
+        List<Feature> features = parser.parseFeatures(geoJson);
+
+        assertEquals(List.of("parcel-7", "1", "42"), features.stream().map(Feature::getId).toList());
+        assertTrue(features.get(2).getShape() instanceof MultiPolygonShape);
+    }
+
+    @Test
+    void parseFeatures_DuplicateIds_ShouldThrowException() {
+        String geoJson = """
+            {"type": "FeatureCollection", "features": [
+                {"type": "Feature", "id": 1, "geometry": {"type": "Polygon", "coordinates": [[[0,0], [0,1], [1,1], [0,0]]]}},
+                {"type": "Feature", "id": "1", "geometry": {"type": "Polygon", "coordinates": [[[2,2], [2,3], [3,3], [2,2]]]}}
+            ]}
+            """;
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parseFeatures(geoJson));
+    }
+
+    @Test
+    void parseFeatures_PositionMatchingAnId_ShouldNotClash() {
+        String geoJson = """
+            {"type": "FeatureCollection", "features": [
+                {"type": "Feature", "id": "1", "geometry": {"type": "Polygon", "coordinates": [[[0,0], [0,1], [1,1], [0,0]]]}},
+                {"type": "Feature", "geometry": {"type": "Polygon", "coordinates": [[[2,2], [2,3], [3,3], [2,2]]]}},
+                {"type": "Feature", "id": "#1", "geometry": {"type": "Polygon", "coordinates": [[[4,4], [4,5], [5,5], [4,4]]]}},
+                {"type": "Feature", "geometry": {"type": "Polygon", "coordinates": [[[6,6], [6,7], [7,7], [6,6]]]}}
+            ]}
+            """;
+
+        List<Feature> features = parser.parseFeatures(geoJson);
+
+        assertEquals(List.of("1", "##1", "#1", "3"), features.stream().map(Feature::getId).toList());
+    }
 }
@@ -0,0 +1,230 @@
+package com.example.tilingservice.geojson;
+
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingGeoJsonParserTest {
+
+    private final StreamingGeoJsonParser parser = new StreamingGeoJsonParser();
+    private final GeoJsonParser treeParser = new GeoJsonParser();
+
+    @Test
+    void parse_ShouldMatchTreeParser() {
+        Random random = new Random(1);
+        List<String> documents = List.of(
+            "{\"type\":\"Polygon\",\"coordinates\":[" + ring(random, 50, 0, 0) + "," + ring(random, 7, 0.2, 0.2) + "]}",
+            "{\"type\":\"Feature\",\"properties\":{\"name\":\"a\",\"tags\":[1,[2]]},\"geometry\":"
+                + "{\"type\":\"MultiPolygon\",\"coordinates\":[[" + ring(random, 30, 0, 0) + "],[" + ring(random, 12, 5, 5)
+                + "," + ring(random, 5, 5.1, 5.1) + "]]}}",
+            // Integers, altitudes and a ring that isn't closed
+            "{\"type\":\"Polygon\",\"coordinates\":[[[0,0,12.5],[0,1,3],[1,1,0],[1,0,0]]]}"
+        );
+
+        for (String document : documents) {
+            assertEquals(treeParser.parse(document), parser.parse(document));
+        }
+    }
+
+    @Test
+    void parse_MembersInAnyOrder_ShouldReadCoordinatesBeforeType() {
+        Shape shape = parser.parse("""
+            {"geometry": {"coordinates": [[[[0,0], [0,1], [1,1], [0,0]]]], "type": "MultiPolygon"},
+             "bbox": [0, 0, 1, 1], "type": "Feature"}
+            """);
+
+        assertInstanceOf(MultiPolygonShape.class, shape);
+        assertEquals(4, ((MultiPolygonShape) shape).getPolygons().get(0).getOuterBoundary().size());
+    }
+
+    @Test
+    void parse_UnsupportedType_ShouldNameType() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse("{\"type\":\"Point\",\"coordinates\":[1,2]}"));
+
+        assertTrue(e.getMessage().contains("Unsupported geometry type: Point"), e.getMessage());
+    }
+
+    @Test
+    void parse_BadPosition_ShouldReportLineAndColumn() {
+        String geoJson = """
+            {
+                "type": "Polygon",
+                "coordinates": [[[0,0], [0,1], [1,"x"], [0,0]]]
+            }
+            """;
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parser.parse(geoJson));
+
+        assertTrue(e.getMessage().contains("line 3, column"), e.getMessage());
+        assertTrue(e.getMessage().contains("expected a coordinate number"), e.getMessage());
+    }
+
+    @Test
+    void parse_WrongNesting_ShouldReportCoordinatesLocation() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> parser.parse("{\"type\":\"Polygon\",\n\"coordinates\":[[0,0],[0,1],[1,1],[0,0]]}"));
+
+        assertTrue(e.getMessage().contains("nested 3 deep"), e.getMessage());
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+
+    @Test
+    void parse_InvalidJson_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("{ invalid json }"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[0,1]"));
+    }
+
+    @Test
+    void parseFeatures_FeatureCollection_ShouldMatchTreeParser() {
+        String geoJson = """
+            {
+                "features": [
+                    {"type": "Feature", "id": "parcel-7", "geometry": {"type": "Polygon", "coordinates": [[[0,0], [0,1], [1,1], [0,0]]]}},
+                    {"type": "Feature", "geometry": {"type": "Polygon", "coordinates": [[[2,2], [2,3], [3,3], [2,2]]]}},
+                    {"type": "Feature", "id": 42, "geometry": {"type": "MultiPolygon", "coordinates": [[[[4,4], [4,5], [5,5], [4,4]]]]}}
+                ],
+                "type": "FeatureCollection"
+            }
+            """;
+
+        List<Feature> features = parser.parseFeatures(geoJson);
+
+        assertEquals(List.of("parcel-7", "1", "42"), features.stream().map(Feature::getId).toList());
+        assertEquals(treeParser.parseFeatures(geoJson), features);
+        assertInstanceOf(PolygonShape.class, parser.parseFeatures(
+            "{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[0,1],[1,1],[0,0]]]}").get(0).getShape());
+    }
+
+    @Test
+    void parseFeatures_BadFeature_ShouldNameFeature() {
+        String geoJson = """
+            {"type": "FeatureCollection", "features": [
+                {"type": "Feature", "id": "ok", "geometry": {"type": "Polygon", "coordinates": [[[0,0], [0,1], [1,1], [0,0]]]}},
+                {"type": "Feature", "id": "broken", "geometry": null}
+            ]}
+            """;
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parser.parseFeatures(geoJson));
+
+        assertTrue(e.getMessage().contains("feature broken"), e.getMessage());
+        assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+            () -> parser.parseFeatures("{\"type\": \"FeatureCollection\", \"features\": []}"));
+    }
+
+    @Test
+    void parseFeatures_PositionMatchingAnId_ShouldNotClash() {
+        String geoJson = """
+            {"type": "FeatureCollection", "features": [
+                {"type": "Feature", "id": "1", "geometry": {"type": "Polygon", "coordinates": [[[0,0], [0,1], [1,1], [0,0]]]}},
+                {"type": "Feature", "geometry": {"type": "Polygon", "coordinates": [[[2,2], [2,3], [3,3], [2,2]]]}},
+                {"type": "Feature", "id": "#1", "geometry": {"type": "Polygon", "coordinates": [[[4,4], [4,5], [5,5], [4,4]]]}},
+                {"type": "Feature", "geometry": {"type": "Polygon", "coordinates": [[[6,6], [6,7], [7,7], [6,6]]]}}
+            ]}
+            """;
+
+        List<Feature> features = parser.parseFeatures(geoJson);
+
+        assertEquals(List.of("1", "##1", "#1", "3"), features.stream().map(Feature::getId).toList());
+    }
+
+    @Test
+    void streamFeatures_ShouldYieldFeaturesInOrderAndCountBytes() throws IOException {
+        String geoJson = """
+            {"type": "FeatureCollection", "features": [
+                {"type": "Feature", "id": "parcel-7", "geometry": {"type": "Polygon", "coordinates": [[[0,0], [0,1], [1,1], [0,0]]]}},
+                {"type": "Feature", "geometry": {"type": "Polygon", "coordinates": [[[2,2], [2,3], [3,3], [2,2]]]}},
+                {"type": "Feature", "id": 42, "geometry": {"type": "MultiPolygon", "coordinates": [[[[4,4], [4,5], [5,5], [4,4]]]]}}
+            ], "bbox": [0, 0, 5, 5]}
+            """;
+        byte[] bytes = geoJson.getBytes(StandardCharsets.UTF_8);
+
+        List<Feature> features = new ArrayList<>();
+        long previousOffset = 0;
+        try (StreamingGeoJsonParser.FeatureStream stream = parser.streamFeatures(new ByteArrayInputStream(bytes))) {
+            while (stream.hasNext()) {
+                features.add(stream.next());
+                assertTrue(stream.getBytesRead() > previousOffset);
+                previousOffset = stream.getBytesRead();
+            }
+            assertEquals(3, stream.getFeatureCount());
+            assertEquals(bytes.length, stream.getBytesRead(), 1);
+        }
+
+        assertEquals(parser.parseFeatures(geoJson), features);
+    }
+
+    @Test
+    void streamFeatures_SingleFeatureOrGeometry_ShouldYieldOneFeature() throws IOException {
+        String polygon = "{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[0,1],[1,1],[0,0]]]}";
+
+        for (String geoJson : List.of(polygon, "{\"type\":\"Feature\",\"id\":\"a\",\"geometry\":" + polygon + "}")) {
+            try (StreamingGeoJsonParser.FeatureStream stream = parser.streamFeatures(stream(geoJson))) {
+                List<Feature> features = new ArrayList<>();
+                stream.forEachRemaining(features::add);
+                assertEquals(parser.parseFeatures(geoJson), features);
+            }
+        }
+    }
+
+    @Test
+    void streamFeatures_BadInput_ShouldFailAtTheBadFeature() throws IOException {
+        String geoJson = """
+            {"type": "FeatureCollection", "features": [
+                {"type": "Feature", "id": "ok", "geometry": {"type": "Polygon", "coordinates": [[[0,0], [0,1], [1,1], [0,0]]]}},
+                {"type": "Feature", "id": "broken", "geometry": null}
+            ]}
+            """;
+
+        try (StreamingGeoJsonParser.FeatureStream stream = parser.streamFeatures(stream(geoJson))) {
+            assertEquals("ok", stream.next().getId());
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, stream::hasNext);
+            assertTrue(e.getMessage().contains("feature broken"), e.getMessage());
+        }
+        try (StreamingGeoJsonParser.FeatureStream stream = parser.streamFeatures(stream(geoJson.replace("null}", "null")))) {
+            stream.next();
+            assertThrows(IllegalArgumentException.class, stream::hasNext);
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> parser.streamFeatures(stream("{\"type\": \"FeatureCollection\", \"features\": []}")).hasNext());
+        assertThrows(IllegalArgumentException.class,
+            () -> parser.streamFeatures(stream("{\"type\": \"FeatureCollection\"}")));
+        assertThrows(IllegalArgumentException.class, () -> parser.streamFeatures(stream("[]")));
+    }
+
+    private static InputStream stream(String geoJson) {
+        return new ByteArrayInputStream(geoJson.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Closed ring of jittered positions around a center.
+     */
+    private static String ring(Random random, int vertices, double longitude, double latitude) {
+        StringBuilder sb = new StringBuilder("[");
+        String first = null;
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double r = 0.1 * (0.5 + random.nextDouble());
+            String position = String.format(Locale.ROOT, "[%.9f,%.9f]",
+                longitude + r * Math.cos(angle), latitude + r * Math.sin(angle));
+            first = first == null ? position : first;
+            sb.append(position).append(',');
+        }
+        return sb.append(first).append(']').toString();
+    }
+}
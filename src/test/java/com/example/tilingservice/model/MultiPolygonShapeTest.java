@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import static org.junit.jupiter.api.Assertions.*;
 
 class MultiPolygonShapeTest {
@@ -70,4 +71,52 @@ class MultiPolygonShapeTest {
         assertEquals(3, box.getNorthEast().getLatitude());
         assertEquals(3, box.getNorthEast().getLongitude());
     }
+
+    @Test
+    void contains_Archipelago_ShouldMatchCheckingEveryMember() {
+        MultiPolygonShape archipelago = archipelago(30);
+        Random random = new Random(1);
+        double[] points = new double[2 * 2000];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = 30 * random.nextDouble();
+        }
+
+        boolean[] inside = archipelago.containsAll(points);
+
+        for (int i = 0; i < inside.length; i++) {
+            Point point = new Point(points[2 * i + 1], points[2 * i]);
+            boolean expected = archipelago.getPolygons().stream().anyMatch(polygon -> polygon.contains(point));
+            assertEquals(expected, archipelago.contains(point));
+            assertEquals(expected, inside[i]);
+        }
+    }
+
+    @Test
+    void membersIntersecting_ShouldReturnOverlappingMembersInOrder() {
+        MultiPolygonShape archipelago = archipelago(30);
+
+        // Islands sit in a 30 x 30 grid of unit cells, member index = 30 * row + column
+        int[] members = archipelago.membersIntersecting(2.2, 5.2, 3.8, 5.8);
+
+        assertArrayEquals(new int[]{152, 153}, members);
+        assertArrayEquals(new int[]{0, 1}, multiPolygon.membersIntersecting(0.5, 0.5, 2.5, 2.5));
+    }
+
+    private static MultiPolygonShape archipelago(int size) {
+        List<PolygonShape> islands = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                double lat = row + 0.1;
+                double lon = column + 0.1;
+                islands.add(new PolygonShape(Arrays.asList(
+                    new Point(lat, lon),
+                    new Point(lat + 0.8, lon),
+                    new Point(lat + 0.8, lon + 0.8),
+                    new Point(lat, lon + 0.4),
+                    new Point(lat, lon)
+                ), new ArrayList<>()));
+            }
+        }
+        return new MultiPolygonShape(islands);
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.tilingservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutableBoxTest {
+
+    private static final BoundingBox UNIT = new BoundingBox(new Point(0, 0), new Point(1, 1));
+    private static final BoundingBox FAR = new BoundingBox(new Point(2, 3), new Point(4, 5));
+
+    @Test
+    void expandToInclude_ShouldMatchUnion() {
+        MutableBox box = new MutableBox();
+        box.expandToInclude(UNIT);
+        box.expandToInclude(FAR);
+
+        assertEquals(UNIT.union(FAR), box.toBoundingBox());
+    }
+
+    @Test
+    void emptyBox_ShouldIntersectNothingAndHaveNoArea() {
+        MutableBox box = new MutableBox();
+
+        assertTrue(box.isEmpty());
+        assertFalse(box.intersects(UNIT));
+        assertEquals(0, box.area());
+        assertEquals(1, box.enlargement(UNIT));
+        assertNull(box.toBoundingBox());
+    }
+
+    @Test
+    void intersects_ShouldMatchBoundingBox() {
+        MutableBox box = new MutableBox(UNIT);
+        BoundingBox touching = new BoundingBox(new Point(1, 1), new Point(2, 2));
+
+        assertTrue(box.intersects(touching));
+        assertEquals(UNIT.intersects(FAR), box.intersects(FAR));
+    }
+
+    @Test
+    void enlargement_ShouldBeGrowthOfAreaWithoutChangingTheBox() {
+        MutableBox box = new MutableBox(UNIT);
+
+        assertEquals(UNIT.union(FAR).getNorthEast().getLatitude() * UNIT.union(FAR).getNorthEast().getLongitude() - 1,
+                box.enlargement(FAR));
+        assertEquals(1, box.area());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.tilingservice.model;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedRingTest {
+
+    private static final List<Point> SQUARE = Arrays.asList(
+        new Point(0, 0),
+        new Point(0, 1),
+        new Point(1, 1),
+        new Point(1, 0),
+        new Point(0, 0)
+    );
+
+    @Test
+    void of_ClosedRing_ShouldKeepPointsAndEqualTheList() {
+        PackedRing ring = PackedRing.of(SQUARE);
+
+        assertEquals(SQUARE, ring);
+        assertEquals(SQUARE.hashCode(), ring.hashCode());
+        assertEquals(10, ring.getCoordinates().length);
+        assertEquals(1.0, ring.getLongitude(1));
+        assertEquals(0.0, ring.getLatitude(1));
+    }
+
+    @Test
+    void wrap_OpenRing_ShouldCloseTheArrayButNotTheList() {
+        double[] coordinates = {0, 0, 1, 0, 1, 1};
+
+        PackedRing ring = PackedRing.wrap(coordinates, 3);
+
+        assertEquals(3, ring.size());
+        assertArrayEquals(new double[]{0, 0, 1, 0, 1, 1, 0, 0}, ring.getCoordinates());
+    }
+
+    @Test
+    void wrap_ExactClosedArray_ShouldNotCopy() {
+        double[] coordinates = {0, 0, 1, 0, 1, 1, 0, 0};
+
+        assertSame(coordinates, PackedRing.wrap(coordinates, 4).getCoordinates());
+    }
+
+    @Test
+    void toJtsGeometry_ShouldShareTheCoordinateArray() {
+        PolygonShape polygon = new PolygonShape(SQUARE, List.of());
+
+        Polygon jts = (Polygon) polygon.toJtsGeometry(new GeometryFactory());
+
+        CoordinateSequence sequence = jts.getExteriorRing().getCoordinateSequence();
+        assertTrue(sequence instanceof PackedCoordinateSequence.Double);
+        assertSame(polygon.getOuterRing().getCoordinates(), ((PackedCoordinateSequence.Double) sequence).getRawCoordinates());
+        assertEquals(1.0, jts.getArea(), 1e-12);
+    }
+
+    @Test
+    void get_OutOfRange_ShouldThrow() {
+        PackedRing ring = PackedRing.of(SQUARE);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> ring.get(5));
+    }
+}
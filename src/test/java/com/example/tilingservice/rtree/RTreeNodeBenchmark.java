@@ -0,0 +1,225 @@
+package com.example.tilingservice.rtree;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.MutableBox;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.tile.RectangleTile;
+import com.example.tilingservice.tile.Tile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounding box unions the old way, a new {@link BoundingBox} per step, against
+ * {@link MutableBox}, and R-tree inserts on top of each. {@link AllocatingNode} is the
+ * insert path {@link RTreeNode} had before it kept its bounds in a MutableBox. Run the
+ * main method; the GC profiler reports {@code gc.alloc.rate.norm}, the bytes allocated
+ * per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RTreeNodeBenchmark {
+
+    private List<Tile> tiles;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        tiles = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            double latitude = random.nextDouble() * 80;
+            double longitude = random.nextDouble() * 170;
+            tiles.add(new RectangleTile(new BoundingBox(new Point(latitude, longitude),
+                    new Point(latitude + 0.01, longitude + 0.01))));
+        }
+    }
+
+    @Benchmark
+    public BoundingBox unionAllocating() {
+        BoundingBox union = tiles.get(0).getBoundingBox();
+        for (Tile tile : tiles) {
+            union = union.union(tile.getBoundingBox());
+        }
+        return union;
+    }
+
+    @Benchmark
+    public MutableBox unionInPlace() {
+        MutableBox union = new MutableBox();
+        for (Tile tile : tiles) {
+            union.expandToInclude(tile.getBoundingBox());
+        }
+        return union;
+    }
+
+    @Benchmark
+    public AllocatingNode insertAllocating() {
+        AllocatingNode root = new AllocatingNode();
+        for (Tile tile : tiles) {
+            root.insert(tile);
+        }
+        return root;
+    }
+
+    @Benchmark
+    public RTree insert() {
+        RTree tree = new RTree();
+        for (Tile tile : tiles) {
+            tree.insert(tile);
+        }
+        return tree;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RTreeNodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * The former RTreeNode insert: bounds are re-unioned from every entry after each
+     * insert, and child choice and splits union and measure new boxes and points.
+     */
+    static class AllocatingNode {
+        private static final int MAX_ENTRIES = 32;
+
+        private BoundingBox boundingBox;
+        private List<AllocatingNode> children = new ArrayList<>();
+        private final List<Tile> tiles = new ArrayList<>();
+        private boolean leaf = true;
+
+        void insert(Tile tile) {
+            if (leaf && tiles.size() < MAX_ENTRIES) {
+                tiles.add(tile);
+            } else {
+                if (leaf) {
+                    splitLeafNode();
+                }
+                chooseBestChild(tile.getBoundingBox()).insert(tile);
+            }
+            updateBoundingBox();
+        }
+
+        private void updateBoundingBox() {
+            if (leaf) {
+                if (tiles.isEmpty()) {
+                    boundingBox = null;
+                    return;
+                }
+                boundingBox = tiles.get(0).getBoundingBox();
+                for (Tile tile : tiles) {
+                    boundingBox = boundingBox.union(tile.getBoundingBox());
+                }
+            } else {
+                if (children.isEmpty()) {
+                    boundingBox = null;
+                    return;
+                }
+                boundingBox = children.get(0).boundingBox;
+                for (AllocatingNode child : children) {
+                    boundingBox = boundingBox.union(child.boundingBox);
+                }
+            }
+        }
+
+        private AllocatingNode chooseBestChild(BoundingBox box) {
+            AllocatingNode bestNode = null;
+            double minIncrease = Double.MAX_VALUE;
+            for (AllocatingNode child : children) {
+                double increase = increase(child.boundingBox, box);
+                if (increase < minIncrease) {
+                    minIncrease = increase;
+                    bestNode = child;
+                }
+            }
+            return bestNode != null ? bestNode : children.get(0);
+        }
+
+        private void splitLeafNode() {
+            AllocatingNode leaf1 = new AllocatingNode();
+            AllocatingNode leaf2 = new AllocatingNode();
+
+            Tile seed1 = null, seed2 = null;
+            double maxDistance = -1;
+            for (int i = 0; i < tiles.size(); i++) {
+                for (int j = i + 1; j < tiles.size(); j++) {
+                    double distance = distance(tiles.get(i).getBoundingBox(), tiles.get(j).getBoundingBox());
+                    if (distance > maxDistance) {
+                        maxDistance = distance;
+                        seed1 = tiles.get(i);
+                        seed2 = tiles.get(j);
+                    }
+                }
+            }
+            leaf1.tiles.add(seed1);
+            leaf2.tiles.add(seed2);
+            tiles.remove(seed1);
+            tiles.remove(seed2);
+
+            for (Tile tile : tiles) {
+                if (increase(leaf1.boundingBox, tile.getBoundingBox())
+                        < increase(leaf2.boundingBox, tile.getBoundingBox())) {
+                    leaf1.tiles.add(tile);
+                } else {
+                    leaf2.tiles.add(tile);
+                }
+            }
+            tiles.clear();
+
+            leaf = false;
+            children = new ArrayList<>();
+            children.add(leaf1);
+            children.add(leaf2);
+            leaf1.updateBoundingBox();
+            leaf2.updateBoundingBox();
+            updateBoundingBox();
+        }
+
+        private static double increase(BoundingBox current, BoundingBox box) {
+            if (current == null) return area(box);
+            return area(current.union(box)) - area(current);
+        }
+
+        private static double area(BoundingBox box) {
+            if (box == null) return 0;
+            double latDiff = box.getNorthEast().getLatitude() - box.getSouthWest().getLatitude();
+            double lonDiff = box.getNorthEast().getLongitude() - box.getSouthWest().getLongitude();
+            return Math.abs(latDiff * lonDiff);
+        }
+
+        private static double distance(BoundingBox box1, BoundingBox box2) {
+            Point center1 = center(box1);
+            Point center2 = center(box2);
+            double latDiff = center1.getLatitude() - center2.getLatitude();
+            double lonDiff = center1.getLongitude() - center2.getLongitude();
+            return Math.sqrt(latDiff * latDiff + lonDiff * lonDiff);
+        }
+
+        private static Point center(BoundingBox box) {
+            return new Point(
+                    (box.getSouthWest().getLatitude() + box.getNorthEast().getLatitude()) / 2,
+                    (box.getSouthWest().getLongitude() + box.getNorthEast().getLongitude()) / 2);
+        }
+    }
+}
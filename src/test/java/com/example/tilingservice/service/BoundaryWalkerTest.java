@@ -0,0 +1,93 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.tile.RectangleTile;
+import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.tile.TileFactory;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundaryWalkerTest {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private final GeoJsonParser parser = new GeoJsonParser();
+
+    @Test
+    void walk_ShouldCoverExactlyTheLeafCellsAboveThreshold() {
+        List<String> fixtures = List.of(
+            "{\"type\":\"Polygon\",\"coordinates\":[[[10,45],[10.013,45.002],[10.02,45.011],[10.008,45.017],"
+                + "[10.001,45.009],[10,45]],[[10.005,45.005],[10.01,45.006],[10.009,45.01],[10.005,45.005]]]}",
+            "{\"type\":\"MultiPolygon\",\"coordinates\":[[[[0,0],[0,0.004],[0.004,0.004],[0.004,0],[0,0]]],"
+                + "[[[0.006,0.006],[0.006,0.011],[0.012,0.011],[0.0095,0.008],[0.012,0.006],[0.006,0.006]]]]}"
+        );
+        TilingJob job = TilingJob.builder()
+            .maxTileArea(50000)
+            .minTileArea(800)
+            .coverageThreshold(0.3)
+            .algorithm(TilingAlgorithm.BOUNDARY_WALK)
+            .build();
+
+        for (String fixture : fixtures) {
+            Shape shape = parser.parse(fixture);
+            TilingContext context = new TilingContext(job, shape, geometryFactory);
+            BoundaryWalker walker = new BoundaryWalker(context, geometryFactory);
+            List<Tile> tiles = new ArrayList<>();
+            walker.walk(TileFactory.createInitialTile(shape.getBoundingBox()), tiles);
+
+            BoundingBox bounds = shape.getBoundingBox();
+            Geometry geometry = context.getGeometry();
+            int size = 1 << walker.getLeafLevel();
+            double minX = bounds.getSouthWest().getLongitude();
+            double minY = bounds.getSouthWest().getLatitude();
+            double width = (bounds.getNorthEast().getLongitude() - minX) / size;
+            double height = (bounds.getNorthEast().getLatitude() - minY) / size;
+            assertTrue(walker.getLeafLevel() >= 5);
+            assertTrue(walker.getBoundaryCellCount() < size * size / 2);
+
+            for (int column = 0; column < size; column++) {
+                for (int row = 0; row < size; row++) {
+                    double x0 = minX + column * width;
+                    double y0 = minY + row * height;
+                    Geometry cell = new RectangleTile(new BoundingBox(new Point(y0, x0),
+                        new Point(y0 + height, x0 + width))).toJtsPolygon(geometryFactory);
+                    boolean expected = cell.intersection(geometry).getArea() / cell.getArea() >= 0.3;
+
+                    assertEquals(expected, coveredBy(tiles, x0 + width / 2, y0 + height / 2),
+                        "cell " + column + "," + row);
+                }
+            }
+
+            // Interior cells are merged into larger blocks
+            double leafArea = width * height;
+            assertTrue(tiles.stream().anyMatch(tile -> tile.getArea() > 4 * leafArea * (1 - 1e-9)));
+        }
+    }
+
+    @Test
+    void morton_ShouldKeepBlocksContiguous() {
+        // The four cells of block (1, 0) one level up come right after those of block (0, 0)
+        assertEquals(4, BoundaryWalker.morton(2, 0));
+        assertEquals(7, BoundaryWalker.morton(3, 1));
+        assertEquals(8, BoundaryWalker.morton(0, 2));
+    }
+
+    private static boolean coveredBy(List<Tile> tiles, double x, double y) {
+        for (Tile tile : tiles) {
+            BoundingBox box = tile.getBoundingBox();
+            if (x > box.getSouthWest().getLongitude() && x < box.getNorthEast().getLongitude()
+                    && y > box.getSouthWest().getLatitude() && y < box.getNorthEast().getLatitude()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
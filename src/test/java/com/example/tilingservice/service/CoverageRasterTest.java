@@ -0,0 +1,76 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.utils.RectangleClipper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverageRasterTest {
+
+    private final GeoJsonParser parser = new GeoJsonParser();
+    private final RectangleClipper clipper = new RectangleClipper();
+
+    @Test
+    void coverageRatio_AlignedTiles_ShouldMatchClipper() {
+        List<String> fixtures = List.of(
+            "{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1],[0,0]],"
+                + "[[0.25,0.25],[0.75,0.25],[0.75,0.75],[0.25,0.75],[0.25,0.25]]]}",
+            // Clockwise outer ring with a clockwise hole
+            "{\"type\":\"Polygon\",\"coordinates\":[[[10,45],[10.001,45.009],[10.008,45.017],[10.02,45.011],"
+                + "[10.013,45.002],[10,45]],[[10.005,45.005],[10.009,45.01],[10.01,45.006],[10.005,45.005]]]}",
+            "{\"type\":\"MultiPolygon\",\"coordinates\":[[[[0,0],[0,0.004],[0.004,0.004],[0.004,0],[0,0]]],"
+                + "[[[0.006,0.006],[0.006,0.011],[0.012,0.011],[0.0095,0.008],[0.012,0.006],[0.006,0.006]]]]}"
+        );
+
+        for (String fixture : fixtures) {
+            Shape shape = parser.parse(fixture);
+            ShapeRings rings = new ShapeRings(shape);
+            BoundingBox bounds = shape.getBoundingBox();
+            CoverageRaster raster = new CoverageRaster(rings, bounds, 6);
+
+            double minX = bounds.getSouthWest().getLongitude();
+            double minY = bounds.getSouthWest().getLatitude();
+            double maxX = bounds.getNorthEast().getLongitude();
+            double maxY = bounds.getNorthEast().getLatitude();
+
+            for (int depth = 0; depth <= 6; depth++) {
+                int tiles = 1 << depth;
+                double width = (maxX - minX) / tiles;
+                double height = (maxY - minY) / tiles;
+                for (int i = 0; i < tiles; i++) {
+                    for (int j = 0; j < tiles; j++) {
+                        double x0 = minX + i * width;
+                        double y0 = minY + j * height;
+                        double expected = rings.coveredArea(clipper, x0, y0, x0 + width, y0 + height)
+                            / (width * height);
+
+                        assertEquals(expected, raster.coverageRatio(x0, y0, x0 + width, y0 + height), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void coverageRatio_UnalignedTile_ShouldReturnNaN() {
+        Shape shape = parser.parse("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1],[0,0]]]}");
+        CoverageRaster raster = new CoverageRaster(new ShapeRings(shape), shape.getBoundingBox(), 4);
+
+        assertTrue(Double.isNaN(raster.coverageRatio(0.01, 0, 0.5, 0.5)));
+        assertEquals(1.0, raster.coverageRatio(0, 0, 0.5, 0.5), 1e-12);
+    }
+
+    @Test
+    void getErrorBound_ShouldBeWellBelowOnePercent() {
+        Shape shape = parser.parse("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1],[0,0]]]}");
+        CoverageRaster raster = new CoverageRaster(new ShapeRings(shape), shape.getBoundingBox(),
+            CoverageRaster.MAX_LEVEL);
+
+        assertTrue(raster.getErrorBound() < 0.01);
+    }
+}
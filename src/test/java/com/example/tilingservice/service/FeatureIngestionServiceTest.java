@@ -0,0 +1,136 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.geojson.StreamingGeoJsonParser;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.rtree.RTreeSerializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureIngestionServiceTest {
+
+    private static final String POLYGON =
+        "{\"type\":\"Polygon\",\"coordinates\":[[[10,45],[10.013,45.002],[10.02,45.011],[10,45]]]}";
+
+    private static final TilingJob JOB = TilingJob.builder()
+        .maxTileArea(50000)
+        .minTileArea(500)
+        .coverageThreshold(0.5)
+        .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TileService tileService;
+    private FeatureIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        tileService = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(),
+                TileResultCache.disabled());
+        ingestionService = new FeatureIngestionService(tileService, new StreamingGeoJsonParser(), objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tileService.shutdown();
+    }
+
+    @Test
+    void ingest_ShouldWriteOneLinePerFeatureThenDone() throws IOException {
+        String geoJson = collection(5);
+        Path file = Files.createTempDirectory("ingest").resolve("features.geojson");
+        Files.writeString(file, geoJson);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        FeatureIngestionService.Progress progress = ingestionService.ingest(file, JOB, out);
+        List<JsonNode> lines = lines(out);
+
+        int tiles = tileService.generateTiles(POLYGON, JOB).size();
+        assertEquals(6, lines.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("f" + i, lines.get(i).get("id").asText());
+            assertEquals(tiles, lines.get(i).get("features").size());
+            assertEquals(i + 1, lines.get(i).get("progress").get("featuresDone").asLong());
+            assertTrue(lines.get(i).get("metadata").has("tileCount"));
+        }
+        assertTrue(lines.get(5).get("done").asBoolean());
+        assertEquals(5, progress.getFeaturesDone());
+        assertEquals(5L * tiles, progress.getTileCount());
+        assertEquals(Files.size(file), progress.getBytesRead(), 1);
+        assertNull(progress.getError());
+    }
+
+    @Test
+    void ingest_BadFeature_ShouldKeepEarlierResultsAndEndWithError() throws IOException {
+        String valid = collection(3);
+        String geoJson = valid.substring(0, valid.length() - 2)
+            + ",{\"type\":\"Feature\",\"id\":\"bad\",\"geometry\":{\"type\":\"Point\"}}]}";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        FeatureIngestionService.Progress progress = ingestionService.ingest(
+            new ByteArrayInputStream(geoJson.getBytes(StandardCharsets.UTF_8)), JOB, out);
+        List<JsonNode> lines = lines(out);
+
+        assertEquals(4, lines.size());
+        assertEquals("f2", lines.get(2).get("id").asText());
+        JsonNode last = lines.get(3);
+        assertTrue(last.get("error").asText().contains("feature bad"), last.toString());
+        assertEquals(3, last.get("progress").get("featuresDone").asLong());
+        assertEquals(3, progress.getFeaturesDone());
+        assertNotNull(progress.getError());
+    }
+
+    @Test
+    void ingest_TilingFailure_ShouldStillEndWithError() throws IOException {
+        TileService failing = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(),
+                TileResultCache.disabled()) {
+            @Override
+            TilingResult generateTilingUncached(Shape shape, TilingJob job) {
+                throw new NullPointerException();
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            FeatureIngestionService.Progress progress = new FeatureIngestionService(failing, new StreamingGeoJsonParser(),
+                    objectMapper).ingest(new ByteArrayInputStream(collection(3).getBytes(StandardCharsets.UTF_8)), JOB, out);
+            List<JsonNode> lines = lines(out);
+
+            assertEquals(1, lines.size());
+            assertEquals("NullPointerException", lines.get(0).get("error").asText());
+            assertEquals(0, progress.getFeaturesDone());
+        } finally {
+            failing.shutdown();
+        }
+    }
+
+    private static String collection(int features) {
+        StringBuilder sb = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+        for (int i = 0; i < features; i++) {
+            sb.append(i > 0 ? "," : "")
+                .append("{\"type\":\"Feature\",\"id\":\"f").append(i).append("\",\"geometry\":").append(POLYGON).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
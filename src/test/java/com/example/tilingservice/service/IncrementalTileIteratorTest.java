@@ -0,0 +1,147 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.rtree.RTreeSerializer;
+import com.example.tilingservice.tile.Tile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalTileIteratorTest {
+
+    private static final String POLYGON = """
+        {"type": "Polygon", "coordinates": [
+            [[10,45], [10.013,45.002], [10.02,45.011], [10.008,45.017], [10.001,45.009], [10,45]],
+            [[10.005,45.005], [10.01,45.006], [10.009,45.01], [10.005,45.005]]
+        ]}
+        """;
+
+    // One vertex nudged, bounding box unchanged
+    private static final String EDITED = """
+        {"type": "Polygon", "coordinates": [
+            [[10,45], [10.0124,45.0027], [10.02,45.011], [10.008,45.017], [10.001,45.009], [10,45]],
+            [[10.005,45.005], [10.01,45.006], [10.009,45.01], [10.005,45.005]]
+        ]}
+        """;
+
+    // Hole moved, and the shape grows past its old bounding box
+    private static final String GROWN = """
+        {"type": "Polygon", "coordinates": [
+            [[10,45], [10.013,45.002], [10.023,45.011], [10.008,45.017], [10.001,45.009], [10,45]],
+            [[10.006,45.005], [10.01,45.007], [10.009,45.01], [10.006,45.005]]
+        ]}
+        """;
+
+    private TileService cached;
+    private TileService uncached;
+
+    @BeforeEach
+    void setUp() {
+        cached = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(),
+                new TileResultCache(1 << 24, null, 0, new ObjectMapper()));
+        uncached = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(),
+                TileResultCache.disabled());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cached.shutdown();
+        uncached.shutdown();
+    }
+
+    // L shape whose edges lie on quadtree lines, so its tiles sit right on the full-coverage border
+    private static final String NOTCHED = """
+        {"type": "Polygon", "coordinates": [
+            [[0,0], [0,0.01], [0.005,0.01], [0.005,0.005], [0.01,0.005], [0.01,0], [0,0]]
+        ]}
+        """;
+
+    private static final String NOTCHED_EDITED = """
+        {"type": "Polygon", "coordinates": [
+            [[0,0], [0,0.01], [0.005,0.01], [0.005,0.0025], [0.01,0.005], [0.01,0], [0,0]]
+        ]}
+        """;
+
+    @Test
+    void generateTiling_EditedShape_ShouldMatchFullRetiling() {
+        for (TilingAlgorithm algorithm : List.of(TilingAlgorithm.QUADTREE, TilingAlgorithm.CLIP_DESCEND)) {
+            for (TileGrid grid : TileGrid.values()) {
+                for (boolean compact : new boolean[]{false, true}) {
+                    TilingJob job = TilingJob.builder().maxTileArea(20000).minTileArea(50)
+                            .algorithm(algorithm).grid(grid).compact(compact).build();
+                    String label = algorithm + " " + grid + " compact=" + compact;
+
+                    String previousId = (String) cached.generateTiling(POLYGON, job).getMetadata().get("resultId");
+                    TilingJob edit = job.toBuilder().previousResultId(previousId).build();
+                    TilingResult incremental = cached.generateTiling(EDITED, edit);
+
+                    assertEquals(algorithm == TilingAlgorithm.QUADTREE ? previousId : null,
+                            incremental.getMetadata().get("reusedFrom"), label);
+                    assertEquals(boxes(uncached.generateTiles(EDITED, job)), boxes(incremental.getTiles()), label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void streamTiling_EditedShape_ShouldMatchFullRetiling() {
+        TilingJob job = TilingJob.builder().maxTileArea(20000).minTileArea(50).compact(true).build();
+        TilingStream original = cached.streamTiling(POLYGON, job);
+        original.getTiles().forEach(tile -> { });
+        String previousId = (String) original.getMetadata().get("resultId");
+
+        TilingStream incremental = cached.streamTiling(EDITED, job.toBuilder().previousResultId(previousId).build());
+        List<Tile> tiles = incremental.getTiles().collect(Collectors.toList());
+
+        assertEquals(previousId, incremental.getMetadata().get("reusedFrom"));
+        assertEquals(boxes(uncached.generateTiles(EDITED, job)), boxes(tiles));
+    }
+
+    @Test
+    void generateTiling_ClipDescendOnCoverageBorder_ShouldMatchFullRetiling() {
+        for (TileGrid grid : TileGrid.values()) {
+            TilingJob job = TilingJob.builder().maxTileArea(20000).minTileArea(50).coverageThreshold(1.0)
+                    .algorithm(TilingAlgorithm.CLIP_DESCEND).grid(grid).build();
+            String previousId = (String) cached.generateTiling(NOTCHED, job).getMetadata().get("resultId");
+
+            TilingResult result = cached.generateTiling(NOTCHED_EDITED, job.toBuilder().previousResultId(previousId).build());
+
+            assertNull(result.getMetadata().get("reusedFrom"));
+            assertEquals(boxes(uncached.generateTiles(NOTCHED_EDITED, job)), boxes(result.getTiles()), grid.name());
+        }
+    }
+
+    @Test
+    void generateTiling_MovedBoundingBox_ShouldRetileFromScratch() {
+        TilingJob job = TilingJob.builder().maxTileArea(20000).minTileArea(50).build();
+        String previousId = (String) cached.generateTiling(POLYGON, job).getMetadata().get("resultId");
+
+        TilingResult result = cached.generateTiling(GROWN, job.toBuilder().previousResultId(previousId).build());
+
+        assertNull(result.getMetadata().get("reusedFrom"));
+        assertEquals(boxes(uncached.generateTiles(GROWN, job)), boxes(result.getTiles()));
+    }
+
+    @Test
+    void generateTiling_PreviousResultWithOtherParameters_ShouldRetileFromScratch() {
+        TilingJob job = TilingJob.builder().maxTileArea(20000).minTileArea(50).build();
+        String previousId = (String) cached.generateTiling(POLYGON, job).getMetadata().get("resultId");
+        TilingJob other = job.toBuilder().minTileArea(100).previousResultId(previousId).build();
+
+        TilingResult result = cached.generateTiling(EDITED, other);
+
+        assertNull(result.getMetadata().get("reusedFrom"));
+        assertEquals(boxes(uncached.generateTiles(EDITED, other)), boxes(result.getTiles()));
+    }
+
+    private static List<String> boxes(List<Tile> tiles) {
+        return tiles.stream().map(tile -> tile.getBoundingBox().toString()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.rtree.RTreeSerializer;
+import com.example.tilingservice.tile.Tile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressiveTilerTest {
+
+    private static final String POLYGON = """
+        {"type": "Polygon", "coordinates": [
+            [[10,45], [10.013,45.002], [10.02,45.011], [10.008,45.017], [10.001,45.009], [10,45]],
+            [[10.005,45.005], [10.01,45.006], [10.009,45.01], [10.005,45.005]]
+        ]}
+        """;
+
+    private TileResultCache cache;
+    private TileService tileService;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TileResultCache(1 << 24, null, 0, new ObjectMapper());
+        tileService = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(), cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tileService.shutdown();
+    }
+
+    @Test
+    void generateTiling_UnreachedLimits_ShouldMatchDepthFirstRun() {
+        for (TileGrid grid : TileGrid.values()) {
+            TilingJob job = TilingJob.builder().maxTileArea(20000).minTileArea(50).grid(grid).build();
+
+            TilingResult progressive = tileService.generateTiling(POLYGON,
+                    job.toBuilder().deadlineMillis(600_000).maxTiles(1_000_000).build());
+
+            assertEquals(Boolean.FALSE, progressive.getMetadata().get("partial"), grid.name());
+            assertEquals(boxes(tileService.generateTiles(POLYGON, job)), boxes(progressive.getTiles()), grid.name());
+        }
+    }
+
+    @Test
+    void generateTiling_TileBudget_ShouldReturnCoarserCoveringTiling() {
+        TilingJob job = TilingJob.builder().maxTileArea(20000).minTileArea(50).includeBoundingBox(false).build();
+        TilingResult complete = tileService.generateTiling(POLYGON, job.toBuilder().maxTiles(1_000_000).build());
+
+        TilingResult partial = tileService.generateTiling(POLYGON, job.toBuilder().maxTiles(40).build());
+
+        assertEquals(Boolean.TRUE, partial.getMetadata().get("partial"));
+        assertTrue(partial.getTiles().size() <= 40);
+        assertTrue((Integer) partial.getMetadata().get("levelReached") < (Integer) complete.getMetadata().get("levelReached"));
+        for (Tile tile : complete.getTiles()) {
+            assertTrue(partial.getTiles().stream().anyMatch(coarse -> contains(coarse.getBoundingBox(), tile.getBoundingBox())),
+                    "Tile " + tile.getBoundingBox() + " isn't covered");
+        }
+    }
+
+    @Test
+    void generateTiling_ExpiredDeadline_ShouldReturnPartialResultWithoutCachingIt() {
+        TilingJob job = TilingJob.builder().maxTileArea(20000).minTileArea(0.01).deadlineMillis(1).build();
+
+        TilingResult result = tileService.generateTiling(POLYGON, job);
+
+        assertEquals(Boolean.TRUE, result.getMetadata().get("partial"));
+        assertFalse(result.getTiles().isEmpty());
+        assertEquals(0L, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void streamTiling_BoundaryWalkWithBudget_ShouldBeRejected() {
+        TilingJob job = TilingJob.builder().algorithm(TilingAlgorithm.BOUNDARY_WALK).maxTiles(100).build();
+
+        assertThrows(IllegalArgumentException.class, () -> tileService.streamTiling(POLYGON, job));
+    }
+
+    private static boolean contains(BoundingBox outer, BoundingBox inner) {
+        double tolerance = 1e-12;
+        return outer.getSouthWest().getLatitude() <= inner.getSouthWest().getLatitude() + tolerance
+                && outer.getSouthWest().getLongitude() <= inner.getSouthWest().getLongitude() + tolerance
+                && outer.getNorthEast().getLatitude() >= inner.getNorthEast().getLatitude() - tolerance
+                && outer.getNorthEast().getLongitude() >= inner.getNorthEast().getLongitude() - tolerance;
+    }
+
+    private static List<String> boxes(List<Tile> tiles) {
+        return tiles.stream().map(tile -> tile.getBoundingBox().toString()).collect(Collectors.toList());
+    }
+}
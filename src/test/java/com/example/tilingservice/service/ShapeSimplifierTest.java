@@ -0,0 +1,102 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.MultiPolygonShape;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.PolygonShape;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.utils.RectangleClipper;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShapeSimplifierTest {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private final TilingJob job = TilingJob.builder()
+            .maxTileArea(100000)
+            .minTileArea(1000)
+            .coverageThreshold(0.1)
+            .build();
+
+    @Test
+    void simplify_DenseSurvey_ShouldDropVerticesAndKeepBounds() {
+        Random random = new Random(1);
+        MultiPolygonShape shape = new MultiPolygonShape(List.of(
+                new PolygonShape(circle(10, 45, 0.005, 20000, random), List.of(circle(10, 45, 0.002, 8000, random))),
+                new PolygonShape(circle(10.009, 45, 0.003, 12000, random), List.of())));
+
+        ShapeSimplifier.Result result = ShapeSimplifier.simplify(shape, job, geometryFactory,
+                TilingContext.DEFAULT_MAX_DEPTH);
+
+        assertEquals(40003, result.getVerticesBefore());
+        assertTrue(result.getVerticesAfter() < result.getVerticesBefore() / 20, String.valueOf(result.getVerticesAfter()));
+        assertInstanceOf(MultiPolygonShape.class, result.getShape());
+        assertEquals(shape.getBoundingBox(), result.getShape().getBoundingBox());
+        assertEquals(1, ((MultiPolygonShape) result.getShape()).getPolygons().get(0).getHoleRings().size());
+        assertTrue(result.getErrorBound() < job.getCoverageThreshold(), String.valueOf(result.getErrorBound()));
+    }
+
+    @Test
+    void simplify_ErrorBound_ShouldCoverEveryAlignedTile() {
+        Random random = new Random(2);
+        PolygonShape shape = new PolygonShape(circle(10, 45, 0.005, 20000, random), List.of());
+
+        ShapeSimplifier.Result result = ShapeSimplifier.simplify(shape, job, geometryFactory,
+                TilingContext.DEFAULT_MAX_DEPTH);
+
+        ShapeRings before = new ShapeRings(shape);
+        ShapeRings after = new ShapeRings(result.getShape());
+        RectangleClipper clipper = new RectangleClipper();
+        BoundingBox box = shape.getBoundingBox();
+        double maxError = 0;
+        for (int depth = 0; depth <= result.getErrorLevel(); depth++) {
+            int tiles = 1 << depth;
+            double width = (box.getNorthEast().getLongitude() - box.getSouthWest().getLongitude()) / tiles;
+            double height = (box.getNorthEast().getLatitude() - box.getSouthWest().getLatitude()) / tiles;
+            for (int i = 0; i < tiles; i++) {
+                for (int j = 0; j < tiles; j++) {
+                    double x0 = box.getSouthWest().getLongitude() + i * width;
+                    double y0 = box.getSouthWest().getLatitude() + j * height;
+                    double difference = before.coveredArea(clipper, x0, y0, x0 + width, y0 + height)
+                            - after.coveredArea(clipper, x0, y0, x0 + width, y0 + height);
+                    maxError = Math.max(maxError, Math.abs(difference) / (width * height));
+                }
+            }
+        }
+
+        assertTrue(maxError > 0);
+        assertTrue(maxError <= result.getErrorBound() + 1e-9, maxError + " > " + result.getErrorBound());
+    }
+
+    @Test
+    void simplify_NoCoverageThreshold_ShouldKeepShape() {
+        Shape shape = new PolygonShape(circle(10, 45, 0.005, 2000, new Random(3)), List.of());
+
+        ShapeSimplifier.Result result = ShapeSimplifier.simplify(shape, job.toBuilder().coverageThreshold(0).build(),
+                geometryFactory, TilingContext.DEFAULT_MAX_DEPTH);
+
+        assertSame(shape, result.getShape());
+        assertEquals(result.getVerticesBefore(), result.getVerticesAfter());
+        assertEquals(0, result.getErrorBound());
+    }
+
+    /**
+     * Closed ring of surveyed points around a circle, each off by up to a centimeter.
+     */
+    private static List<Point> circle(double longitude, double latitude, double radius, int vertices, Random random) {
+        List<Point> ring = new ArrayList<>();
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            ring.add(new Point(latitude + radius * Math.sin(angle) + 1e-7 * random.nextGaussian(),
+                    longitude + radius * Math.cos(angle) + 1e-7 * random.nextGaussian()));
+        }
+        ring.add(ring.get(0));
+        return ring;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.tile.TileFactory;
+import com.example.tilingservice.tile.WebMercatorTile;
+import com.example.tilingservice.utils.GeometryUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileAreaTableTest {
+
+    private static final BoundingBox BOX = new BoundingBox(new Point(45.0, 10.0), new Point(45.017, 10.023));
+
+    @Test
+    void areaInMeters_QuadtreeTiles_ShouldMatchDirectFormulaExactly() {
+        TileAreaTable table = TileAreaTable.forRoot(BOX);
+        List<Tile> level = List.of(TileFactory.createInitialTile(BOX));
+        for (int depth = 0; depth <= 6; depth++) {
+            List<Tile> next = new ArrayList<>();
+            for (Tile tile : level) {
+                // Twice, so the second lookup comes from the table
+                assertEquals(GeometryUtils.calculateAreaInMeters(tile.getBoundingBox()), table.areaInMeters(tile));
+                assertEquals(GeometryUtils.calculateAreaInMeters(tile.getBoundingBox()), table.areaInMeters(tile));
+                next.addAll(tile.subdivide());
+            }
+            level = next;
+        }
+    }
+
+    @Test
+    void areaInMeters_WebMercatorTiles_ShouldMatchDirectFormulaExactly() {
+        int zoom = WebMercatorTile.coveringZoom(BOX);
+        List<WebMercatorTile> covering = WebMercatorTile.covering(BOX, zoom);
+        int firstRow = covering.stream().mapToInt(WebMercatorTile::getY).min().getAsInt();
+        TileAreaTable table = TileAreaTable.forWebMercator(zoom, firstRow, 2);
+
+        List<Tile> level = new ArrayList<>(covering);
+        for (int depth = 0; depth <= 5; depth++) {
+            List<Tile> next = new ArrayList<>();
+            for (Tile tile : level) {
+                assertEquals(GeometryUtils.calculateAreaInMeters(tile.getBoundingBox()), table.areaInMeters(tile));
+                next.addAll(tile.subdivide());
+            }
+            level = next;
+        }
+        // Outside the table's rows
+        WebMercatorTile equator = new WebMercatorTile(zoom, 0, 1 << (zoom - 1));
+        assertEquals(GeometryUtils.calculateAreaInMeters(equator.getBoundingBox()), table.areaInMeters(equator));
+    }
+
+    @Test
+    void areaInMeters_TileOffTheGrid_ShouldFallBackToDirectFormula() {
+        TileAreaTable table = TileAreaTable.forRoot(BOX);
+        Tile tile = TileFactory.createTile(new Point(45.0031, 10.0), new Point(45.0042, 10.001));
+
+        assertEquals(GeometryUtils.calculateAreaInMeters(tile.getBoundingBox()), table.areaInMeters(tile));
+    }
+
+    @Test
+    void levelBelow_ShouldBeFirstLevelWhereEveryTileIsSmallEnough() {
+        TileAreaTable table = TileAreaTable.forRoot(BOX);
+        double minTileArea = 50;
+
+        int level = table.levelBelow(minTileArea);
+
+        List<Tile> tiles = List.of(TileFactory.createInitialTile(BOX));
+        for (int depth = 0; depth < level; depth++) {
+            List<Tile> next = new ArrayList<>();
+            tiles.forEach(tile -> next.addAll(tile.subdivide()));
+            tiles = next;
+        }
+        assertTrue(tiles.stream().allMatch(tile -> table.areaInMeters(tile) <= minTileArea));
+        assertEquals(29, table.levelBelow(0));
+    }
+}
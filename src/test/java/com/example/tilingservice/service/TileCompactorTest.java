@@ -0,0 +1,58 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.tile.RectangleTile;
+import com.example.tilingservice.tile.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileCompactorTest {
+
+    // Roughly 1.1 km on a side at the equator
+    private final BoundingBox root = new BoundingBox(new Point(0, 0), new Point(0.01, 0.01));
+
+    @Test
+    void compact_FourSiblings_ShouldMergeIntoParent() {
+        List<Tile> tiles = new ArrayList<>(new RectangleTile(root).subdivide());
+
+        List<Tile> compacted = new TileCompactor(root, 2e6).compact(tiles);
+
+        assertEquals(1, compacted.size());
+        assertEquals(root, compacted.get(0).getBoundingBox());
+    }
+
+    @Test
+    void compact_ParentAboveMaxTileArea_ShouldKeepSiblings() {
+        List<Tile> tiles = new ArrayList<>(new RectangleTile(root).subdivide());
+
+        assertEquals(4, new TileCompactor(root, 1e6).compact(tiles).size());
+    }
+
+    @Test
+    void compact_ShouldMergeBottomUpAndKeepDepthFirstOrder() {
+        // SW quadrant as four grandchildren, NW and SE as whole quadrants, NE missing
+        List<? extends Tile> quadrants = new RectangleTile(root).subdivide();
+        List<Tile> tiles = new ArrayList<>(quadrants.get(0).subdivide());
+        tiles.add(quadrants.get(1));
+        tiles.add(quadrants.get(3));
+
+        List<Tile> compacted = new TileCompactor(root, 2e6).compact(tiles);
+
+        assertEquals(List.of(quadrants.get(0), quadrants.get(1), quadrants.get(3)), compacted);
+    }
+
+    @Test
+    void compact_UnalignedTiles_ShouldPassThrough() {
+        List<Tile> tiles = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tiles.add(new RectangleTile(new BoundingBox(new Point(0.001, 0.001 * i), new Point(0.002, 0.001 * i + 0.001))));
+        }
+
+        assertEquals(tiles, new TileCompactor(root, 2e6).compact(tiles));
+    }
+}
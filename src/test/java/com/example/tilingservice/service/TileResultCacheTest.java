@@ -0,0 +1,141 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.rtree.RTreeSerializer;
+import com.example.tilingservice.tile.Tile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileResultCacheTest {
+
+    private static final String POLYGON = """
+        {"type": "Polygon", "coordinates": [
+            [[10,45], [10.013,45.002], [10.02,45.011], [10.008,45.017], [10.001,45.009], [10,45]],
+            [[10.005,45.005], [10.01,45.006], [10.009,45.01], [10.005,45.005]]
+        ]}
+        """;
+
+    // Same polygon, outer ring reversed and started elsewhere, hole unclosed
+    private static final String POLYGON_REORDERED = """
+        {"type": "Polygon", "coordinates": [
+            [[10.02,45.011], [10.013,45.002], [10,45], [10.001,45.009], [10.008,45.017], [10.02,45.011]],
+            [[10.01,45.006], [10.009,45.01], [10.005,45.005]]
+        ]}
+        """;
+
+    private final GeoJsonParser parser = new GeoJsonParser();
+    private TileService tileService;
+    private Path directory;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (tileService != null) {
+            tileService.shutdown();
+        }
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Test
+    void key_ShouldIgnoreRingOrientationStartAndParallelFlag() {
+        TileResultCache cache = new TileResultCache(1 << 20, null, 0, new ObjectMapper());
+        TilingJob job = TilingJob.builder().maxTileArea(50000).minTileArea(500).build();
+
+        String key = cache.key(parser.parse(POLYGON), job);
+
+        assertEquals(key, cache.key(parser.parse(POLYGON_REORDERED), job));
+        assertEquals(key, cache.key(parser.parse(POLYGON), job.toBuilder().parallel(true).build()));
+        assertNotEquals(key, cache.key(parser.parse(POLYGON), job.toBuilder().compact(true).build()));
+        assertNotEquals(key, cache.key(parser.parse(POLYGON), job.toBuilder().minTileArea(400).build()));
+    }
+
+    @Test
+    void generateTiling_RepeatedRequest_ShouldBeServedFromCache() {
+        TileResultCache cache = new TileResultCache(1 << 20, null, 0, new ObjectMapper());
+        tileService = service(cache);
+        TilingJob job = TilingJob.builder().maxTileArea(50000).minTileArea(500).compact(true).build();
+
+        TilingResult first = tileService.generateTiling(POLYGON, job);
+        TilingResult second = tileService.generateTiling(POLYGON_REORDERED, job);
+
+        assertEquals(boxes(first.getTiles()), boxes(second.getTiles()));
+        assertEquals(first.getMetadata(), second.getMetadata());
+        assertEquals(1L, cache.getStats().get("hitCount"));
+        assertEquals(1L, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void streamTiling_ConsumedStream_ShouldBeReplayedFromCache() {
+        TileResultCache cache = new TileResultCache(1 << 20, null, 0, new ObjectMapper());
+        tileService = service(cache);
+        TilingJob job = TilingJob.builder().maxTileArea(50000).minTileArea(500).compact(true).build();
+
+        TilingStream computed = tileService.streamTiling(POLYGON, job);
+        List<Tile> computedTiles = computed.getTiles().collect(Collectors.toList());
+        TilingStream replayed = tileService.streamTiling(POLYGON, job);
+        assertFalse(replayed.getMetadata().containsKey("tileCount"));
+        List<Tile> replayedTiles = replayed.getTiles().collect(Collectors.toList());
+
+        assertEquals(boxes(computedTiles), boxes(replayedTiles));
+        assertEquals(computed.getMetadata(), replayed.getMetadata());
+        assertEquals(1L, cache.getStats().get("hitCount"));
+    }
+
+    @Test
+    void get_DiskTier_ShouldSurviveNewCacheInstance() throws IOException {
+        directory = Files.createTempDirectory("tile-cache");
+        TilingJob job = TilingJob.builder().maxTileArea(50000).minTileArea(500).build();
+        tileService = service(new TileResultCache(1 << 20, directory.toString(), 1 << 20, new ObjectMapper()));
+        List<Tile> expected = tileService.generateTiles(POLYGON, job);
+        tileService.shutdown();
+
+        TileResultCache restarted = new TileResultCache(1 << 20, directory.toString(), 1 << 20, new ObjectMapper());
+        Shape shape = parser.parse(POLYGON);
+        TilingResult cached = restarted.get(restarted.key(shape, job));
+
+        assertNotNull(cached);
+        assertEquals(boxes(expected), boxes(cached.getTiles()));
+        assertEquals(1L, restarted.getStats().get("diskHitCount"));
+    }
+
+    @Test
+    void put_OverBudget_ShouldEvictOlderEntries() {
+        TileResultCache cache = new TileResultCache(4096, null, 0, new ObjectMapper());
+        tileService = service(cache);
+
+        for (int i = 0; i < 8; i++) {
+            tileService.generateTiling(POLYGON, TilingJob.builder().maxTileArea(50000).minTileArea(500 + i).build());
+        }
+
+        Map<String, Object> stats = cache.getStats();
+        assertTrue((Long) stats.get("evictionCount") > 0);
+        assertTrue((Long) stats.get("weightBytes") <= 4096);
+    }
+
+    private TileService service(TileResultCache cache) {
+        return new TileService(parser, new RTreeSerializer(), new GeometryFactory(), cache);
+    }
+
+    private static List<String> boxes(List<Tile> tiles) {
+        return tiles.stream().map(tile -> tile.getBoundingBox().toString()).collect(Collectors.toList());
+    }
+}
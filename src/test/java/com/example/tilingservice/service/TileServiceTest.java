@@ -0,0 +1,399 @@
+package com.example.tilingservice.service;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Feature;
+import com.example.tilingservice.rtree.RTreeSerializer;
+import com.example.tilingservice.tile.Tile;
+import com.example.tilingservice.tile.WebMercatorTile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileServiceTest {
+
+    private static final String POLYGON = """
+        {
+            "type": "Polygon",
+            "coordinates": [
+                [[10,45], [10.013,45.002], [10.02,45.011], [10.008,45.017], [10.001,45.009], [10,45]],
+                [[10.005,45.005], [10.01,45.006], [10.009,45.01], [10.005,45.005]]
+            ]
+        }
+        """;
+
+    private static final String MULTI_POLYGON = """
+        {
+            "type": "MultiPolygon",
+            "coordinates": [
+                [[[0,0], [0,0.004], [0.004,0.004], [0.004,0], [0,0]]],
+                [[[0.006,0.006], [0.006,0.011], [0.012,0.011], [0.0095,0.008], [0.012,0.006], [0.006,0.006]]]
+            ]
+        }
+        """;
+
+    private TileService tileService;
+
+    @BeforeEach
+    void setUp() {
+        tileService = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(),
+                TileResultCache.disabled());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tileService.shutdown();
+    }
+
+    @Test
+    void generateTiles_Parallel_ShouldMatchSequential() {
+        for (String geoJson : List.of(POLYGON, MULTI_POLYGON)) {
+            TilingJob sequential = TilingJob.builder()
+                .maxTileArea(50000)
+                .minTileArea(500)
+                .coverageThreshold(0.5)
+                .build();
+            TilingJob parallel = sequential.toBuilder().parallel(true).build();
+
+            List<BoundingBox> expected = boxes(tileService.generateTiles(geoJson, sequential));
+            List<BoundingBox> actual = boxes(tileService.generateTiles(geoJson, parallel));
+
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void generateTiles_ClipDescend_ShouldMatchQuadtree() {
+        for (String geoJson : List.of(POLYGON, MULTI_POLYGON)) {
+            TilingJob quadtree = TilingJob.builder()
+                .maxTileArea(5000)
+                .minTileArea(100)
+                .coverageThreshold(0.9)
+                .build();
+            TilingJob clipDescend = quadtree.toBuilder().algorithm(TilingAlgorithm.CLIP_DESCEND).build();
+
+            List<BoundingBox> expected = boxes(tileService.generateTiles(geoJson, quadtree));
+            List<BoundingBox> actual = boxes(tileService.generateTiles(geoJson, clipDescend));
+
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void generateTiling_RasterCoverage_ShouldMatchClipAndReportErrorBound() {
+        TilingJob clip = TilingJob.builder()
+            .maxTileArea(5000)
+            .minTileArea(100)
+            .coverageThreshold(0.9)
+            .build();
+        TilingJob raster = clip.toBuilder().coverageMode(CoverageMode.RASTER).build();
+
+        TilingResult expected = tileService.generateTiling(new GeoJsonParser().parse(POLYGON), clip);
+        TilingResult actual = tileService.generateTiling(new GeoJsonParser().parse(POLYGON), raster);
+
+        assertEquals(boxes(expected.getTiles()), boxes(actual.getTiles()));
+        assertFalse(expected.getMetadata().containsKey("coverageErrorBound"));
+        assertTrue((Double) actual.getMetadata().get("coverageErrorBound") < 0.01);
+    }
+
+    @Test
+    void generateTiling_Simplify_ShouldReportReductionAndKeepBoundingBox() {
+        TilingJob job = TilingJob.builder()
+            .maxTileArea(5000)
+            .minTileArea(100)
+            .coverageThreshold(0.5)
+            .build();
+
+        TilingResult plain = tileService.generateTiling(new GeoJsonParser().parse(POLYGON), job);
+        TilingResult simplified = tileService.generateTiling(new GeoJsonParser().parse(POLYGON),
+            job.toBuilder().simplify(true).build());
+
+        assertEquals(plain.getTiles().get(0), simplified.getTiles().get(0));
+        assertEquals(10, simplified.getMetadata().get("verticesBefore"));
+        assertTrue((Integer) simplified.getMetadata().get("verticesAfter") <= 10);
+        assertTrue((Double) simplified.getMetadata().get("simplificationErrorBound") < job.getCoverageThreshold());
+        assertThrows(IllegalArgumentException.class, () -> tileService.generateTiling(
+            new GeoJsonParser().parse(POLYGON), job.toBuilder().simplify(true).grid(TileGrid.WEB_MERCATOR).build()));
+    }
+
+    @Test
+    void generateTiling_Compact_ShouldCoverSameAreaWithFewerTiles() {
+        for (TilingAlgorithm algorithm : TilingAlgorithm.values()) {
+            TilingJob job = TilingJob.builder()
+                .maxTileArea(200000)
+                .minTileArea(500)
+                .coverageThreshold(0.5)
+                .algorithm(algorithm)
+                .build();
+
+            TilingResult plain = tileService.generateTiling(new GeoJsonParser().parse(POLYGON), job);
+            TilingResult compact = tileService.generateTiling(new GeoJsonParser().parse(POLYGON),
+                job.toBuilder().compact(true).build());
+
+            assertTrue(compact.getTiles().size() < plain.getTiles().size(), algorithm.name());
+            assertEquals(plain.getTiles().size(), compact.getMetadata().get("tileCountBeforeCompaction"));
+            assertEquals(totalArea(plain.getTiles()), totalArea(compact.getTiles()), 1e-12);
+            assertEquals(plain.getTiles().get(0), compact.getTiles().get(0));
+        }
+    }
+
+    @Test
+    void generateTiling_WebMercatorGrid_ShouldShareTilesAcrossRequests() {
+        String shifted = POLYGON.replace("[10,45]", "[10.0004,45.0003]");
+        TilingJob job = TilingJob.builder()
+            .maxTileArea(50000)
+            .minTileArea(500)
+            .coverageThreshold(0.5)
+            .grid(TileGrid.WEB_MERCATOR)
+            .includeBoundingBox(false)
+            .build();
+
+        List<Tile> first = tileService.generateTiles(POLYGON, job);
+        List<Tile> second = tileService.generateTiles(shifted, job);
+
+        assertFalse(first.isEmpty());
+        assertTrue(first.stream().allMatch(WebMercatorTile.class::isInstance));
+        List<Tile> shared = new ArrayList<>(first);
+        shared.retainAll(second);
+        assertTrue(shared.size() > first.size() / 2);
+
+        List<Tile> compacted = tileService.generateTiles(POLYGON, job.toBuilder().compact(true).build());
+        assertTrue(compacted.stream().allMatch(WebMercatorTile.class::isInstance));
+        assertEquals(totalArea(first), totalArea(compacted), 1e-12);
+    }
+
+    @Test
+    void generateBatch_ShouldMatchPerFeatureTilingAndShareOverlappingTiles() {
+        String collection = "{\"type\":\"FeatureCollection\",\"features\":["
+            + "{\"type\":\"Feature\",\"id\":\"a\",\"geometry\":" + POLYGON + "},"
+            + "{\"type\":\"Feature\",\"id\":\"b\",\"geometry\":" + POLYGON.replace("[10,45]", "[10.0004,45.0003]") + "},"
+            + "{\"type\":\"Feature\",\"geometry\":" + MULTI_POLYGON + "}]}";
+        TilingJob job = TilingJob.builder()
+            .maxTileArea(50000)
+            .minTileArea(500)
+            .coverageThreshold(0.5)
+            .grid(TileGrid.WEB_MERCATOR)
+            .build();
+
+        BatchTilingResult batch = tileService.generateBatch(collection, job, false);
+        assertEquals(List.of("a", "b", "2"), new ArrayList<>(batch.getResults().keySet()));
+        assertEquals(boxes(tileService.generateTiles(MULTI_POLYGON, job)), boxes(batch.getResults().get("2").getTiles()));
+
+        BatchTilingResult deduplicated = tileService.generateBatch(collection, job, true);
+        int uniqueTiles = (Integer) deduplicated.getMetadata().get("uniqueTileCount");
+        assertTrue(uniqueTiles < ((Number) deduplicated.getMetadata().get("tileCount")).intValue());
+        assertEquals(uniqueTiles, deduplicated.getSharedTiles().size());
+        for (String id : batch.getResults().keySet()) {
+            List<Tile> rebuilt = new ArrayList<>();
+            for (int index : deduplicated.getTileIndexes().get(id)) {
+                rebuilt.add(deduplicated.getSharedTiles().get(index));
+            }
+            assertEquals(boxes(batch.getResults().get(id).getTiles()), boxes(rebuilt), id);
+        }
+    }
+
+    @Test
+    void generateBatch_ShouldBypassResultCache() {
+        TileResultCache cache = new TileResultCache(1 << 24, null, 0, new ObjectMapper());
+        TileService cachingService = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(),
+                cache);
+        try {
+            TilingJob job = TilingJob.builder().maxTileArea(50000).minTileArea(500).build();
+            TilingResult interactive = cachingService.generateTiling(POLYGON, job);
+            String collection = "{\"type\":\"FeatureCollection\",\"features\":["
+                + "{\"type\":\"Feature\",\"id\":\"a\",\"geometry\":" + POLYGON + "},"
+                + "{\"type\":\"Feature\",\"id\":\"b\",\"geometry\":" + MULTI_POLYGON + "}]}";
+
+            BatchTilingResult batch = cachingService.generateBatch(collection, job, false);
+
+            assertEquals(boxes(interactive.getTiles()), boxes(batch.getResults().get("a").getTiles()));
+            assertNull(batch.getResults().get("a").getMetadata().get("resultId"));
+            assertEquals(1L, cache.getStats().get("entries"));
+            assertEquals(0L, cache.getStats().get("hitCount"));
+        } finally {
+            cachingService.shutdown();
+        }
+    }
+
+    @Test
+    void tileEach_ShouldDeliverInInputOrderThenRethrowReadError() throws Exception {
+        GeoJsonParser parser = new GeoJsonParser();
+        List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            features.add(new Feature("f" + i, parser.parse(i % 2 == 0 ? POLYGON : MULTI_POLYGON)));
+        }
+        TilingJob job = TilingJob.builder()
+            .maxTileArea(50000)
+            .minTileArea(500)
+            .coverageThreshold(0.5)
+            .build();
+        List<BoundingBox> polygonTiles = boxes(tileService.generateTiles(POLYGON, job));
+        List<BoundingBox> multiPolygonTiles = boxes(tileService.generateTiles(MULTI_POLYGON, job));
+
+        List<String> ids = new ArrayList<>();
+        long count = tileService.tileEach(features.iterator(), job, (feature, result) -> {
+            assertEquals(ids.size() % 2 == 0 ? polygonTiles : multiPolygonTiles, boxes(result.getTiles()));
+            ids.add(feature.getId());
+        });
+        assertEquals(20, count);
+        assertEquals(features.stream().map(Feature::getId).toList(), ids);
+
+        Iterator<Feature> failing = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == 3) {
+                    throw new IllegalArgumentException("bad feature");
+                }
+                return true;
+            }
+
+            @Override
+            public Feature next() {
+                return features.get(next++);
+            }
+        };
+        List<String> delivered = new ArrayList<>();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> tileService.tileEach(failing, job, (feature, result) -> delivered.add(feature.getId())));
+        assertEquals("bad feature", e.getMessage());
+        assertEquals(List.of("f0", "f1", "f2"), delivered);
+    }
+
+    @Test
+    void tileEach_ShouldBypassResultCache() throws Exception {
+        TileResultCache cache = new TileResultCache(1 << 24, null, 0, new ObjectMapper());
+        TileService cachingService = new TileService(new GeoJsonParser(), new RTreeSerializer(), new GeometryFactory(),
+                cache);
+        try {
+            TilingJob job = TilingJob.builder().maxTileArea(50000).minTileArea(500).build();
+            TilingResult interactive = cachingService.generateTiling(POLYGON, job);
+            List<Feature> features = List.of(new Feature("a", new GeoJsonParser().parse(POLYGON)),
+                    new Feature("b", new GeoJsonParser().parse(MULTI_POLYGON)));
+
+            List<TilingResult> results = new ArrayList<>();
+            cachingService.tileEach(features.iterator(), job, (feature, result) -> results.add(result));
+
+            assertEquals(boxes(interactive.getTiles()), boxes(results.get(0).getTiles()));
+            assertNull(results.get(0).getMetadata().get("resultId"));
+            assertEquals(1L, cache.getStats().get("entries"));
+            assertEquals(0L, cache.getStats().get("hitCount"));
+        } finally {
+            cachingService.shutdown();
+        }
+    }
+
+    @Test
+    void streamTiling_ShouldMatchGenerateTiling() {
+        for (TilingAlgorithm algorithm : TilingAlgorithm.values()) {
+            for (boolean compact : new boolean[]{false, true}) {
+                TilingJob job = TilingJob.builder()
+                    .maxTileArea(50000)
+                    .minTileArea(500)
+                    .coverageThreshold(0.5)
+                    .algorithm(algorithm)
+                    .compact(compact)
+                    .build();
+
+                TilingResult expected = tileService.generateTiling(new GeoJsonParser().parse(MULTI_POLYGON), job);
+                TilingStream stream = tileService.streamTiling(new GeoJsonParser().parse(MULTI_POLYGON), job);
+
+                assertEquals(boxes(expected.getTiles()), boxes(stream.getTiles().collect(Collectors.toList())));
+                assertEquals(expected.getMetadata(), stream.getMetadata());
+            }
+        }
+    }
+
+    @Test
+    void streamTiling_ShouldProduceTilesOnDemand() {
+        TilingJob job = TilingJob.builder()
+            .maxTileArea(50000)
+            .minTileArea(1)
+            .coverageThreshold(0.5)
+            .build();
+
+        TilingStream stream = tileService.streamTiling(new GeoJsonParser().parse(POLYGON), job);
+        Iterator<Tile> tiles = stream.iterator();
+
+        assertTrue(tiles.hasNext());
+        assertNotNull(tiles.next());
+        assertFalse(stream.isConsumed());
+        assertFalse(stream.getMetadata().containsKey("tileCount"));
+    }
+
+    @Test
+    void generateTiles_ConcurrentMixedParameters_ShouldMatchSequentialRuns() throws Exception {
+        List<String> inputs = new ArrayList<>();
+        List<TilingJob> jobs = new ArrayList<>();
+        double[][] parameters = {
+            {50000, 500, 0.5},
+            {200000, 2000, 0.3},
+            {5000, 100, 0.9},
+            {100000, 1000, 0.1}
+        };
+        for (String geoJson : List.of(POLYGON, MULTI_POLYGON)) {
+            for (double[] p : parameters) {
+                for (boolean parallel : new boolean[]{false, true}) {
+                    inputs.add(geoJson);
+                    jobs.add(TilingJob.builder()
+                        .maxTileArea(p[0])
+                        .minTileArea(p[1])
+                        .coverageThreshold(p[2])
+                        .includeBoundingBox(parallel)
+                        .parallel(parallel)
+                        .build());
+                }
+            }
+        }
+
+        List<List<BoundingBox>> expected = new ArrayList<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            expected.add(boxes(tileService.generateTiles(inputs.get(i), jobs.get(i))));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<List<BoundingBox>>> calls = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            for (int round = 0; round < 4; round++) {
+                for (int i = 0; i < jobs.size(); i++) {
+                    final int index = i;
+                    indexes.add(index);
+                    calls.add(() -> boxes(tileService.generateTiles(inputs.get(index), jobs.get(index))));
+                }
+            }
+
+            List<Future<List<BoundingBox>>> futures = executor.invokeAll(calls);
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(expected.get(indexes.get(i)), futures.get(i).get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double totalArea(List<Tile> tiles) {
+        return tiles.stream().mapToDouble(Tile::getArea).sum();
+    }
+
+    private static List<BoundingBox> boxes(List<Tile> tiles) {
+        return tiles.stream().map(Tile::getBoundingBox).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tilingservice.tile;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuadkeyTest {
+
+    private final BoundingBox root = new BoundingBox(new Point(45, 10), new Point(45.017, 10.02));
+
+    @Test
+    void encode_ShouldRoundTripLevelColumnAndRow() {
+        long code = Quadkey.encode(7, 93, 18);
+
+        assertEquals(7, Quadkey.level(code));
+        assertEquals(93, Quadkey.column(code));
+        assertEquals(18, Quadkey.row(code));
+        assertEquals(Quadkey.encode(6, 46, 9), Quadkey.parent(code));
+        assertTrue(Quadkey.contains(Quadkey.parent(code), code));
+        assertFalse(Quadkey.contains(code, Quadkey.parent(code)));
+    }
+
+    @Test
+    void sortedCodes_ShouldFollowDepthFirstSubdivisionOrder() {
+        List<Tile> tiles = new ArrayList<>();
+        collect(new RectangleTile(root), 3, tiles);
+
+        long previous = -1;
+        for (Tile tile : tiles) {
+            long code = Quadkey.of(tile, root);
+            assertTrue(code > previous);
+            previous = code;
+        }
+    }
+
+    @Test
+    void toTile_ShouldRebuildBitIdenticalBounds() {
+        List<Tile> tiles = new ArrayList<>();
+        collect(new RectangleTile(root), 4, tiles);
+
+        for (Tile tile : tiles) {
+            assertEquals(tile.getBoundingBox(), Quadkey.toTile(Quadkey.of(tile, root), root).getBoundingBox());
+        }
+    }
+
+    @Test
+    void of_WebMercatorTile_ShouldUseItsAddress() {
+        WebMercatorTile tile = new WebMercatorTile(12, 2180, 1458);
+
+        long code = Quadkey.of(tile, null);
+
+        assertEquals(tile, Quadkey.toTile(code, null));
+        assertEquals(Quadkey.of(tile.getParent(), null), Quadkey.parent(code));
+    }
+
+    @Test
+    void of_UnalignedTile_ShouldReturnMinusOne() {
+        Tile tile = new RectangleTile(new BoundingBox(new Point(45.001, 10.001), new Point(45.003, 10.004)));
+
+        assertEquals(-1, Quadkey.of(tile, root));
+    }
+
+    @Test
+    void tileSet_ShouldKeepOrderAndCountDescendants() {
+        List<Tile> tiles = new ArrayList<>();
+        collect(new RectangleTile(root), 2, tiles);
+        QuadkeyTileSet.Builder builder = QuadkeyTileSet.builder(root);
+        tiles.forEach(builder::add);
+
+        QuadkeyTileSet set = builder.build();
+
+        assertEquals(tiles, set.asList());
+        assertEquals(5, set.countWithin(Quadkey.encode(1, 1, 1)));
+        assertTrue(set.contains(Quadkey.encode(2, 3, 0)));
+    }
+
+    /**
+     * Every tile down to {@code depth}, in the pre-order the quadtree visits them.
+     */
+    private static void collect(Tile tile, int depth, List<Tile> tiles) {
+        tiles.add(tile);
+        if (depth > 0) {
+            for (Tile child : tile.subdivide()) {
+                collect(child, depth - 1, tiles);
+            }
+        }
+    }
+}
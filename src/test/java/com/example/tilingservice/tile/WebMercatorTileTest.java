@@ -0,0 +1,70 @@
+package com.example.tilingservice.tile;
+
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebMercatorTileTest {
+
+    @Test
+    void getBoundingBox_ShouldFollowSlippyMapConvention() {
+        BoundingBox box = new WebMercatorTile(1, 0, 0).getBoundingBox();
+
+        assertEquals(-180.0, box.getSouthWest().getLongitude(), 1e-12);
+        assertEquals(0.0, box.getSouthWest().getLatitude(), 1e-12);
+        assertEquals(0.0, box.getNorthEast().getLongitude(), 1e-12);
+        assertEquals(WebMercatorTile.MAX_LATITUDE, box.getNorthEast().getLatitude(), 1e-9);
+    }
+
+    @Test
+    void subdivide_ShouldReturnSouthWestNorthWestNorthEastSouthEast() {
+        WebMercatorTile tile = new WebMercatorTile(10, 545, 361);
+        List<WebMercatorTile> children = tile.subdivide();
+        BoundingBox parent = tile.getBoundingBox();
+
+        assertEquals(parent.getSouthWest(), children.get(0).getBoundingBox().getSouthWest());
+        assertEquals(parent.getNorthEast(), children.get(2).getBoundingBox().getNorthEast());
+        assertEquals(children.get(0).getBoundingBox().getNorthEast(), children.get(2).getBoundingBox().getSouthWest());
+        for (WebMercatorTile child : children) {
+            assertEquals(tile, child.getParent());
+        }
+    }
+
+    @Test
+    void covering_ShouldContainBoxWithAtMostTwoTilesPerSide() {
+        BoundingBox box = new BoundingBox(new Point(45, 10), new Point(45.017, 10.02));
+        int zoom = WebMercatorTile.coveringZoom(box);
+        List<WebMercatorTile> tiles = WebMercatorTile.covering(box, zoom);
+
+        assertTrue(zoom >= 10 && zoom <= 14);
+        assertTrue(tiles.size() <= 4);
+        assertTrue(WebMercatorTile.covering(box, zoom + 1).size() > 2);
+        BoundingBox union = tiles.get(0).getBoundingBox();
+        for (WebMercatorTile tile : tiles) {
+            union = union.union(tile.getBoundingBox());
+        }
+        assertTrue(union.contains(box.getSouthWest()));
+        assertTrue(union.contains(box.getNorthEast()));
+    }
+
+    @Test
+    void json_ShouldRoundTripAddress() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        WebMercatorTile tile = new WebMercatorTile(12, 2180, 1458);
+
+        String json = mapper.writeValueAsString(tile);
+
+        assertTrue(json.contains("\"z\":12"));
+        assertEquals(tile, mapper.readValue(json, WebMercatorTile.class));
+    }
+
+    @Test
+    void constructor_AddressOutsideGrid_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new WebMercatorTile(2, 4, 0));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.tilingservice.utils;
+
+import com.example.tilingservice.geojson.GeoJsonParser;
+import com.example.tilingservice.model.BoundingBox;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.Shape;
+import com.example.tilingservice.service.ShapeRings;
+import com.example.tilingservice.tile.RectangleTile;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RectangleClipperTest {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private final GeoJsonParser parser = new GeoJsonParser();
+    private final RectangleClipper clipper = new RectangleClipper();
+
+    @Test
+    void clippedArea_RectangleInsideSquare_ShouldReturnRectangleArea() {
+        double[] square = {0, 0, 0, 2, 2, 2, 2, 0, 0, 0};
+
+        assertEquals(0.25, clipper.clippedArea(square, 0.5, 0.5, 1.0, 1.0), 1e-12);
+    }
+
+    @Test
+    void clippedArea_DisjointRectangle_ShouldReturnZero() {
+        double[] square = {0, 0, 0, 1, 1, 1, 1, 0, 0, 0};
+
+        assertEquals(0.0, clipper.clippedArea(square, 2, 2, 3, 3), 1e-12);
+    }
+
+    @Test
+    void clippedArea_ConcaveRing_ShouldIgnoreDegenerateEdges() {
+        // U shape: the rectangle spans both arms and the notch between them
+        double[] u = {0, 0, 3, 0, 3, 3, 2, 3, 2, 1, 1, 1, 1, 3, 0, 3, 0, 0};
+
+        assertEquals(2.0, clipper.clippedArea(u, 0, 2, 3, 3), 1e-12);
+    }
+
+    @Test
+    void coveredArea_ExistingFixtures_ShouldMatchJts() {
+        List<String> fixtures = List.of(
+            // GeoJsonParserTest
+            "{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[0,1],[1,1],[1,0],[0,0]]]}",
+            "{\"type\":\"MultiPolygon\",\"coordinates\":[[[[0,0],[0,1],[1,1],[1,0],[0,0]]],[[[2,2],[2,3],[3,3],[3,2],[2,2]]]]}",
+            // PolygonShapeTest, square with a hole
+            "{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1],[0,0]],"
+                + "[[0.25,0.25],[0.75,0.25],[0.75,0.75],[0.25,0.75],[0.25,0.25]]]}",
+            // Irregular polygon with a hole
+            "{\"type\":\"Polygon\",\"coordinates\":[[[10,45],[10.013,45.002],[10.02,45.011],[10.008,45.017],"
+                + "[10.001,45.009],[10,45]],[[10.005,45.005],[10.01,45.006],[10.009,45.01],[10.005,45.005]]]}"
+        );
+
+        for (String fixture : fixtures) {
+            Shape shape = parser.parse(fixture);
+            Geometry geometry = shape.toJtsGeometry(geometryFactory);
+            ShapeRings rings = new ShapeRings(shape);
+            BoundingBox bounds = shape.getBoundingBox();
+            double minX = bounds.getSouthWest().getLongitude();
+            double minY = bounds.getSouthWest().getLatitude();
+            double width = bounds.getNorthEast().getLongitude() - minX;
+            double height = bounds.getNorthEast().getLatitude() - minY;
+
+            // 16x16 grid of tiles, offset so tile edges also cut through vertices and holes
+            for (int i = -1; i <= 16; i++) {
+                for (int j = -1; j <= 16; j++) {
+                    double x0 = minX + (i + 0.3) * width / 16;
+                    double y0 = minY + (j + 0.3) * height / 16;
+                    double x1 = x0 + width / 16;
+                    double y1 = y0 + height / 16;
+
+                    Geometry tile = new RectangleTile(new BoundingBox(new Point(y0, x0), new Point(y1, x1)))
+                        .toJtsPolygon(geometryFactory);
+                    double expected = tile.intersection(geometry).getArea();
+                    double actual = rings.coveredArea(clipper, x0, y0, x1, y1);
+
+                    assertEquals(expected, actual, 1e-9 * tile.getArea());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.tilingservice.utils;
+
+import com.example.tilingservice.model.PackedRing;
+import com.example.tilingservice.model.Point;
+import com.example.tilingservice.model.PolygonShape;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingEdgeIndexTest {
+
+    @Test
+    void contains_JaggedRing_ShouldMatchLinearScan() {
+        List<Point> ring = star(5000, 10, 45, 1, new Random(1));
+        RingEdgeIndex index = new RingEdgeIndex(PackedRing.of(ring));
+        Random random = new Random(2);
+
+        for (int i = 0; i < 20000; i++) {
+            Point point = new Point(44 + 2 * random.nextDouble(), 9 + 2 * random.nextDouble());
+            assertEquals(GeometryUtils.pointInPolygon(point, ring), index.contains(point.getLongitude(), point.getLatitude()),
+                    point.toString());
+        }
+        // Probes exactly at vertex latitudes sit on bucket edges
+        for (Point vertex : ring) {
+            Point point = new Point(vertex.getLatitude(), vertex.getLongitude() - 1e-9);
+            assertEquals(GeometryUtils.pointInPolygon(point, ring), index.contains(point.getLongitude(), point.getLatitude()));
+        }
+    }
+
+    @Test
+    void contains_LongEdgesAcrossAllBuckets_ShouldMatchLinearScan() {
+        // A comb: many teeth along the bottom, closed by two edges spanning the whole height
+        List<Point> ring = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            ring.add(new Point(i % 2 == 0 ? 0 : 10, i * 0.01));
+        }
+        ring.add(new Point(20, 20));
+        ring.add(new Point(20, 0));
+        ring.add(ring.get(0));
+        RingEdgeIndex index = new RingEdgeIndex(PackedRing.of(ring));
+        Random random = new Random(3);
+
+        for (int i = 0; i < 5000; i++) {
+            Point point = new Point(21 * random.nextDouble() - 0.5, 21 * random.nextDouble() - 0.5);
+            assertEquals(GeometryUtils.pointInPolygon(point, ring), index.contains(point.getLongitude(), point.getLatitude()));
+        }
+    }
+
+    @Test
+    void containsAll_PolygonWithHoles_ShouldMatchContains() {
+        Random random = new Random(4);
+        List<Point> outer = star(800, 10, 45, 1, random);
+        List<List<Point>> holes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            holes.add(star(100, 9.7 + 0.03 * i, 45, 0.01, random));
+        }
+        PolygonShape polygon = new PolygonShape(outer, holes);
+        double[] points = new double[2 * 5000];
+        for (int i = 0; i < points.length; i += 2) {
+            points[i] = 9 + 2 * random.nextDouble();
+            points[i + 1] = 44 + 2 * random.nextDouble();
+        }
+
+        boolean[] inside = polygon.containsAll(points);
+
+        for (int i = 0; i < inside.length; i++) {
+            assertEquals(polygon.contains(new Point(points[2 * i + 1], points[2 * i])), inside[i]);
+        }
+    }
+
+    /**
+     * Closed star-shaped ring with jittered radii around a center.
+     */
+    private static List<Point> star(int vertices, double longitude, double latitude, double radius, Random random) {
+        List<Point> ring = new ArrayList<>();
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double r = radius * (0.5 + 0.5 * random.nextDouble());
+            ring.add(new Point(latitude + r * Math.sin(angle), longitude + r * Math.cos(angle)));
+        }
+        ring.add(ring.get(0));
+        return ring;
+    }
+}